@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.access;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Results of the API discovery (OpenShift detection, supported API groups) per cluster. The results are kept in memory and,
+ * if a time to live is given, also stored in a properties file so that following builds can reuse them.
+ *
+ * @since 17/10/26
+ */
+class ApiDiscoveryCache {
+
+    private final ConcurrentMap<String, Boolean> results = new ConcurrentHashMap<>();
+
+    private final File cacheFile;
+
+    private final long ttlMillis;
+
+    private Properties persisted;
+
+    /**
+     * @param cacheFile file for storing the results or null if they are only kept in memory
+     * @param ttlMillis how long a stored result is valid. No results are stored if zero or less.
+     */
+    ApiDiscoveryCache(File cacheFile, long ttlMillis) {
+        this.cacheFile = cacheFile;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Get a discovery result, calling the lookup only if there is no valid result for the cluster yet
+     *
+     * @param masterUrl URL of the cluster
+     * @param key what has been looked up
+     * @param lookup the actual lookup which is called if the result is not known yet
+     * @return the result
+     */
+    boolean get(String masterUrl, String key, Callable<Boolean> lookup) throws Exception {
+        String cacheKey = masterUrl + "|" + key;
+        Boolean result = results.get(cacheKey);
+        if (result == null) {
+            result = readPersisted(cacheKey);
+            if (result == null) {
+                result = lookup.call();
+                writePersisted(cacheKey, result);
+            }
+            results.putIfAbsent(cacheKey, result);
+        }
+        return result;
+    }
+
+    void clear() {
+        results.clear();
+        synchronized (this) {
+            persisted = null;
+        }
+    }
+
+    // ===================================================================================
+
+    private synchronized Boolean readPersisted(String cacheKey) {
+        if (!isPersistent()) {
+            return null;
+        }
+        String value = getPersisted().getProperty(cacheKey);
+        if (value == null) {
+            return null;
+        }
+        // Format: <result>,<time stored>
+        String[] parts = value.split(",");
+        try {
+            if (parts.length == 2 && System.currentTimeMillis() - Long.parseLong(parts[1]) < ttlMillis) {
+                return Boolean.valueOf(parts[0]);
+            }
+        } catch (NumberFormatException exp) {
+            // Ignore invalid entries and look up again
+        }
+        return null;
+    }
+
+    private synchronized void writePersisted(String cacheKey, boolean result) {
+        if (!isPersistent()) {
+            return;
+        }
+        Properties props = getPersisted();
+        props.setProperty(cacheKey, result + "," + System.currentTimeMillis());
+        File dir = cacheFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            return;
+        }
+        try (OutputStream os = new FileOutputStream(cacheFile)) {
+            props.store(os, "fabric8-maven-plugin API discovery");
+        } catch (IOException exp) {
+            // The cache is only an optimization
+        }
+    }
+
+    private Properties getPersisted() {
+        if (persisted == null) {
+            persisted = new Properties();
+            if (cacheFile.exists()) {
+                try (InputStream is = new FileInputStream(cacheFile)) {
+                    persisted.load(is);
+                } catch (IOException exp) {
+                    // Start with an empty cache
+                }
+            }
+        }
+        return persisted;
+    }
+
+    private boolean isPersistent() {
+        return cacheFile != null && ttlMillis > 0;
+    }
+}
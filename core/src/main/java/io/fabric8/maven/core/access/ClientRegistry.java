@@ -0,0 +1,208 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.access;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.utils.HttpClientUtils;
+import io.fabric8.openshift.client.DefaultOpenShiftClient;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.openshift.client.OpenShiftConfig;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * Clients shared by all projects of a build session. There is one client per configuration and client type.
+ * All clients whose configurations differ only in settings not used by the HTTP layer (like the namespace) share a
+ * single HTTP client with its connection pool and dispatcher.
+ * The results of the API discovery are cached per cluster. With the system property {@value #DISCOVERY_CACHE_TTL_PROPERTY}
+ * (in seconds) they are also stored in <code>~/.fabric8/cache</code> and reused by following builds.
+ * <p>
+ * The clients are closed when the build session ends.
+ *
+ * @since 17/10/26
+ */
+public class ClientRegistry {
+
+    public static final String DISCOVERY_CACHE_TTL_PROPERTY = "fabric8.apiDiscoveryCacheTtl";
+
+    private static final ConcurrentMap<List<Object>, KubernetesClient> clients = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<List<Object>, OkHttpClient> httpClients = new ConcurrentHashMap<>();
+
+    private static final ApiDiscoveryCache discoveryCache =
+        new ApiDiscoveryCache(new File(System.getProperty("user.home"), ".fabric8/cache/api-discovery.properties"),
+                              getDiscoveryCacheTtl() * 1000);
+
+    private ClientRegistry() { }
+
+    public static KubernetesClient getKubernetesClient(final Config config) {
+        return getClient(config, KubernetesClient.class);
+    }
+
+    public static OpenShiftClient getOpenShiftClient(final Config config) {
+        return (OpenShiftClient) getClient(config, OpenShiftClient.class);
+    }
+
+    /**
+     * Whether the cluster of the given client is an OpenShift cluster
+     *
+     * @param client client to check
+     * @return true for OpenShift
+     * @throws KubernetesClientException if the cluster can't be accessed
+     */
+    public static boolean isOpenShift(final KubernetesClient client) {
+        return lookup(client, "openshift", new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return KubernetesHelper.isOpenShift(client);
+            }
+        });
+    }
+
+    /**
+     * Whether the cluster of the given client supports the given OpenShift API group
+     *
+     * @param client client to check
+     * @param group API group like <code>image.openshift.io</code>
+     * @return true if supported
+     * @throws KubernetesClientException if the cluster can't be accessed
+     */
+    public static boolean supportsOpenShiftAPIGroup(final OpenShiftClient client, final String group) {
+        return lookup(client, "group:" + group, new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return client.supportsOpenShiftAPIGroup(group);
+            }
+        });
+    }
+
+    /**
+     * Close all clients and forget the discovery results kept in memory
+     */
+    public static void closeAll() {
+        for (KubernetesClient client : clients.values()) {
+            client.close();
+        }
+        clients.clear();
+        httpClients.clear();
+        discoveryCache.clear();
+    }
+
+    // ===================================================================================
+
+    private static KubernetesClient getClient(Config config, Class<? extends KubernetesClient> type) {
+        List<Object> key = getClientKey(config, type);
+        KubernetesClient client = clients.get(key);
+        if (client == null) {
+            OkHttpClient httpClient = getHttpClient(config);
+            client = type == OpenShiftClient.class ?
+                new DefaultOpenShiftClient(httpClient, OpenShiftConfig.wrap(config)) :
+                new DefaultKubernetesClient(httpClient, config);
+            KubernetesClient existing = clients.putIfAbsent(key, client);
+            if (existing != null) {
+                client = existing;
+            }
+        }
+        return client;
+    }
+
+    private static OkHttpClient getHttpClient(Config config) {
+        List<Object> key = getConnectionKey(config);
+        OkHttpClient httpClient = httpClients.get(key);
+        if (httpClient == null) {
+            httpClient = HttpClientUtils.createHttpClient(config);
+            OkHttpClient existing = httpClients.putIfAbsent(key, httpClient);
+            if (existing != null) {
+                httpClient = existing;
+            }
+        }
+        return httpClient;
+    }
+
+    // The HTTP client is set up with the credentials, TLS, proxy and timeout settings of the config, so it
+    // can only be shared for configs which agree on all of them
+    private static List<Object> getConnectionKey(Config config) {
+        return Arrays.<Object>asList(
+            config.getMasterUrl(),
+            // Credentials
+            config.getUsername(), config.getPassword(), config.getOauthToken(),
+            config.getClientCertFile(), config.getClientCertData(),
+            config.getClientKeyFile(), config.getClientKeyData(), config.getClientKeyAlgo(), config.getClientKeyPassphrase(),
+            config.getKeyStoreFile(), config.getKeyStorePassphrase(),
+            // Trust
+            config.isTrustCerts(), config.getCaCertFile(), config.getCaCertData(),
+            config.getTrustStoreFile(), config.getTrustStorePassphrase(), asList(config.getTlsVersions()),
+            // Proxy
+            config.getHttpProxy(), config.getHttpsProxy(), asList(config.getNoProxy()),
+            config.getProxyUsername(), config.getProxyPassword(),
+            // Timeouts and limits
+            config.getConnectionTimeout(), config.getRequestTimeout(), config.getWebsocketPingInterval(),
+            config.getMaxConcurrentRequests(), config.getMaxConcurrentRequestsPerHost(),
+            config.getUserAgent());
+    }
+
+    // The remaining settings are used by the client itself
+    private static List<Object> getClientKey(Config config, Class<? extends KubernetesClient> type) {
+        List<Object> key = new ArrayList<>(getConnectionKey(config));
+        key.addAll(Arrays.<Object>asList(
+            type, config.getNamespace(), config.getApiVersion(),
+            config.getWatchReconnectInterval(), config.getWatchReconnectLimit(), config.getWebsocketTimeout(),
+            config.getRollingTimeout(), config.getScaleTimeout(), config.getLoggingInterval(),
+            config.getErrorMessages()));
+        if (config instanceof OpenShiftConfig) {
+            OpenShiftConfig openShiftConfig = (OpenShiftConfig) config;
+            key.addAll(Arrays.<Object>asList(
+                openShiftConfig.getOpenShiftUrl(), openShiftConfig.getOapiVersion(),
+                openShiftConfig.getBuildTimeout(), openShiftConfig.isDisableApiGroupCheck()));
+        }
+        return key;
+    }
+
+    private static List<Object> asList(Object[] values) {
+        return values != null ? Arrays.asList(values) : null;
+    }
+
+    private static boolean lookup(KubernetesClient client, String key, Callable<Boolean> lookup) {
+        try {
+            return discoveryCache.get(String.valueOf(client.getMasterUrl()), key, lookup);
+        } catch (RuntimeException exp) {
+            throw exp;
+        } catch (Exception exp) {
+            throw new IllegalStateException(exp);
+        }
+    }
+
+    private static long getDiscoveryCacheTtl() {
+        String ttl = System.getProperty(DISCOVERY_CACHE_TTL_PROPERTY);
+        try {
+            return ttl != null ? Long.parseLong(ttl.trim()) : 0;
+        } catch (NumberFormatException exp) {
+            return 0;
+        }
+    }
+}
@@ -22,7 +22,6 @@ import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.client.*;
 import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.docker.util.Logger;
-import io.fabric8.openshift.client.DefaultOpenShiftClient;
 import io.fabric8.openshift.client.OpenShiftAPIGroups;
 import io.fabric8.openshift.client.OpenShiftClient;
 import io.fabric8.utils.Strings;
@@ -68,12 +67,18 @@ public class ClusterAccess {
         return (T) createKubernetesClient();
     }
 
+    /**
+     * Get a client for the current namespace. The client is shared within the build session and must not be closed.
+     */
     public KubernetesClient createKubernetesClient() {
-        return new DefaultKubernetesClient(createDefaultConfig());
+        return ClientRegistry.getKubernetesClient(createDefaultConfig());
     }
 
+    /**
+     * Get an OpenShift client for the current namespace. The client is shared within the build session and must not be closed.
+     */
     public OpenShiftClient createOpenShiftClient() {
-        return new DefaultOpenShiftClient(createDefaultConfig());
+        return ClientRegistry.getOpenShiftClient(createDefaultConfig());
     }
 
     // ============================================================================
@@ -92,8 +97,7 @@ public class ClusterAccess {
     public boolean isOpenShiftImageStream(Logger log) {
         if (isOpenShift(log)) {
             if (this.client == null) {
-                OpenShiftClient openShiftClient = createOpenShiftClient();
-                return openShiftClient.supportsOpenShiftAPIGroup(OpenShiftAPIGroups.IMAGE);
+                return ClientRegistry.supportsOpenShiftAPIGroup(createOpenShiftClient(), OpenShiftAPIGroups.IMAGE);
             }
             else{
                 OpenShiftClient openShiftClient = (OpenShiftClient)this.client;
@@ -106,7 +110,7 @@ public class ClusterAccess {
     public boolean isOpenShift(Logger log) {
         try {
             if(this.client==null)
-                return KubernetesHelper.isOpenShift(createKubernetesClient());
+                return ClientRegistry.isOpenShift(createKubernetesClient());
             else
                 return KubernetesHelper.isOpenShift(this.client);
         } catch (KubernetesClientException exp) {
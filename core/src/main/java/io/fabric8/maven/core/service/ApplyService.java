@@ -0,0 +1,358 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.fabric8.kubernetes.api.Controller;
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.ReplicationController;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.maven.core.util.Fingerprint;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.openshift.client.OpenShiftClient;
+
+/**
+ * Applies a set of entities via a {@link Controller}. The entities are grouped into tiers so that
+ * namespaces and definitions come first, then the objects referenced by others (secrets, config maps,
+ * service accounts, ...), then services and finally the controllers, pods, routes and templates. A tier
+ * is only started when the previous one has been applied completely. Entities within a tier don't depend
+ * on each other and are applied concurrently if more than one thread is configured.
+ * <p>
+ * When skipping unchanged entities, a hash of each entity is stored in the annotation
+ * {@link #APPLIED_HASH_ANNOTATION}. The existing entities are fetched with a single list call per
+ * kind and namespace and only entities with a different hash are sent to the cluster.
+ *
+ * @since 17/10/26
+ */
+public class ApplyService {
+
+    public static final String APPLIED_HASH_ANNOTATION = "maven.fabric8.io/applied-hash";
+
+    private static final int TIER_NAMESPACE = 0;
+    private static final int TIER_DEPENDENCY = 1;
+    private static final int TIER_SERVICE = 2;
+    private static final int TIER_WORKLOAD = 3;
+
+    private static final Map<String, Integer> TIERS_BY_KIND = new HashMap<>();
+
+    static {
+        addTier(TIER_NAMESPACE, "Namespace", "Project", "ProjectRequest", "CustomResourceDefinition");
+        addTier(TIER_SERVICE, "Service");
+        addTier(TIER_WORKLOAD,
+                "Pod", "ReplicationController", "ReplicaSet", "Deployment", "DeploymentConfig", "StatefulSet",
+                "DaemonSet", "Job", "CronJob", "Route", "Ingress", "Template");
+    }
+
+    private final KubernetesClient client;
+
+    private final Controller controller;
+
+    private final Logger log;
+
+    private final int threads;
+
+    private final boolean skipUnchanged;
+
+    private final Map<HasMetadata, Long> applyTimes = Collections.synchronizedMap(new IdentityHashMap<HasMetadata, Long>());
+
+    public ApplyService(KubernetesClient client, Controller controller, Logger log, int threads, boolean skipUnchanged) {
+        this.client = client;
+        this.controller = controller;
+        this.log = log;
+        this.threads = threads;
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    /**
+     * Apply the given entities tier by tier. The first error stops the processing after the
+     * current tier has been finished.
+     *
+     * @param entities entities to apply
+     * @param fileName name of the manifest the entities are coming from
+     * @return number of entities applied
+     * @throws Exception the first error thrown by the controller
+     */
+    public int apply(Collection<HasMetadata> entities, String fileName) throws Exception {
+        if (skipUnchanged) {
+            entities = filterUnchanged(entities);
+        }
+        List<List<HasMetadata>> tiers = groupByTier(entities);
+        int maxTierSize = 0;
+        for (List<HasMetadata> tier : tiers) {
+            maxTierSize = Math.max(maxTierSize, tier.size());
+        }
+
+        int count = 0;
+        long start = System.currentTimeMillis();
+        if (threads > 1 && maxTierSize > 1) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, maxTierSize));
+            try {
+                for (List<HasMetadata> tier : tiers) {
+                    count += applyConcurrently(executor, tier, fileName);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        } else {
+            for (List<HasMetadata> tier : tiers) {
+                for (HasMetadata entity : tier) {
+                    applyEntity(entity, fileName);
+                    count++;
+                }
+            }
+        }
+        log.verbose("Applied %d resources in %d ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    /**
+     * Get the times when the entities have been applied. Entities skipped because they were
+     * unchanged are not contained.
+     *
+     * @return map of entities to the time in millis when they have been applied
+     */
+    public Map<HasMetadata, Long> getApplyTimes() {
+        return applyTimes;
+    }
+
+    // Entities whose hash differs from the one stored with the existing entity in the cluster
+    private List<HasMetadata> filterUnchanged(Collection<HasMetadata> entities) {
+        Map<String, Map<String, String>> existingHashes = new HashMap<>();
+        List<HasMetadata> ret = new ArrayList<>();
+        int created = 0, updated = 0, unchanged = 0;
+        for (HasMetadata entity : entities) {
+            if (entity == null) {
+                continue;
+            }
+            String hash = addHashAnnotation(entity);
+            String kind = KubernetesHelper.getKind(entity);
+            String namespace = getNamespace(entity);
+            String key = kind + "/" + namespace;
+            if (!existingHashes.containsKey(key)) {
+                existingHashes.put(key, fetchHashes(kind, namespace));
+            }
+            Map<String, String> hashes = existingHashes.get(key);
+            String name = KubernetesHelper.getName(entity);
+            if (hashes != null && hashes.containsKey(name) && Objects.equals(hashes.get(name), hash)) {
+                log.verbose("%s %s is unchanged", kind, name);
+                unchanged++;
+                continue;
+            }
+            if (hashes != null && !hashes.containsKey(name)) {
+                created++;
+            } else {
+                updated++;
+            }
+            ret.add(entity);
+        }
+        log.info("Resources: %d created, %d updated, %d unchanged", created, updated, unchanged);
+        return ret;
+    }
+
+    /**
+     * Calculate the hash over the entity and store it as annotation
+     *
+     * @param entity entity to annotate
+     * @return the hash
+     */
+    static String addHashAnnotation(HasMetadata entity) {
+        ObjectMeta metadata = entity.getMetadata();
+        if (metadata == null) {
+            metadata = new ObjectMeta();
+            entity.setMetadata(metadata);
+        }
+        if (metadata.getAnnotations() != null) {
+            metadata.getAnnotations().remove(APPLIED_HASH_ANNOTATION);
+        }
+        String hash = new Fingerprint().addObject("entity", entity).build();
+        KubernetesHelper.getOrCreateAnnotations(entity).put(APPLIED_HASH_ANNOTATION, hash);
+        return hash;
+    }
+
+    private String getNamespace(HasMetadata entity) {
+        String namespace = entity.getMetadata().getNamespace();
+        return namespace != null ? namespace : controller.getNamespace();
+    }
+
+    // Hashes of the existing entities by name or null if they can't be listed
+    private Map<String, String> fetchHashes(String kind, String namespace) {
+        KubernetesResourceList<?> list;
+        try {
+            list = listEntities(kind, namespace);
+        } catch (KubernetesClientException exp) {
+            log.verbose("Cannot list %s in %s: %s", kind, namespace, exp.getMessage());
+            return null;
+        }
+        if (list == null) {
+            return null;
+        }
+        Map<String, String> ret = new HashMap<>();
+        for (HasMetadata existing : list.getItems()) {
+            Map<String, String> annotations = existing.getMetadata().getAnnotations();
+            ret.put(KubernetesHelper.getName(existing), annotations != null ? annotations.get(APPLIED_HASH_ANNOTATION) : null);
+        }
+        return ret;
+    }
+
+    private KubernetesResourceList<?> listEntities(String kind, String namespace) {
+        switch (kind) {
+            case "ConfigMap":
+                return client.configMaps().inNamespace(namespace).list();
+            case "Secret":
+                return client.secrets().inNamespace(namespace).list();
+            case "ServiceAccount":
+                return client.serviceAccounts().inNamespace(namespace).list();
+            case "PersistentVolumeClaim":
+                return client.persistentVolumeClaims().inNamespace(namespace).list();
+            case "Service":
+                return client.services().inNamespace(namespace).list();
+            case "Pod":
+                return client.pods().inNamespace(namespace).list();
+            case "ReplicationController":
+                return client.replicationControllers().inNamespace(namespace).list();
+            case "Deployment":
+                return client.extensions().deployments().inNamespace(namespace).list();
+            case "ReplicaSet":
+                return client.extensions().replicaSets().inNamespace(namespace).list();
+            case "DaemonSet":
+                return client.extensions().daemonSets().inNamespace(namespace).list();
+            case "Ingress":
+                return client.extensions().ingresses().inNamespace(namespace).list();
+            case "StatefulSet":
+                return client.apps().statefulSets().inNamespace(namespace).list();
+            case "DeploymentConfig":
+            case "Route":
+            case "ImageStream":
+            case "BuildConfig":
+                return listOpenShiftEntities(kind, namespace);
+            default:
+                // Always applied
+                return null;
+        }
+    }
+
+    private KubernetesResourceList<?> listOpenShiftEntities(String kind, String namespace) {
+        OpenShiftClient openShiftClient = controller.getOpenShiftClientOrNull();
+        if (openShiftClient == null) {
+            return null;
+        }
+        switch (kind) {
+            case "DeploymentConfig":
+                return openShiftClient.deploymentConfigs().inNamespace(namespace).list();
+            case "Route":
+                return openShiftClient.routes().inNamespace(namespace).list();
+            case "ImageStream":
+                return openShiftClient.imageStreams().inNamespace(namespace).list();
+            default:
+                return openShiftClient.buildConfigs().inNamespace(namespace).list();
+        }
+    }
+
+    // Entities grouped by tier, keeping the original order within a tier
+    static List<List<HasMetadata>> groupByTier(Collection<HasMetadata> entities) {
+        List<List<HasMetadata>> tiers = new ArrayList<>();
+        for (int i = 0; i <= TIER_WORKLOAD; i++) {
+            tiers.add(new ArrayList<HasMetadata>());
+        }
+        for (HasMetadata entity : entities) {
+            if (entity != null) {
+                tiers.get(getTier(entity)).add(entity);
+            }
+        }
+        return tiers;
+    }
+
+    static int getTier(HasMetadata entity) {
+        Integer tier = TIERS_BY_KIND.get(KubernetesHelper.getKind(entity));
+        return tier != null ? tier : TIER_DEPENDENCY;
+    }
+
+    private int applyConcurrently(ExecutorService executor, List<HasMetadata> tier, final String fileName) throws Exception {
+        List<Future<Void>> futures = new ArrayList<>();
+        for (final HasMetadata entity : tier) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    applyEntity(entity, fileName);
+                    return null;
+                }
+            }));
+        }
+        // Wait for the whole tier before reporting an error so that no call is left running
+        Exception error = null;
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    error = (Exception) cause;
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return tier.size();
+    }
+
+    private void applyEntity(HasMetadata entity, String fileName) throws Exception {
+        long start = System.currentTimeMillis();
+        if (entity instanceof Pod) {
+            controller.applyPod((Pod) entity, fileName);
+        } else if (entity instanceof Service) {
+            controller.applyService((Service) entity, fileName);
+        } else if (entity instanceof ReplicationController) {
+            controller.applyReplicationController((ReplicationController) entity, fileName);
+        } else {
+            controller.apply(entity, fileName);
+        }
+        long end = System.currentTimeMillis();
+        applyTimes.put(entity, end);
+        log.debug("Applied %s %s in %d ms", KubernetesHelper.getKind(entity), KubernetesHelper.getName(entity), end - start);
+    }
+
+    private static void addTier(int tier, String... kinds) {
+        for (String kind : kinds) {
+            TIERS_BY_KIND.put(kind, tier);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package io.fabric8.maven.core.service;
 
 import java.io.File;
+import java.util.List;
 
 import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
 import io.fabric8.maven.core.config.BuildRecreateMode;
@@ -37,6 +38,14 @@ public interface BuildService {
      */
     void build(ImageConfiguration imageConfig) throws Fabric8ServiceException;
 
+    /**
+     * Prepare the resources which are shared by the builds of the given images. Called once before the
+     * images are built concurrently, each with its own build service.
+     *
+     * @param imageConfigs the images which are going to be built
+     */
+    void prepareBuilds(List<ImageConfiguration> imageConfigs) throws Fabric8ServiceException;
+
     /**
      * Post processing step called after all images has been build
      * @param config build configuration
@@ -68,6 +77,10 @@ public interface BuildService {
 
         private boolean s2iImageStreamLookupPolicyLocal;
 
+        private boolean s2iArchiveCache;
+
+        private int s2iArchiveCompressionLevel;
+
         public BuildServiceConfig() {
         }
 
@@ -111,6 +124,14 @@ public interface BuildService {
             return s2iImageStreamLookupPolicyLocal;
         }
 
+        public boolean isS2iArchiveCache() {
+            return s2iArchiveCache;
+        }
+
+        public int getS2iArchiveCompressionLevel() {
+            return s2iArchiveCompressionLevel;
+        }
+
         public void attachArtifact(String classifier, File destFile) {
             if (attacher != null) {
                 attacher.attach(classifier, destFile);
@@ -163,6 +184,16 @@ public interface BuildService {
                 return this;
             }
 
+            public Builder s2iArchiveCache(boolean s2iArchiveCache) {
+                config.s2iArchiveCache = s2iArchiveCache;
+                return this;
+            }
+
+            public Builder s2iArchiveCompressionLevel(int s2iArchiveCompressionLevel) {
+                config.s2iArchiveCompressionLevel = s2iArchiveCompressionLevel;
+                return this;
+            }
+
             public Builder enricherTask(Task<KubernetesListBuilder> enricherTask) {
                 config.enricherTask = enricherTask;
                 return this;
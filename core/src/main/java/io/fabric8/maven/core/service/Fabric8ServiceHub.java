@@ -107,16 +107,7 @@ public class Fabric8ServiceHub {
         this.services.putIfAbsent(BuildService.class, new LazyBuilder<BuildService>() {
             @Override
             protected BuildService build() {
-                BuildService buildService;
-                // Creating platform-dependent services
-                if (resolvedMode == PlatformMode.openshift) {
-                    // Openshift services
-                    buildService = new OpenshiftBuildService((OpenShiftClient) client, log, dockerServiceHub, buildServiceConfig);
-                } else {
-                    // Kubernetes services
-                    buildService = new DockerBuildService(dockerServiceHub, buildServiceConfig);
-                }
-                return buildService;
+                return createBuildService(log);
             }
         });
 
@@ -140,6 +131,31 @@ public class Fabric8ServiceHub {
         return (BuildService) this.services.get(BuildService.class).get();
     }
 
+    /**
+     * Create a new build service which logs to the given logger, e.g. for building images concurrently
+     * with separate log prefixes. The service uses the same client as {@link #getBuildService()}.
+     *
+     * @param log logger to use
+     * @return a new build service for the resolved platform mode
+     */
+    public BuildService createBuildService(Logger log) {
+        // Creating platform-dependent services
+        if (resolvedMode == PlatformMode.openshift) {
+            // Openshift services
+            return new OpenshiftBuildService((OpenShiftClient) client, log, dockerServiceHub, buildServiceConfig);
+        } else {
+            // Kubernetes services
+            return new DockerBuildService(dockerServiceHub, buildServiceConfig);
+        }
+    }
+
+    /**
+     * @return the platform mode to which the configured mode has been resolved
+     */
+    public PlatformMode getResolvedMode() {
+        return resolvedMode;
+    }
+
     public ArtifactResolverService getArtifactResolverService() {
         return (ArtifactResolverService) this.services.get(ArtifactResolverService.class).get();
     }
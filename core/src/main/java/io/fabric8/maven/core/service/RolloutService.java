@@ -0,0 +1,413 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentStatus;
+import io.fabric8.kubernetes.api.model.extensions.StatefulSet;
+import io.fabric8.kubernetes.api.model.extensions.StatefulSetSpec;
+import io.fabric8.kubernetes.api.model.extensions.StatefulSetStatus;
+import io.fabric8.kubernetes.api.model.extensions.StatefulSetUpdateStrategy;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.maven.core.access.ClientRegistry;
+import io.fabric8.maven.core.util.JSONUtil;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.openshift.api.model.DeploymentConfig;
+import io.fabric8.openshift.api.model.DeploymentConfigStatus;
+import io.fabric8.openshift.client.OpenShiftClient;
+
+/**
+ * Waits until the Deployments, DeploymentConfigs and StatefulSets of a project have been rolled out.
+ * All controllers are watched at the same time and the waiting stops when all of them are ready or
+ * when the global timeout is reached. If a controller cannot be watched its status is polled instead.
+ * <p>
+ * For each controller the time between applying it and the end of its rollout is recorded and can be
+ * written as JSON report.
+ *
+ * @since 17/10/26
+ */
+public class RolloutService {
+
+    public static final String REPORT_FILE_NAME = "rollout.json";
+
+    private static final List<String> ROLLOUT_KINDS = Arrays.asList("Deployment", "DeploymentConfig", "StatefulSet");
+
+    private final KubernetesClient client;
+
+    private final Logger log;
+
+    // Guards the state of all rollouts
+    private final Object lock = new Object();
+
+    public RolloutService(KubernetesClient client, Logger log) {
+        this.client = client;
+        this.log = log;
+    }
+
+    /**
+     * Wait for the rollout of all controllers within the given entities
+     *
+     * @param namespace namespace used for entities without namespace
+     * @param entities entities which have been applied. Only controllers are considered.
+     * @param applyTimes time when an entity has been applied. For entities which are not contained
+     *                   (e.g. because they were unchanged) the start of the waiting is used.
+     * @param timeoutSeconds how long to wait at most for all controllers
+     * @return the rollouts in the order of the given entities
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public List<Rollout> waitForRollout(String namespace, Collection<HasMetadata> entities, Map<HasMetadata, Long> applyTimes,
+                                        long timeoutSeconds) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        long deadline = start + TimeUnit.SECONDS.toMillis(timeoutSeconds);
+
+        List<Rollout> rollouts = new ArrayList<>();
+        for (HasMetadata entity : entities) {
+            if (entity == null || !ROLLOUT_KINDS.contains(KubernetesHelper.getKind(entity))) {
+                continue;
+            }
+            String entityNamespace = entity.getMetadata().getNamespace();
+            Long appliedAt = applyTimes.get(entity);
+            Rollout rollout = new Rollout(KubernetesHelper.getKind(entity),
+                                          entityNamespace != null ? entityNamespace : namespace,
+                                          KubernetesHelper.getName(entity),
+                                          appliedAt != null ? appliedAt : start);
+            rollout.resource = getResource(rollout);
+            if (rollout.resource == null) {
+                log.verbose("Cannot check the rollout of %s %s", rollout.kind, rollout.name);
+                continue;
+            }
+            rollouts.add(rollout);
+        }
+        if (rollouts.isEmpty()) {
+            return rollouts;
+        }
+
+        log.info("Waiting up to %d seconds for the rollout of %d controllers", timeoutSeconds, rollouts.size());
+        List<Rollout> polled = new ArrayList<>();
+        List<Watch> watches = new ArrayList<>();
+        try {
+            for (Rollout rollout : rollouts) {
+                Watch watch = watch(rollout, rollout.resource, polled);
+                if (watch != null) {
+                    watches.add(watch);
+                }
+            }
+            while (true) {
+                List<Rollout> toPoll;
+                synchronized (lock) {
+                    toPoll = new ArrayList<>(polled);
+                }
+                for (Rollout rollout : toPoll) {
+                    poll(rollout);
+                }
+                synchronized (lock) {
+                    long timeLeft = deadline - System.currentTimeMillis();
+                    if (allReady(rollouts) || timeLeft <= 0) {
+                        break;
+                    }
+                    // Wake up every second when some rollouts need to be polled
+                    lock.wait(polled.isEmpty() ? timeLeft : Math.min(1000, timeLeft));
+                }
+            }
+        } finally {
+            for (Watch watch : watches) {
+                watch.close();
+            }
+        }
+
+        synchronized (lock) {
+            for (Rollout rollout : rollouts) {
+                if (rollout.isReady()) {
+                    log.info("%s %s rolled out in %d ms", rollout.kind, rollout.name, rollout.getDuration());
+                } else {
+                    log.warn("%s %s has not been rolled out after %d seconds", rollout.kind, rollout.name, timeoutSeconds);
+                }
+            }
+        }
+        return rollouts;
+    }
+
+    /**
+     * Write a JSON report with the timings of the given rollouts
+     *
+     * @param file file to write to. Parent directories are created if needed.
+     * @param rollouts rollouts to report
+     * @throws IOException if the report cannot be written
+     */
+    public static void writeReport(File file, List<Rollout> rollouts) throws IOException {
+        List<Map<String, Object>> resources = new ArrayList<>();
+        for (Rollout rollout : rollouts) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("kind", rollout.getKind());
+            entry.put("namespace", rollout.getNamespace());
+            entry.put("name", rollout.getName());
+            entry.put("ready", rollout.isReady());
+            entry.put("appliedAt", rollout.getAppliedAt());
+            entry.put("readyAt", rollout.isReady() ? rollout.getReadyAt() : null);
+            entry.put("durationMillis", rollout.isReady() ? rollout.getDuration() : null);
+            resources.add(entry);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", System.currentTimeMillis());
+        report.put("resources", resources);
+
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        JSONUtil.mapper().writerWithDefaultPrettyPrinter().writeValue(file, report);
+    }
+
+    /**
+     * Check whether the rollout of a controller has been finished, i.e. the latest generation
+     * has been observed and all desired replicas are updated and available. For StatefulSets with the
+     * <code>OnDelete</code> strategy only the ready replicas are checked, and with a partitioned rolling
+     * update only the replicas above the partition need to be updated.
+     *
+     * @param entity a Deployment, DeploymentConfig or StatefulSet
+     * @return true if the rollout is finished
+     */
+    static boolean isRolledOut(HasMetadata entity) {
+        if (entity instanceof Deployment) {
+            Deployment deployment = (Deployment) entity;
+            DeploymentStatus status = deployment.getStatus();
+            return status != null &&
+                   isGenerationObserved(entity, status.getObservedGeneration()) &&
+                   areReplicasReady(deployment.getSpec() != null ? deployment.getSpec().getReplicas() : null,
+                                    status.getReplicas(), status.getUpdatedReplicas(), status.getAvailableReplicas());
+        } else if (entity instanceof DeploymentConfig) {
+            DeploymentConfig deploymentConfig = (DeploymentConfig) entity;
+            DeploymentConfigStatus status = deploymentConfig.getStatus();
+            return status != null &&
+                   isGenerationObserved(entity, status.getObservedGeneration()) &&
+                   areReplicasReady(deploymentConfig.getSpec() != null ? deploymentConfig.getSpec().getReplicas() : null,
+                                    status.getReplicas(), status.getUpdatedReplicas(), status.getAvailableReplicas());
+        } else if (entity instanceof StatefulSet) {
+            StatefulSet statefulSet = (StatefulSet) entity;
+            StatefulSetStatus status = statefulSet.getStatus();
+            if (status == null || !isGenerationObserved(entity, status.getObservedGeneration())) {
+                return false;
+            }
+            StatefulSetSpec spec = statefulSet.getSpec();
+            int desired = getDesiredReplicas(spec != null ? spec.getReplicas() : null);
+            if (toInt(status.getReadyReplicas()) < desired) {
+                return false;
+            }
+            StatefulSetUpdateStrategy strategy = spec != null ? spec.getUpdateStrategy() : null;
+            if (strategy != null && "OnDelete".equals(strategy.getType())) {
+                // Pods are only updated when deleted manually, so the revisions never converge by themselves
+                return true;
+            }
+            int partition = getPartition(strategy);
+            if (partition > 0) {
+                // Only the pods with an ordinal at or above the partition are updated
+                return toInt(status.getUpdatedReplicas()) >= desired - partition;
+            }
+            String updateRevision = status.getUpdateRevision();
+            return updateRevision == null || updateRevision.equals(status.getCurrentRevision());
+        }
+        return false;
+    }
+
+    private static int getPartition(StatefulSetUpdateStrategy strategy) {
+        if (strategy == null || strategy.getRollingUpdate() == null) {
+            return 0;
+        }
+        return toInt(strategy.getRollingUpdate().getPartition());
+    }
+
+    private static boolean isGenerationObserved(HasMetadata entity, Long observedGeneration) {
+        Long generation = entity.getMetadata().getGeneration();
+        return generation == null || (observedGeneration != null && observedGeneration >= generation);
+    }
+
+    private static boolean areReplicasReady(Integer specReplicas, Integer replicas, Integer updatedReplicas, Integer availableReplicas) {
+        int desired = getDesiredReplicas(specReplicas);
+        // No old replicas must be left over
+        return toInt(updatedReplicas) >= desired &&
+               toInt(availableReplicas) >= desired &&
+               toInt(replicas) <= toInt(updatedReplicas);
+    }
+
+    private static int getDesiredReplicas(Integer specReplicas) {
+        return specReplicas != null ? specReplicas : 1;
+    }
+
+    private static int toInt(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private boolean allReady(List<Rollout> rollouts) {
+        for (Rollout rollout : rollouts) {
+            if (!rollout.isReady()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Resource<? extends HasMetadata, ?> getResource(Rollout rollout) {
+        switch (rollout.kind) {
+            case "Deployment":
+                return client.extensions().deployments().inNamespace(rollout.namespace).withName(rollout.name);
+            case "StatefulSet":
+                return client.apps().statefulSets().inNamespace(rollout.namespace).withName(rollout.name);
+            default:
+                if (!ClientRegistry.isOpenShift(client)) {
+                    return null;
+                }
+                return client.adapt(OpenShiftClient.class).deploymentConfigs().inNamespace(rollout.namespace).withName(rollout.name);
+        }
+    }
+
+    // Watch the controller or add it to the polled rollouts if this is not possible
+    private <T extends HasMetadata> Watch watch(final Rollout rollout, Resource<T, ?> resource, final List<Rollout> polled) {
+        String resourceVersion = null;
+        try {
+            T current = resource.get();
+            if (current != null) {
+                update(rollout, current);
+                resourceVersion = current.getMetadata().getResourceVersion();
+            }
+            if (rollout.isReady()) {
+                return null;
+            }
+            return resource.withResourceVersion(resourceVersion).watch(new Watcher<T>() {
+                @Override
+                public void eventReceived(Action action, T entity) {
+                    if (action == Action.ADDED || action == Action.MODIFIED) {
+                        update(rollout, entity);
+                    }
+                }
+
+                @Override
+                public void onClose(KubernetesClientException cause) {
+                    if (cause != null) {
+                        log.verbose("Watching %s %s stopped, polling instead: %s", rollout.kind, rollout.name, cause.getMessage());
+                        synchronized (lock) {
+                            polled.add(rollout);
+                            lock.notifyAll();
+                        }
+                    }
+                }
+            });
+        } catch (KubernetesClientException exp) {
+            log.verbose("Cannot watch %s %s, polling instead: %s", rollout.kind, rollout.name, exp.getMessage());
+            synchronized (lock) {
+                polled.add(rollout);
+            }
+            return null;
+        }
+    }
+
+    private void poll(Rollout rollout) {
+        if (rollout.isReady()) {
+            return;
+        }
+        try {
+            HasMetadata current = rollout.resource.get();
+            if (current != null) {
+                update(rollout, current);
+            }
+        } catch (KubernetesClientException exp) {
+            log.verbose("Cannot get %s %s: %s", rollout.kind, rollout.name, exp.getMessage());
+        }
+    }
+
+    private void update(Rollout rollout, HasMetadata entity) {
+        if (isRolledOut(entity)) {
+            synchronized (lock) {
+                if (!rollout.isReady()) {
+                    rollout.readyAt = System.currentTimeMillis();
+                    log.verbose("%s %s is ready", rollout.kind, rollout.name);
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Rollout of a single controller
+     */
+    public static class Rollout {
+
+        private final String kind;
+        private final String namespace;
+        private final String name;
+        private final long appliedAt;
+
+        private volatile long readyAt = -1;
+
+        private Resource<? extends HasMetadata, ?> resource;
+
+        Rollout(String kind, String namespace, String name, long appliedAt) {
+            this.kind = kind;
+            this.namespace = namespace;
+            this.name = name;
+            this.appliedAt = appliedAt;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public String getNamespace() {
+            return namespace;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getAppliedAt() {
+            return appliedAt;
+        }
+
+        /**
+         * @return time when the rollout was finished or -1 if it is not finished
+         */
+        public long getReadyAt() {
+            return readyAt;
+        }
+
+        public boolean isReady() {
+            return readyAt >= 0;
+        }
+
+        /**
+         * @return duration between applying the controller and the end of its rollout or -1 if not finished
+         */
+        public long getDuration() {
+            return isReady() ? Math.max(0, readyAt - appliedAt) : -1;
+        }
+    }
+}
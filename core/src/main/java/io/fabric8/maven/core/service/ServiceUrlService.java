@@ -0,0 +1,251 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.Annotations;
+import io.fabric8.kubernetes.api.Controller;
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceList;
+import io.fabric8.kubernetes.api.model.extensions.HTTPIngressPath;
+import io.fabric8.kubernetes.api.model.extensions.Ingress;
+import io.fabric8.kubernetes.api.model.extensions.IngressBackend;
+import io.fabric8.kubernetes.api.model.extensions.IngressRule;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.openshift.api.model.Route;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.utils.Strings;
+
+/**
+ * Looks up the external URLs of services. The URL is taken from the expose annotation of the
+ * service or from a Route or Ingress pointing to the service. For exposed services without a URL yet
+ * a single watch on all services of the namespace waits until the expose controller has
+ * annotated all of them.
+ *
+ * @since 17/10/26
+ */
+public class ServiceUrlService {
+
+    private final KubernetesClient client;
+
+    private final Logger log;
+
+    public ServiceUrlService(KubernetesClient client, Logger log) {
+        this.client = client;
+        this.log = log;
+    }
+
+    /**
+     * Get the external URLs of the given services and wait for the URLs of exposed services
+     *
+     * @param namespace namespace of the services
+     * @param services services to look up
+     * @param waitSeconds how long to wait for the URLs of exposed services
+     * @return URLs by service name in the order of the given services. Services without URL are not included.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Map<String, String> getServiceUrls(String namespace, Collection<Service> services, long waitSeconds) throws InterruptedException {
+        Map<String, String> urls = new HashMap<>();
+        Set<String> pending = new HashSet<>();
+        if (services.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        ServiceList existing = client.services().inNamespace(namespace).list();
+        Map<String, Service> existingByName = new HashMap<>();
+        if (existing != null) {
+            for (Service service : existing.getItems()) {
+                existingByName.put(KubernetesHelper.getName(service), service);
+            }
+        }
+        Map<String, String> hostUrls = null;
+        for (Service service : services) {
+            String name = KubernetesHelper.getName(service);
+            String url = existingByName.containsKey(name) ? getExposeUrl(existingByName.get(name)) : null;
+            if (url == null) {
+                if (hostUrls == null) {
+                    hostUrls = getHostUrls(namespace);
+                }
+                url = hostUrls.get(name);
+            }
+            if (url != null) {
+                urls.put(name, url);
+            } else if (isExposeService(service)) {
+                pending.add(name);
+            }
+        }
+
+        if (!pending.isEmpty() && waitSeconds > 0) {
+            String resourceVersion = existing != null && existing.getMetadata() != null ?
+                existing.getMetadata().getResourceVersion() : null;
+            waitForExposeUrls(namespace, resourceVersion, pending, urls, waitSeconds);
+        }
+
+        Map<String, String> ret = new LinkedHashMap<>();
+        synchronized (urls) {
+            for (Service service : services) {
+                String name = KubernetesHelper.getName(service);
+                if (urls.containsKey(name)) {
+                    ret.put(name, urls.get(name));
+                }
+            }
+        }
+        return ret;
+    }
+
+    private void waitForExposeUrls(String namespace, String resourceVersion,
+                                   final Set<String> pending, final Map<String, String> urls, long waitSeconds)
+        throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        Watcher<Service> watcher = new Watcher<Service>() {
+            @Override
+            public void eventReceived(Action action, Service service) {
+                if (action != Action.ADDED && action != Action.MODIFIED) {
+                    return;
+                }
+                String url = getExposeUrl(service);
+                if (url != null) {
+                    String name = KubernetesHelper.getName(service);
+                    synchronized (urls) {
+                        if (pending.remove(name)) {
+                            urls.put(name, url);
+                        }
+                        if (pending.isEmpty()) {
+                            latch.countDown();
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public void onClose(KubernetesClientException cause) {
+                if (cause != null) {
+                    log.verbose("Watching services for their URLs stopped: %s", cause.getMessage());
+                }
+                latch.countDown();
+            }
+        };
+        Watch watch;
+        try {
+            watch = resourceVersion != null ?
+                client.services().inNamespace(namespace).withResourceVersion(resourceVersion).watch(watcher) :
+                client.services().inNamespace(namespace).watch(watcher);
+        } catch (KubernetesClientException exp) {
+            log.verbose("Cannot watch services in %s, polling instead: %s", namespace, exp.getMessage());
+            pollForExposeUrls(namespace, pending, urls, waitSeconds);
+            return;
+        }
+        try {
+            if (!latch.await(waitSeconds, TimeUnit.SECONDS)) {
+                synchronized (urls) {
+                    log.verbose("No URL for services %s after %d seconds", pending, waitSeconds);
+                }
+            }
+        } finally {
+            watch.close();
+        }
+    }
+
+    // Fallback when watching is not possible: a single list call for all services per second
+    private void pollForExposeUrls(String namespace, Set<String> pending, Map<String, String> urls, long waitSeconds)
+        throws InterruptedException {
+        for (int i = 0; i < waitSeconds && !pending.isEmpty(); i++) {
+            Thread.sleep(1000);
+            ServiceList services;
+            try {
+                services = client.services().inNamespace(namespace).list();
+            } catch (KubernetesClientException exp) {
+                log.verbose("Cannot list services in %s: %s", namespace, exp.getMessage());
+                continue;
+            }
+            if (services == null) {
+                continue;
+            }
+            for (Service service : services.getItems()) {
+                String name = KubernetesHelper.getName(service);
+                String url = getExposeUrl(service);
+                if (url != null && pending.remove(name)) {
+                    urls.put(name, url);
+                }
+            }
+        }
+    }
+
+    // URLs of the Routes or Ingresses by the name of the service they are pointing to
+    private Map<String, String> getHostUrls(String namespace) {
+        Map<String, String> ret = new HashMap<>();
+        try {
+            OpenShiftClient openShiftClient = new Controller(client).getOpenShiftClientOrNull();
+            if (openShiftClient != null) {
+                for (Route route : openShiftClient.routes().inNamespace(namespace).list().getItems()) {
+                    if (route.getSpec() != null && route.getSpec().getTo() != null && Strings.isNotBlank(route.getSpec().getHost())) {
+                        String scheme = route.getSpec().getTls() != null ? "https://" : "http://";
+                        putIfAbsent(ret, route.getSpec().getTo().getName(), scheme + route.getSpec().getHost());
+                    }
+                }
+            } else {
+                for (Ingress ingress : client.extensions().ingresses().inNamespace(namespace).list().getItems()) {
+                    if (ingress.getSpec() == null || ingress.getSpec().getRules() == null) {
+                        continue;
+                    }
+                    for (IngressRule rule : ingress.getSpec().getRules()) {
+                        if (Strings.isNullOrBlank(rule.getHost()) || rule.getHttp() == null || rule.getHttp().getPaths() == null) {
+                            continue;
+                        }
+                        for (HTTPIngressPath path : rule.getHttp().getPaths()) {
+                            IngressBackend backend = path.getBackend();
+                            if (backend != null) {
+                                putIfAbsent(ret, backend.getServiceName(), "http://" + rule.getHost());
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (KubernetesClientException exp) {
+            log.verbose("Cannot look up routes or ingresses in %s: %s", namespace, exp.getMessage());
+        }
+        return ret;
+    }
+
+    private static void putIfAbsent(Map<String, String> map, String key, String value) {
+        if (key != null && !map.containsKey(key)) {
+            map.put(key, value);
+        }
+    }
+
+    private static String getExposeUrl(Service service) {
+        String url = KubernetesHelper.getOrCreateAnnotations(service).get(Annotations.Service.EXPOSE_URL);
+        return Strings.isNotBlank(url) ? url : null;
+    }
+
+    private static boolean isExposeService(Service service) {
+        String expose = KubernetesHelper.getLabels(service).get("expose");
+        return expose != null && expose.toLowerCase().equals("true");
+    }
+}
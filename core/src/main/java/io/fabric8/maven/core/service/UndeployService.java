@@ -0,0 +1,288 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.fabric8.kubernetes.api.Controller;
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.LabelSelector;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodList;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
+import io.fabric8.maven.core.util.KubernetesClientUtil;
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import io.fabric8.maven.docker.util.ImageName;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.openshift.client.OpenShiftClient;
+
+/**
+ * Deletes the entities of a project. The entities are deleted in the opposite order of {@link ApplyService}:
+ * first controllers, pods and routes, then services, then the other resources and finally namespaces.
+ * The deletes within a tier are independent of each other and run concurrently if more than one thread
+ * is configured. Optionally it waits until all pods of the deleted controllers are gone.
+ *
+ * @since 17/10/26
+ */
+public class UndeployService {
+
+    private final KubernetesClient kubernetes;
+
+    private final Logger log;
+
+    public UndeployService(KubernetesClient kubernetes, Logger log) {
+        this.kubernetes = kubernetes;
+        this.log = log;
+    }
+
+    /**
+     * Delete the given entities with cascading deletes
+     *
+     * @param namespace namespace to delete from
+     * @param entities the entities to delete
+     * @param s2iBuildNameSuffix suffix of the S2I BuildConfigs to delete along with the ImageStreams
+     * @param threads number of deletes to run concurrently
+     * @param waitSeconds how long to wait for the pods of the deleted controllers to disappear. No waiting if zero.
+     * @throws InterruptedException if interrupted while deleting or waiting
+     */
+    public void undeploy(String namespace, Collection<HasMetadata> entities, String s2iBuildNameSuffix,
+                         int threads, long waitSeconds) throws InterruptedException {
+        List<List<HasMetadata>> tiers = ApplyService.groupByTier(entities);
+        Collections.reverse(tiers);
+
+        List<LabelSelector> podSelectors = new ArrayList<>();
+        for (HasMetadata entity : entities) {
+            LabelSelector selector = entity != null ? KubernetesResourceUtil.getPodLabelSelector(entity) : null;
+            if (selector != null && !podSelectors.contains(selector)) {
+                podSelectors.add(selector);
+            }
+        }
+
+        int maxTierSize = 0;
+        List<List<Callable<Void>>> deletes = new ArrayList<>();
+        for (List<HasMetadata> tier : tiers) {
+            // lets delete in reverse order
+            Collections.reverse(tier);
+            List<Callable<Void>> tierDeletes = createDeletes(namespace, tier, s2iBuildNameSuffix);
+            maxTierSize = Math.max(maxTierSize, tierDeletes.size());
+            deletes.add(tierDeletes);
+        }
+
+        if (threads > 1 && maxTierSize > 1) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, maxTierSize));
+            try {
+                for (List<Callable<Void>> tierDeletes : deletes) {
+                    runConcurrently(executor, tierDeletes);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        } else {
+            for (List<Callable<Void>> tierDeletes : deletes) {
+                for (Callable<Void> delete : tierDeletes) {
+                    call(delete);
+                }
+            }
+        }
+
+        if (waitSeconds > 0 && !podSelectors.isEmpty()) {
+            waitForPodsDeleted(namespace, podSelectors, waitSeconds);
+        }
+    }
+
+    private List<Callable<Void>> createDeletes(final String namespace, List<HasMetadata> tier, String s2iBuildNameSuffix) {
+        List<Callable<Void>> ret = new ArrayList<>();
+        OpenShiftClient openShiftClient = null;
+        boolean openShiftChecked = false;
+        for (final HasMetadata entity : tier) {
+            // For OpenShift cluster, also delete s2i buildconfig
+            if ("ImageStream".equals(KubernetesHelper.getKind(entity))) {
+                if (!openShiftChecked) {
+                    openShiftClient = new Controller(kubernetes).getOpenShiftClientOrNull();
+                    openShiftChecked = true;
+                }
+                if (openShiftClient != null) {
+                    final OpenShiftClient client = openShiftClient;
+                    final String buildName = new ImageName(entity.getMetadata().getName()).getSimpleName() + s2iBuildNameSuffix;
+                    ret.add(new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            log.info("Deleting resource BuildConfig " + namespace + "/" + buildName);
+                            client.buildConfigs().inNamespace(namespace).withName(buildName).delete();
+                            return null;
+                        }
+                    });
+                }
+            }
+            ret.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    log.info("Deleting resource " + KubernetesHelper.getKind(entity) + " " + namespace + "/" + KubernetesHelper.getName(entity));
+                    kubernetes.resource(entity).inNamespace(namespace).cascading(true).delete();
+                    return null;
+                }
+            });
+        }
+        return ret;
+    }
+
+    // Run the deletes of a tier and wait until all of them are finished
+    private void runConcurrently(ExecutorService executor, List<Callable<Void>> deletes) throws InterruptedException {
+        List<Future<Void>> futures = new ArrayList<>();
+        for (Callable<Void> delete : deletes) {
+            futures.add(executor.submit(delete));
+        }
+        RuntimeException error = null;
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                if (error == null) {
+                    error = cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void call(Callable<Void> delete) {
+        try {
+            delete.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Wait until no pod matches any of the selectors anymore
+    private void waitForPodsDeleted(String namespace, List<LabelSelector> selectors, long waitSeconds) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(waitSeconds);
+        List<FilterWatchListDeletable<Pod, PodList, Boolean, Watch, Watcher<Pod>>> podOperations = new ArrayList<>();
+        for (LabelSelector selector : selectors) {
+            podOperations.add(KubernetesClientUtil.withSelector(kubernetes.pods().inNamespace(namespace), selector, log));
+        }
+
+        final Set<String> remaining = new HashSet<>();
+        final AtomicBoolean watchFailed = new AtomicBoolean();
+        List<Watch> watches = new ArrayList<>();
+        try {
+            for (FilterWatchListDeletable<Pod, PodList, Boolean, Watch, Watcher<Pod>> pods : podOperations) {
+                PodList podList = pods.list();
+                if (podList.getItems().isEmpty()) {
+                    continue;
+                }
+                synchronized (remaining) {
+                    for (Pod pod : podList.getItems()) {
+                        remaining.add(KubernetesHelper.getName(pod));
+                    }
+                }
+                String resourceVersion = podList.getMetadata() != null ? podList.getMetadata().getResourceVersion() : null;
+                try {
+                    watches.add(pods.withResourceVersion(resourceVersion).watch(new Watcher<Pod>() {
+                        @Override
+                        public void eventReceived(Action action, Pod pod) {
+                            if (action == Action.DELETED) {
+                                synchronized (remaining) {
+                                    remaining.remove(KubernetesHelper.getName(pod));
+                                    remaining.notifyAll();
+                                }
+                            }
+                        }
+
+                        @Override
+                        public void onClose(KubernetesClientException cause) {
+                            if (cause != null) {
+                                log.verbose("Watching pods for their deletion stopped: %s", cause.getMessage());
+                                synchronized (remaining) {
+                                    watchFailed.set(true);
+                                    remaining.notifyAll();
+                                }
+                            }
+                        }
+                    }));
+                } catch (KubernetesClientException exp) {
+                    log.verbose("Cannot watch pods in %s, polling instead: %s", namespace, exp.getMessage());
+                    watchFailed.set(true);
+                    break;
+                }
+            }
+
+            synchronized (remaining) {
+                if (remaining.isEmpty() && !watchFailed.get()) {
+                    return;
+                }
+                log.info("Waiting for pods to be deleted");
+                long timeLeft = deadline - System.currentTimeMillis();
+                while (!remaining.isEmpty() && !watchFailed.get() && timeLeft > 0) {
+                    remaining.wait(timeLeft);
+                    timeLeft = deadline - System.currentTimeMillis();
+                }
+            }
+        } finally {
+            for (Watch watch : watches) {
+                watch.close();
+            }
+        }
+
+        Set<String> left = watchFailed.get() ? pollForPodsDeleted(podOperations, deadline) : remaining;
+        if (left.isEmpty()) {
+            log.info("All pods deleted");
+        } else {
+            log.warn("Pods %s are still not deleted after %d seconds", left, waitSeconds);
+        }
+    }
+
+    // Fallback when watching is not possible: one list call per selector and second
+    private Set<String> pollForPodsDeleted(List<FilterWatchListDeletable<Pod, PodList, Boolean, Watch, Watcher<Pod>>> podOperations,
+                                           long deadline) throws InterruptedException {
+        while (true) {
+            Set<String> remaining = new HashSet<>();
+            for (FilterWatchListDeletable<Pod, PodList, Boolean, Watch, Watcher<Pod>> pods : podOperations) {
+                for (Pod pod : pods.list().getItems()) {
+                    remaining.add(KubernetesHelper.getName(pod));
+                }
+            }
+            if (remaining.isEmpty() || System.currentTimeMillis() >= deadline) {
+                return remaining;
+            }
+            Thread.sleep(Math.min(1000, Math.max(1, deadline - System.currentTimeMillis())));
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package io.fabric8.maven.core.service.kubernetes;
 
+import java.util.List;
+
 import io.fabric8.maven.core.service.BuildService;
 import io.fabric8.maven.core.service.Fabric8ServiceException;
 import io.fabric8.maven.docker.config.ImageConfiguration;
@@ -54,6 +56,11 @@ public class DockerBuildService implements BuildService {
         }
     }
 
+    @Override
+    public void prepareBuilds(List<ImageConfiguration> imageConfigs) {
+        // No shared resources
+    }
+
     @Override
     public void postProcess(BuildServiceConfig config) {
         // No post processing required
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service.openshift;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.fabric8.maven.docker.assembly.ArchiverCustomizer;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.codehaus.plexus.archiver.ArchiveEntry;
+import org.codehaus.plexus.archiver.ResourceIterator;
+import org.codehaus.plexus.archiver.tar.TarArchiver;
+import org.codehaus.plexus.components.io.functions.SymlinkDestinationSupplier;
+import org.codehaus.plexus.components.io.resources.PlexusIoResource;
+
+/**
+ * Docker build archive which is never written to disk. The entries are taken from the archiver which the
+ * docker assembly has set up for the build directory, and the tar stream is written from them directly
+ * when the archive is uploaded.
+ *
+ * @since 17/10/26
+ */
+public class BuildArchive {
+
+    private List<ArchiveEntry> entries = Collections.emptyList();
+
+    public BuildArchive() {
+    }
+
+    BuildArchive(List<ArchiveEntry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Get a customizer which remembers the entries of the configured archiver instead of letting it
+     * create the tar file.
+     *
+     * @param customizer customizer to apply before the entries are taken, can be <code>null</code>
+     * @return customizer to be used as last customizer of the docker assembly
+     */
+    public ArchiverCustomizer collector(final ArchiverCustomizer customizer) {
+        return new ArchiverCustomizer() {
+            @Override
+            public TarArchiver customize(TarArchiver archiver) throws IOException {
+                if (customizer != null) {
+                    archiver = customizer.customize(archiver);
+                }
+                List<ArchiveEntry> collected = new ArrayList<>();
+                ResourceIterator iter = archiver.getResources();
+                while (iter.hasNext()) {
+                    collected.add(iter.next());
+                }
+                entries = collected;
+                return new CollectedTarArchiver();
+            }
+        };
+    }
+
+    public List<ArchiveEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Get the name of the entry within the archive. Directories end with a slash.
+     *
+     * @param entry entry of this archive
+     * @return the name as stored in the tar stream
+     */
+    public static String getEntryName(ArchiveEntry entry) {
+        String name = entry.getName().replace('\\', '/');
+        while (name.startsWith("/")) {
+            name = name.substring(1);
+        }
+        if (entry.getType() == ArchiveEntry.DIRECTORY && !name.endsWith("/")) {
+            name += "/";
+        }
+        return name;
+    }
+
+    /**
+     * Get the target of a symbolic link entry
+     *
+     * @param entry entry of this archive
+     * @return the link target or <code>null</code> if the entry is not a symbolic link
+     */
+    public static String getLinkName(ArchiveEntry entry) throws IOException {
+        PlexusIoResource resource = entry.getResource();
+        if (entry.getType() == ArchiveEntry.SYMLINK && resource instanceof SymlinkDestinationSupplier) {
+            return ((SymlinkDestinationSupplier) resource).getSymlinkDestination();
+        }
+        return null;
+    }
+
+    /**
+     * Write the archive as tar stream. The stream is not closed.
+     *
+     * @param out stream to write to
+     * @throws IOException if an entry can't be read or the stream can't be written
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        TarArchiveOutputStream tar = new TarArchiveOutputStream(out);
+        tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+        for (ArchiveEntry entry : entries) {
+            String linkName = getLinkName(entry);
+            TarArchiveEntry tarEntry = linkName != null ?
+                new TarArchiveEntry(getEntryName(entry), TarArchiveEntry.LF_SYMLINK) :
+                new TarArchiveEntry(getEntryName(entry));
+            PlexusIoResource resource = entry.getResource();
+            tarEntry.setMode(entry.getMode());
+            tarEntry.setModTime(resource.getLastModified());
+            if (linkName != null) {
+                tarEntry.setLinkName(linkName);
+            } else if (entry.getType() == ArchiveEntry.FILE) {
+                tarEntry.setSize(resource.getSize());
+            }
+            tar.putArchiveEntry(tarEntry);
+            if (entry.getType() == ArchiveEntry.FILE) {
+                try (InputStream is = entry.getInputStream()) {
+                    IOUtils.copy(is, tar);
+                }
+            }
+            tar.closeArchiveEntry();
+        }
+        tar.finish();
+        tar.flush();
+    }
+
+    // Archiver returned to the docker assembly, so that no tar file is created
+    private static class CollectedTarArchiver extends TarArchiver {
+        @Override
+        protected void execute() {
+            // The entries are streamed when uploading
+        }
+
+        @Override
+        protected void close() {
+        }
+    }
+}
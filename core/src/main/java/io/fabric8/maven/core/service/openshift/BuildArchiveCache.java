@@ -0,0 +1,188 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service.openshift;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.fabric8.maven.core.util.Fingerprint;
+import io.fabric8.maven.core.util.IoUtil;
+import io.fabric8.maven.core.util.Mappers;
+import io.fabric8.maven.core.util.ResourceFileType;
+import io.fabric8.openshift.api.model.BuildOutput;
+import io.fabric8.openshift.api.model.BuildStrategy;
+import org.codehaus.plexus.archiver.ArchiveEntry;
+
+/**
+ * Remembers the content of the last S2I binary build archive per image together with the image it produced.
+ * <p>
+ * The archive is identified by a digest over its entries (path, mode, link target and content), so that a
+ * freshly assembled archive with new timestamps but the same content is recognized as unchanged. The strategy
+ * and output of the build config are part of the digest, too. If neither the archive nor the build config
+ * changed and the output image stream tag still points to the recorded image, the upload and the build can
+ * be skipped. The build directory is still assembled, as the digest is calculated from its content.
+ *
+ * @since 17/10/26
+ */
+public class BuildArchiveCache {
+
+    public static final String CACHE_DIR_NAME = "s2i-archive";
+
+    private static final String ARCHIVE_DIGEST = "archiveDigest";
+    private static final String IMAGE_STREAM_TAG = "imageStreamTag";
+    private static final String IMAGE = "image";
+
+    private final File cacheDir;
+
+    public BuildArchiveCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Calculate the digest over the entries of a build archive. Modification times and owners are ignored and
+     * entries are taken in the order of their names.
+     *
+     * @param archive build archive
+     * @return digest as hex string
+     * @throws IOException if the content of an entry can't be read
+     */
+    public static String digest(BuildArchive archive) throws IOException {
+        Map<String, String> entries = new TreeMap<>();
+        byte[] buffer = new byte[8192];
+        for (ArchiveEntry entry : archive.getEntries()) {
+            StringBuilder value = new StringBuilder()
+                .append(Integer.toOctalString(entry.getMode())).append(';')
+                .append(entry.getType() == ArchiveEntry.DIRECTORY ? "d" : "f").append(';')
+                .append(BuildArchive.getLinkName(entry)).append(';');
+            if (entry.getType() == ArchiveEntry.FILE) {
+                try (InputStream is = entry.getInputStream()) {
+                    value.append(contentDigest(is, buffer));
+                }
+            }
+            entries.put(BuildArchive.getEntryName(entry), value.toString());
+        }
+        Fingerprint fingerprint = new Fingerprint();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            fingerprint.add(entry.getKey(), entry.getValue());
+        }
+        return fingerprint.build();
+    }
+
+    /**
+     * Calculate the digest over the entries of a build archive and the strategy and output of the build config.
+     * A different builder image, pull secret or build type results in a different image for the same archive.
+     *
+     * @param archive build archive
+     * @param strategy strategy of the build config
+     * @param output output of the build config
+     * @return digest as hex string
+     * @throws IOException if the content of an entry can't be read
+     */
+    public static String digest(BuildArchive archive, BuildStrategy strategy, BuildOutput output) throws IOException {
+        return new Fingerprint()
+            .add("archive", digest(archive))
+            .addObject("strategy", strategy)
+            .addObject("output", output)
+            .build();
+    }
+
+    /**
+     * Get the image built from an archive with the given digest
+     *
+     * @param name name of the build
+     * @param archiveDigest digest of the archive to upload and the build config
+     * @param imageStreamTag output image stream tag of the build
+     * @return the image recorded for this digest and tag or <code>null</code> if the archive is not known
+     */
+    public String getImage(String name, String archiveDigest, String imageStreamTag) {
+        File file = getRecordFile(name);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            Map<String, String> record = Mappers.reader(ResourceFileType.json, Map.class).readValue(file);
+            if (archiveDigest.equals(record.get(ARCHIVE_DIGEST)) && imageStreamTag.equals(record.get(IMAGE_STREAM_TAG))) {
+                return record.get(IMAGE);
+            }
+        } catch (IOException e) {
+            // An unreadable record is treated as a changed archive
+        }
+        return null;
+    }
+
+    /**
+     * Record the image which has been built from an archive
+     *
+     * @param name name of the build
+     * @param archiveDigest digest of the uploaded archive and the build config
+     * @param imageStreamTag output image stream tag of the build
+     * @param image the image the tag points to after the build
+     * @throws IOException if the record can't be written
+     */
+    public void store(String name, String archiveDigest, String imageStreamTag, String image) throws IOException {
+        Map<String, String> record = new LinkedHashMap<>();
+        record.put(ARCHIVE_DIGEST, archiveDigest);
+        record.put(IMAGE_STREAM_TAG, imageStreamTag);
+        record.put(IMAGE, image);
+        File file = getRecordFile(name);
+        if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+            throw new IOException("Cannot create directory " + cacheDir);
+        }
+        Mappers.json().writeValue(file, record);
+    }
+
+    /**
+     * Forget about the archive of a build, e.g. because the image built from it is unknown
+     *
+     * @param name name of the build
+     */
+    public void remove(String name) {
+        File file = getRecordFile(name);
+        if (file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    // ======================================================================================
+
+    private File getRecordFile(String name) {
+        return ResourceFileType.json.addExtension(new File(cacheDir, IoUtil.sanitizeFileName(name)));
+    }
+
+    private static String contentDigest(InputStream is, byte[] buffer) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No SHA-256 digest available", e);
+        }
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        StringBuilder ret = new StringBuilder();
+        for (byte b : digest.digest()) {
+            ret.append(String.format("%02x", b & 0xff));
+        }
+        return ret.toString();
+    }
+}
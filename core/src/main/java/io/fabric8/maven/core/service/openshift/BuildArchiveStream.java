@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service.openshift;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stream which delivers a build archive as tar, optionally gzip compressed, while it is being written. The
+ * tar is written in a background thread into a bounded pipe, so that creating the archive and uploading it
+ * overlap and the writer is slowed down when the upload can't keep up. Neither the tar nor its compressed
+ * form is written to disk.
+ * <p>
+ * An error while writing is reported to the reader when the end of the stream is reached or the stream
+ * is closed.
+ *
+ * @since 17/10/26
+ */
+public class BuildArchiveStream extends InputStream {
+
+    // Size of the pipe between writer and reader
+    private static final int PIPE_SIZE = 256 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PipedInputStream pipe;
+    private final Thread writer;
+    private final AtomicReference<IOException> error = new AtomicReference<>();
+    private volatile boolean closed;
+
+    /**
+     * Start writing the given archive
+     *
+     * @param archive archive to write
+     * @param level gzip compression level between 1 (fastest) and 9 (best) or 0 for an uncompressed tar
+     * @throws IOException if the pipe can't be created
+     */
+    public BuildArchiveStream(final BuildArchive archive, final int level) throws IOException {
+        if (level < 0 || level > 9) {
+            throw new IllegalArgumentException("Invalid compression level " + level + ", must be between 0 and 9");
+        }
+        pipe = new PipedInputStream(PIPE_SIZE);
+        final PipedOutputStream out = new PipedOutputStream(pipe);
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                write(archive, out, level);
+            }
+        }, "build-archive");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        return checkEnd(pipe.read());
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return checkEnd(pipe.read(b, off, len));
+    }
+
+    @Override
+    public int available() throws IOException {
+        return pipe.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        pipe.close();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing archive", e);
+        }
+        rethrowError();
+    }
+
+    // ==========================================================================================
+
+    private void write(BuildArchive archive, PipedOutputStream out, int level) {
+        try (OutputStream os = createOutputStream(out, level)) {
+            archive.writeTo(os);
+        } catch (IOException e) {
+            // Pipe closed by the reader is not an error of the archive
+            if (!closed) {
+                error.set(e);
+            }
+            closeQuietly(out);
+        }
+    }
+
+    private OutputStream createOutputStream(OutputStream out, final int level) throws IOException {
+        if (level == 0) {
+            return new BufferedOutputStream(out, BUFFER_SIZE);
+        }
+        return new GZIPOutputStream(out, BUFFER_SIZE) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    private int checkEnd(int result) throws IOException {
+        if (result == -1) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing archive", e);
+            }
+            rethrowError();
+        }
+        return result;
+    }
+
+    private void rethrowError() throws IOException {
+        IOException exp = error.get();
+        if (exp != null) {
+            throw new IOException("Cannot write archive: " + exp.getMessage(), exp);
+        }
+    }
+
+    private void closeQuietly(OutputStream out) {
+        try {
+            out.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
@@ -21,10 +21,17 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.maven.core.util.KubernetesResourceUtil;
 import io.fabric8.maven.core.util.ResourceFileType;
 import io.fabric8.maven.docker.util.ImageName;
@@ -45,14 +52,23 @@ public class ImageStreamService {
 
 
     public static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss'Z'";
+
+    // Guards the image stream file shared by all images of a build
+    private static final Object IMAGE_STREAM_FILE_LOCK = new Object();
+
     private final OpenShiftClient client;
     private final Logger log;
 
     /**
-     * Retry parameter
+     * Maximum time to wait for a tag on the image stream after a build
      */
-    private final int IMAGE_STREAM_TAG_RETRIES = 15;
-    private final long IMAGE_STREAM_TAG_RETRY_TIMEOUT_IN_MILLIS = 1000;
+    private static final long IMAGE_STREAM_TAG_TIMEOUT_IN_MILLIS = 15000;
+
+    /**
+     * Backoff parameters for polling when the image stream can't be watched
+     */
+    private static final long IMAGE_STREAM_TAG_INITIAL_DELAY_IN_MILLIS = 100;
+    private static final long IMAGE_STREAM_TAG_MAX_DELAY_IN_MILLIS = 2000;
 
 
     public ImageStreamService(OpenShiftClient client, Logger log) {
@@ -93,14 +109,16 @@ public class ImageStreamService {
     }
 
     private File appendImageStreamToFile(ImageStream is, File target) throws MojoExecutionException, IOException {
-
-        Map<String, ImageStream> imageStreams = readAlreadyExtractedImageStreams(target);
-        // Override with given image stream
-        imageStreams.put(is.getMetadata().getName(),is);
-
-        KubernetesList isList =
-            new KubernetesListBuilder().withItems(new ArrayList<HasMetadata>(imageStreams.values())).build();
-        return writeImageStreams(target, isList);
+        // Images built concurrently are merged into the same file one after the other
+        synchronized (IMAGE_STREAM_FILE_LOCK) {
+            Map<String, ImageStream> imageStreams = readAlreadyExtractedImageStreams(target);
+            // Override with given image stream
+            imageStreams.put(is.getMetadata().getName(),is);
+
+            KubernetesList isList =
+                new KubernetesListBuilder().withItems(new ArrayList<HasMetadata>(imageStreams.values())).build();
+            return writeImageStreams(target, isList);
+        }
     }
 
     private File writeImageStreams(File target, KubernetesList entity) throws MojoExecutionException, IOException {
@@ -186,58 +204,153 @@ public class ImageStreamService {
     }
 
     private String findTagSha(OpenShiftClient client, String imageStreamName, String namespace) throws MojoExecutionException {
-        ImageStream currentImageStream = null;
-
-        for (int i = 0; i < IMAGE_STREAM_TAG_RETRIES; i++) {
-            if (i > 0) {
-                log.info("Retrying to find tag on ImageStream %s", imageStreamName);
-                try {
-                    Thread.sleep(IMAGE_STREAM_TAG_RETRY_TIMEOUT_IN_MILLIS);
-                } catch (InterruptedException e) {
-                    log.debug("interrupted", e);
-                }
-            }
-            currentImageStream = client.imageStreams().withName(imageStreamName).get();
-            if (currentImageStream == null) {
-                continue;
-            }
-            ImageStreamStatus status = currentImageStream.getStatus();
-            if (status == null) {
-                continue;
+        long deadline = System.currentTimeMillis() + IMAGE_STREAM_TAG_TIMEOUT_IN_MILLIS;
+        AtomicReference<ImageStream> currentImageStream =
+            new AtomicReference<>(client.imageStreams().withName(imageStreamName).get());
+        String image = findLatestImage(currentImageStream.get());
+        try {
+            if (image == null) {
+                image = watchForTag(client, imageStreamName, currentImageStream, deadline);
             }
-            List<NamedTagEventList> tags = status.getTags();
-            if (tags == null || tags.isEmpty()) {
-                continue;
+            if (image == null) {
+                image = pollForTag(client, imageStreamName, currentImageStream, deadline);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for a tag on ImageStream " + imageStreamName, e);
+        }
 
-            // Iterate all imagestream tags and get the latest one by 'created' attribute
-            TagEvent latestTag = null;
+        if (image != null) {
+            log.info("Found tag on ImageStream " + imageStreamName + " tag: " + image);
+            return image;
+        }
 
-            TAG_EVENT_LIST:
-            for (NamedTagEventList list : tags) {
-                List<TagEvent> items = list.getItems();
-                if (items == null || items.isEmpty()) {
-                    continue TAG_EVENT_LIST;
+        // No image found, even after waiting:
+        if (currentImageStream.get() == null) {
+            throw new MojoExecutionException("Could not find a current ImageStream with name " + imageStreamName + " in namespace " + namespace);
+        } else {
+            throw new MojoExecutionException("Could not find a tag in the ImageStream " + imageStreamName);
+        }
+    }
+
+    // Wait for the first update of the image stream which carries a tag. Returns null when the deadline has
+    // passed or the image stream can't be watched, in which case the caller falls back to polling
+    private String watchForTag(OpenShiftClient client, final String imageStreamName,
+                               final AtomicReference<ImageStream> currentImageStream, long deadline) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<String> image = new AtomicReference<>();
+        Resource<ImageStream, DoneableImageStream> resource = client.imageStreams().withName(imageStreamName);
+        // Start from the version already seen so that no update in between gets lost
+        ImageStream seen = currentImageStream.get();
+        String resourceVersion = seen != null && seen.getMetadata() != null ? seen.getMetadata().getResourceVersion() : null;
+        Watcher<ImageStream> watcher = new Watcher<ImageStream>() {
+            @Override
+            public void eventReceived(Action action, ImageStream imageStream) {
+                if (action == Action.DELETED) {
+                    return;
+                }
+                currentImageStream.set(imageStream);
+                String found = findLatestImage(imageStream);
+                if (found != null) {
+                    image.set(found);
+                    latch.countDown();
                 }
+            }
 
-                for (TagEvent tag : items) {
-                    latestTag = latestTag == null ? tag : newerTag(tag, latestTag);
+            @Override
+            public void onClose(KubernetesClientException cause) {
+                if (cause != null) {
+                    log.verbose("Watch on ImageStream %s closed, polling instead: %s", imageStreamName, cause.getMessage());
                 }
+                latch.countDown();
             }
+        };
 
-            if (latestTag != null && Strings.isNotBlank(latestTag.getImage())) {
-                String image = latestTag.getImage();
-                log.info("Found tag on ImageStream " + imageStreamName + " tag: " + image);
+        Watch watch;
+        try {
+            watch = Strings.isNotBlank(resourceVersion) ?
+                resource.withResourceVersion(resourceVersion).watch(watcher) :
+                resource.watch(watcher);
+        } catch (KubernetesClientException e) {
+            log.verbose("Cannot watch ImageStream %s, polling instead: %s", imageStreamName, e.getMessage());
+            return null;
+        }
+        try {
+            latch.await(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            return image.get();
+        } finally {
+            watch.close();
+        }
+    }
+
+    // Poll with exponential backoff and jitter until a tag shows up or the deadline has passed
+    private String pollForTag(OpenShiftClient client, String imageStreamName,
+                              AtomicReference<ImageStream> currentImageStream, long deadline) throws InterruptedException {
+        long delay = IMAGE_STREAM_TAG_INITIAL_DELAY_IN_MILLIS;
+        while (true) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return null;
+            }
+            log.info("Retrying to find tag on ImageStream %s", imageStreamName);
+            Thread.sleep(Math.min(jitter(delay), remaining));
+            delay = Math.min(delay * 2, IMAGE_STREAM_TAG_MAX_DELAY_IN_MILLIS);
+
+            ImageStream imageStream = client.imageStreams().withName(imageStreamName).get();
+            currentImageStream.set(imageStream);
+            String image = findLatestImage(imageStream);
+            if (image != null) {
                 return image;
             }
         }
+    }
 
-        // No image found, even after several retries:
-        if (currentImageStream == null) {
-            throw new MojoExecutionException("Could not find a current ImageStream with name " + imageStreamName + " in namespace " + namespace);
-        } else {
-            throw new MojoExecutionException("Could not find a tag in the ImageStream " + imageStreamName);
+    /**
+     * Randomize a backoff delay so that concurrent builds don't poll in lockstep
+     *
+     * @param delay nominal delay
+     * @return a delay between half of the nominal delay and the nominal delay
+     */
+    static long jitter(long delay) {
+        long half = delay / 2;
+        return half + (half > 0 ? ThreadLocalRandom.current().nextLong(half + 1) : 0);
+    }
+
+    /**
+     * Get the image of the latest tag of an image stream
+     *
+     * @param imageStream image stream to examine, can be <code>null</code>
+     * @return image of the latest tag event or <code>null</code> if the image stream has no tag yet
+     */
+    String findLatestImage(ImageStream imageStream) {
+        if (imageStream == null) {
+            return null;
+        }
+        ImageStreamStatus status = imageStream.getStatus();
+        if (status == null) {
+            return null;
         }
+        List<NamedTagEventList> tags = status.getTags();
+        if (tags == null || tags.isEmpty()) {
+            return null;
+        }
+
+        // Iterate all imagestream tags and get the latest one by 'created' attribute
+        TagEvent latestTag = null;
+
+        TAG_EVENT_LIST:
+        for (NamedTagEventList list : tags) {
+            List<TagEvent> items = list.getItems();
+            if (items == null || items.isEmpty()) {
+                continue TAG_EVENT_LIST;
+            }
+
+            for (TagEvent tag : items) {
+                latestTag = latestTag == null ? tag : newerTag(tag, latestTag);
+            }
+        }
+
+        return latestTag != null && Strings.isNotBlank(latestTag.getImage()) ? latestTag.getImage() : null;
     }
 
     public TagEvent newerTag(TagEvent tag1, TagEvent tag2) {
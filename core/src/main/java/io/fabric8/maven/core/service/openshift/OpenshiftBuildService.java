@@ -17,11 +17,17 @@
 package io.fabric8.maven.core.service.openshift;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -31,6 +37,7 @@ import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.Watch;
 import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.Gettable;
 import io.fabric8.kubernetes.client.dsl.LogWatch;
 import io.fabric8.maven.core.config.OpenShiftBuildStrategy;
 import io.fabric8.maven.core.service.BuildService;
@@ -56,6 +63,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.codehaus.plexus.archiver.tar.TarArchiver;
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 /**
@@ -64,6 +72,9 @@ import org.json.JSONObject;
  */
 public class OpenshiftBuildService implements BuildService {
 
+    // The docker assembly manager keeps state while creating an archive, so archives are created one after another
+    private static final Object ARCHIVE_LOCK = new Object();
+
     private final OpenShiftClient client;
     private final Logger log;
     private ServiceHub dockerServiceHub;
@@ -90,28 +101,35 @@ public class OpenshiftBuildService implements BuildService {
         try {
             ImageName imageName = new ImageName(imageConfig.getName());
 
-            File dockerTar = createBuildArchive(imageConfig);
+            BuildArchive archive = createBuildArchive(imageConfig);
 
-            KubernetesListBuilder builder = new KubernetesListBuilder();
+            // Check for buildconfig / imagestream / pullSecret and create or update them if necessary
+            buildName = getS2IBuildName(config, imageName);
+            BuildConfigSpec buildSpec =
+                reconcileBuildResources(imageConfig, buildName, getImageStreamName(imageName), config.getOpenshiftPullSecret());
 
-            // Check for buildconfig / imagestream / pullSecret and create them if necessary
-            String openshiftPullSecret = config.getOpenshiftPullSecret();
-            Boolean usePullSecret = checkOrCreatePullSecret(config, client, builder, openshiftPullSecret, imageConfig);
-            if (usePullSecret) {
-                buildName = updateOrCreateBuildConfig(config, client, builder, imageConfig, openshiftPullSecret);
+            String imageStreamTag = getImageStreamName(imageName) + ":" + (imageName.getTag() != null ? imageName.getTag() : "latest");
+            String archiveDigest = config.isS2iArchiveCache() ?
+                BuildArchiveCache.digest(archive, buildSpec.getStrategy(), buildSpec.getOutput()) : null;
+            if (archiveDigest != null && isArchiveAlreadyBuilt(buildName, archiveDigest, imageStreamTag)) {
+                log.info("Build archive for %s unchanged, skipping Build %s", imageStreamTag, buildName);
             } else {
-                buildName = updateOrCreateBuildConfig(config, client, builder, imageConfig, null);
+                // Start the actual build
+                Build build = startBuild(client, archive, buildName);
+
+                // Wait until the build finishes
+                boolean completed = waitForOpenShiftBuildToComplete(client, build);
+
+                if (archiveDigest != null) {
+                    if (completed) {
+                        storeArchiveDigest(buildName, archiveDigest, imageStreamTag);
+                    } else {
+                        // The tag might still point to the previous image
+                        getArchiveCache().remove(buildName);
+                    }
+                }
             }
 
-            checkOrCreateImageStream(config, client, builder, getImageStreamName(imageName));
-            applyResourceObjects(config, client, builder);
-
-            // Start the actual build
-            Build build = startBuild(client, dockerTar, buildName);
-
-            // Wait until the build finishes
-            waitForOpenShiftBuildToComplete(client, build);
-
             // Create a file with generated image streams
             addImageStreamToFile(getImageStreamFile(config), imageName, client);
         } catch (Fabric8ServiceException e) {
@@ -127,19 +145,17 @@ public class OpenshiftBuildService implements BuildService {
         }
     }
 
-    protected File createBuildArchive(ImageConfiguration imageConfig) throws Fabric8ServiceException {
+    protected BuildArchive createBuildArchive(ImageConfiguration imageConfig) throws Fabric8ServiceException {
         // Adding S2I artifacts such as environment variables in S2I mode
         ArchiverCustomizer customizer = getS2ICustomizer(imageConfig);
 
         try {
-            // Create tar file with Docker archive
-            File dockerTar;
-            if (customizer != null) {
-                dockerTar = dockerServiceHub.getArchiveService().createDockerBuildArchive(imageConfig, config.getDockerMojoParameters(), customizer);
-            } else {
-                dockerTar = dockerServiceHub.getArchiveService().createDockerBuildArchive(imageConfig, config.getDockerMojoParameters());
+            // Assemble the build directory, the tar is only streamed when uploading
+            BuildArchive archive = new BuildArchive();
+            synchronized (ARCHIVE_LOCK) {
+                dockerServiceHub.getArchiveService().createDockerBuildArchive(imageConfig, config.getDockerMojoParameters(), archive.collector(customizer));
             }
-            return dockerTar;
+            return archive;
         } catch (MojoExecutionException e) {
             throw new Fabric8ServiceException("Unable to create the build archive", e);
         }
@@ -172,18 +188,132 @@ public class OpenshiftBuildService implements BuildService {
         }
     }
 
+    // The archive needs not to be uploaded again if it did not change and the image built from it is still tagged
+    private boolean isArchiveAlreadyBuilt(String buildName, String archiveDigest, String imageStreamTag) {
+        String image = getArchiveCache().getImage(buildName, archiveDigest, imageStreamTag);
+        return image != null && image.equals(getTaggedImage(imageStreamTag));
+    }
+
+    private void storeArchiveDigest(String buildName, String archiveDigest, String imageStreamTag) throws IOException {
+        BuildArchiveCache cache = getArchiveCache();
+        String image = getTaggedImage(imageStreamTag);
+        if (image != null) {
+            cache.store(buildName, archiveDigest, imageStreamTag, image);
+        } else {
+            cache.remove(buildName);
+        }
+    }
+
+    private String getTaggedImage(String imageStreamTag) {
+        try {
+            ImageStreamTag tag = client.imageStreamTags().withName(imageStreamTag).get();
+            return tag != null && tag.getImage() != null ? KubernetesHelper.getName(tag.getImage()) : null;
+        } catch (KubernetesClientException exp) {
+            log.debug("Cannot lookup ImageStreamTag %s: %s", imageStreamTag, exp.getMessage());
+            return null;
+        }
+    }
+
+    private BuildArchiveCache getArchiveCache() {
+        return new BuildArchiveCache(new File(config.getBuildDirectory(), "fabric8/" + BuildArchiveCache.CACHE_DIR_NAME));
+    }
+
     private File getImageStreamFile(BuildServiceConfig config) {
         return ResourceFileType.yaml.addExtension(new File(config.getBuildDirectory(), String.format("%s-is", config.getArtifactId())));
     }
 
+    @Override
+    public void prepareBuilds(List<ImageConfiguration> imageConfigs) throws Fabric8ServiceException {
+        String pullSecretName = config.getOpenshiftPullSecret();
+        if (pullSecretName == null) {
+            return;
+        }
+        try {
+            // Concurrent builds would otherwise race for creating and updating the shared pull secret
+            Map<String, String> auths = new HashMap<>();
+            for (ImageConfiguration imageConfig : imageConfigs) {
+                auths.putAll(getPullRegistryAuths(config, imageConfig));
+            }
+            if (!auths.isEmpty()) {
+                KubernetesListBuilder builder = new KubernetesListBuilder();
+                List<Callable<Void>> mutations = new ArrayList<>();
+                reconcilePullSecret(client, builder, mutations, pullSecretName, auths, client.secrets().withName(pullSecretName).get());
+                for (Callable<Void> mutation : mutations) {
+                    mutation.call();
+                }
+                applyResourceObjects(config, client, builder);
+            }
+        } catch (Exception ex) {
+            throw new Fabric8ServiceException("Unable to prepare the pull secret " + pullSecretName, ex);
+        }
+    }
+
     @Override
     public void postProcess(BuildServiceConfig config) {
         config.attachArtifact("is", getImageStreamFile(config));
     }
 
-    private String updateOrCreateBuildConfig(BuildServiceConfig config, OpenShiftClient client, KubernetesListBuilder builder, ImageConfiguration imageConfig, String openshiftPullSecret) {
+    /**
+     * Bring the build config, image stream and pull secret of a build up to date. The current state of all
+     * objects is fetched at once, and only the objects which are missing or differ are changed. Updates and
+     * deletions are sent together, afterwards the missing objects are created in one list.
+     *
+     * @return spec with the strategy and output the build config has been set up with
+     */
+    private BuildConfigSpec reconcileBuildResources(ImageConfiguration imageConfig, String buildName, String imageStreamName,
+                                         String pullSecretName) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<BuildConfig> currentBuildConfig = fetch(executor, client.buildConfigs().withName(buildName));
+            Future<ImageStream> currentImageStream = fetch(executor, client.imageStreams().withName(imageStreamName));
+            Future<Secret> currentPullSecret =
+                pullSecretName != null ? fetch(executor, client.secrets().withName(pullSecretName)) : null;
+
+            KubernetesListBuilder builder = new KubernetesListBuilder();
+            List<Callable<Void>> mutations = new ArrayList<>();
+            boolean usePullSecret =
+                checkOrCreatePullSecret(config, client, builder, mutations, pullSecretName, imageConfig, currentPullSecret);
+            BuildConfigSpec buildSpec =
+                updateOrCreateBuildConfig(config, client, builder, mutations, imageConfig, usePullSecret ? pullSecretName : null,
+                                          waitFor(currentBuildConfig));
+            checkOrCreateImageStream(config, client, builder, mutations, imageStreamName, waitFor(currentImageStream));
+
+            for (Future<Void> mutation : executor.invokeAll(mutations)) {
+                waitFor(mutation);
+            }
+            applyResourceObjects(config, client, builder);
+            return buildSpec;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> Future<T> fetch(ExecutorService executor, final Gettable<T> resource) {
+        return executor.submit(new Callable<T>() {
+            @Override
+            public T call() {
+                return resource.get();
+            }
+        });
+    }
+
+    private <T> T waitFor(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private BuildConfigSpec updateOrCreateBuildConfig(BuildServiceConfig config, final OpenShiftClient client, KubernetesListBuilder builder,
+                                             List<Callable<Void>> mutations, ImageConfiguration imageConfig,
+                                             String openshiftPullSecret, BuildConfig buildConfig) {
         ImageName imageName = new ImageName(imageConfig.getName());
-        String buildName = getS2IBuildName(config, imageName);
+        final String buildName = getS2IBuildName(config, imageName);
         String imageStreamName = getImageStreamName(imageName);
         String outputImageStreamTag = imageStreamName + ":" + (imageName.getTag() != null ? imageName.getTag() : "latest");
 
@@ -193,8 +323,6 @@ public class OpenshiftBuildService implements BuildService {
                 .withName(outputImageStreamTag)
                 .endTo().build();
 
-        // Fetch existing build config
-        BuildConfig buildConfig = client.buildConfigs().withName(buildName).get();
         if (buildConfig != null) {
             // lets verify the BC
             BuildConfigSpec spec = getBuildConfigSpec(buildConfig);
@@ -202,16 +330,26 @@ public class OpenshiftBuildService implements BuildService {
 
             if (config.getBuildRecreateMode().isBuildConfig()) {
                 // Delete and recreate afresh
-                client.buildConfigs().withName(buildName).delete();
-                return createBuildConfig(builder, buildName, buildStrategyResource, buildOutput);
+                mutations.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        client.buildConfigs().withName(buildName).delete();
+                        return null;
+                    }
+                });
+                createBuildConfig(builder, buildName, buildStrategyResource, buildOutput);
             } else {
-                // Update & return
-                return updateBuildConfig(client, buildName, buildStrategyResource, buildOutput, spec);
+                // Update
+                updateBuildConfig(client, mutations, buildName, buildStrategyResource, buildOutput, spec);
             }
         } else {
             // Create afresh
-            return createBuildConfig(builder, buildName, buildStrategyResource, buildOutput);
+            createBuildConfig(builder, buildName, buildStrategyResource, buildOutput);
         }
+        return new BuildConfigSpecBuilder()
+            .withStrategy(buildStrategyResource)
+            .withOutput(buildOutput)
+            .build();
     }
 
     private void validateSourceType(String buildName, BuildConfigSpec spec) {
@@ -250,17 +388,23 @@ public class OpenshiftBuildService implements BuildService {
         return buildName;
     }
 
-    private String updateBuildConfig(OpenShiftClient client, String buildName, BuildStrategy buildStrategy,
-                                     BuildOutput buildOutput, BuildConfigSpec spec) {
+    private String updateBuildConfig(final OpenShiftClient client, List<Callable<Void>> mutations, final String buildName,
+                                     final BuildStrategy buildStrategy, final BuildOutput buildOutput, BuildConfigSpec spec) {
         // lets check if the strategy or output has changed and if so lets update the BC
         // e.g. the S2I builder image or the output tag and
         if (!Objects.equals(buildStrategy, spec.getStrategy()) || !Objects.equals(buildOutput, spec.getOutput())) {
-            client.buildConfigs().withName(buildName).edit()
-                    .editSpec()
-                    .withStrategy(buildStrategy)
-                    .withOutput(buildOutput)
-                    .endSpec()
-                    .done();
+            mutations.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    client.buildConfigs().withName(buildName).edit()
+                            .editSpec()
+                            .withStrategy(buildStrategy)
+                            .withOutput(buildOutput)
+                            .endSpec()
+                            .done();
+                    return null;
+                }
+            });
             log.info("Updating BuildServiceConfig %s for %s strategy", buildName, buildStrategy.getType());
         } else {
             log.info("Using BuildServiceConfig %s for %s strategy", buildName, buildStrategy.getType());
@@ -312,8 +456,22 @@ public class OpenshiftBuildService implements BuildService {
         }
     }
 
-    private Boolean checkOrCreatePullSecret(BuildServiceConfig config, OpenShiftClient client, KubernetesListBuilder builder, String pullSecretName, ImageConfiguration imageConfig)
-            throws MojoExecutionException, UnsupportedEncodingException {
+    private boolean checkOrCreatePullSecret(BuildServiceConfig config, OpenShiftClient client, KubernetesListBuilder builder,
+                                            List<Callable<Void>> mutations, String pullSecretName, ImageConfiguration imageConfig,
+                                            Future<Secret> currentPullSecret) throws Exception {
+        if (pullSecretName == null) {
+            return false;
+        }
+        Map<String, String> auths = getPullRegistryAuths(config, imageConfig);
+        if (auths.isEmpty()) {
+            return false;
+        }
+        reconcilePullSecret(client, builder, mutations, pullSecretName, auths, waitFor(currentPullSecret));
+        return true;
+    }
+
+    // Credentials for pulling the base image of the given image, keyed by registry
+    private Map<String, String> getPullRegistryAuths(BuildServiceConfig config, ImageConfiguration imageConfig) throws Exception {
         io.fabric8.maven.docker.service.BuildService.BuildContext dockerBuildContext = config.getDockerBuildContext();
         BuildImageConfiguration buildConfig = imageConfig.getBuildConfiguration();
 
@@ -324,69 +482,83 @@ public class OpenshiftBuildService implements BuildService {
             fromImage = extractBaseFromConfiguration(buildConfig);
         }
 
-        String pullRegistry = EnvUtil.findRegistry(new ImageName(fromImage).getRegistry(), dockerBuildContext.getPullRegistry(), dockerBuildContext.getRegistryConfig().getRegistry());;
+        String pullRegistry = EnvUtil.findRegistry(new ImageName(fromImage).getRegistry(), dockerBuildContext.getPullRegistry(), dockerBuildContext.getRegistryConfig().getRegistry());
 
+        Map<String, String> auths = new HashMap<>();
         if (pullRegistry != null) {
             RegistryService.RegistryConfig registryConfig = dockerBuildContext.getRegistryConfig();
             AuthConfig authConfig = registryConfig.getAuthConfigFactory().createAuthConfig(false, registryConfig.isSkipExtendedAuth(), registryConfig.getAuthConfig(),
                     registryConfig.getSettings(), null, pullRegistry);
 
             if (authConfig != null) {
-
-                JSONObject auths = new JSONObject();
-                JSONObject auth = new JSONObject();
-                JSONObject item = new JSONObject();
-
                 String authString = authConfig.getUsername() + ":" + authConfig.getPassword();
-                item.put("auth", Base64.encodeBase64String(authString.getBytes("UTF-8")));
-                auth.put(pullRegistry, item);
-                auths.put("auths", auth);
-
-                String credentials = Base64.encodeBase64String(auths.toString().getBytes("UTF-8"));
-
-                Map<String, String> data = new HashMap<>();
-                data.put(".dockerconfigjson", credentials);
-
-                boolean hasPullSecret = client.secrets().withName(pullSecretName).get() != null;
-
-                if (!hasPullSecret) {
-                    log.info("Creating Secret %s", hasPullSecret);
-                    builder.addNewSecretItem()
-                            .withNewMetadata()
-                            .withName(pullSecretName)
-                            .endMetadata()
-                            .withData(data)
-                            .withType("kubernetes.io/dockerconfigjson")
-                            .endSecretItem();
-                } else {
-                    log.info("Adding to Secret %s", pullSecretName);
-                    return updateSecret(client, pullSecretName, data);
-                }
-
-                return true;
-            } else {
-                return false;
+                auths.put(pullRegistry, Base64.encodeBase64String(authString.getBytes("UTF-8")));
             }
         }
-        return false;
+        return auths;
     }
 
-    private boolean updateSecret(OpenShiftClient client, String pullSecretName, Map<String, String> data) {
-        if (!Objects.equals(data, client.secrets().withName(pullSecretName).get().getData())) {
-            client.secrets().withName(pullSecretName).edit()
-                    .editMetadata()
+    // The credentials are added to the ones already in the secret, so that images from different registries can
+    // share the pull secret
+    private void reconcilePullSecret(final OpenShiftClient client, KubernetesListBuilder builder, List<Callable<Void>> mutations,
+                                     final String pullSecretName, Map<String, String> auths, Secret pullSecret) throws Exception {
+        JSONObject dockerAuths = pullSecret != null ? getDockerAuths(pullSecret) : new JSONObject();
+        boolean changed = false;
+        for (Map.Entry<String, String> auth : auths.entrySet()) {
+            JSONObject item = dockerAuths.optJSONObject(auth.getKey());
+            if (item == null || !auth.getValue().equals(item.optString("auth"))) {
+                dockerAuths.put(auth.getKey(), new JSONObject().put("auth", auth.getValue()));
+                changed = true;
+            }
+        }
+
+        String credentials = Base64.encodeBase64String(new JSONObject().put("auths", dockerAuths).toString().getBytes("UTF-8"));
+        final Map<String, String> data = new HashMap<>();
+        data.put(".dockerconfigjson", credentials);
+
+        if (pullSecret == null) {
+            log.info("Creating Secret %s", pullSecretName);
+            builder.addNewSecretItem()
+                    .withNewMetadata()
                     .withName(pullSecretName)
                     .endMetadata()
                     .withData(data)
                     .withType("kubernetes.io/dockerconfigjson")
-                    .done();
-            log.info("Updating Secret %s", pullSecretName);
+                    .endSecretItem();
+        } else if (changed) {
+            mutations.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    client.secrets().withName(pullSecretName).edit()
+                            .editMetadata()
+                            .withName(pullSecretName)
+                            .endMetadata()
+                            .withData(data)
+                            .withType("kubernetes.io/dockerconfigjson")
+                            .done();
+                    return null;
+                }
+            });
+            log.info("Adding to Secret %s", pullSecretName);
         } else {
             log.info("Using Secret %s", pullSecretName);
         }
-        return true;
     }
 
+    private JSONObject getDockerAuths(Secret pullSecret) throws UnsupportedEncodingException {
+        String credentials = pullSecret.getData() != null ? pullSecret.getData().get(".dockerconfigjson") : null;
+        if (credentials != null) {
+            try {
+                JSONObject auths = new JSONObject(new String(Base64.decodeBase64(credentials), "UTF-8")).optJSONObject("auths");
+                if (auths != null) {
+                    return auths;
+                }
+            } catch (JSONException exp) {
+                log.warn("Replacing invalid credentials in Secret %s", pullSecret.getMetadata().getName());
+            }
+        }
+        return new JSONObject();
+    }
 
     private String extractBaseFromConfiguration(BuildImageConfiguration buildConfig) {
         String fromImage;
@@ -416,10 +588,17 @@ public class OpenshiftBuildService implements BuildService {
         return fromImage;
     }
 
-    private void checkOrCreateImageStream(BuildServiceConfig config, OpenShiftClient client, KubernetesListBuilder builder, String imageStreamName) {
-        boolean hasImageStream = client.imageStreams().withName(imageStreamName).get() != null;
+    private void checkOrCreateImageStream(BuildServiceConfig config, final OpenShiftClient client, KubernetesListBuilder builder,
+                                          List<Callable<Void>> mutations, final String imageStreamName, ImageStream imageStream) {
+        boolean hasImageStream = imageStream != null;
         if (hasImageStream && config.getBuildRecreateMode().isImageStream()) {
-            client.imageStreams().withName(imageStreamName).delete();
+            mutations.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    client.imageStreams().withName(imageStreamName).delete();
+                    return null;
+                }
+            });
             hasImageStream = false;
         }
         if (!hasImageStream) {
@@ -450,12 +629,15 @@ public class OpenshiftBuildService implements BuildService {
         }
     }
 
-    private Build startBuild(OpenShiftClient client, File dockerTar, String buildName) {
+    private Build startBuild(OpenShiftClient client, BuildArchive archive, String buildName) throws IOException {
         log.info("Starting Build %s", buildName);
         try {
-            return client.buildConfigs().withName(buildName)
-                    .instantiateBinary()
-                    .fromFile(dockerTar);
+            // Written and optionally compressed while uploading, OpenShift detects the compression of the archive
+            try (InputStream stream = new BuildArchiveStream(archive, config.getS2iArchiveCompressionLevel())) {
+                return client.buildConfigs().withName(buildName)
+                        .instantiateBinary()
+                        .fromInputStream(stream);
+            }
         } catch (KubernetesClientException exp) {
             Status status = exp.getStatus();
             if (status != null) {
@@ -469,7 +651,8 @@ public class OpenshiftBuildService implements BuildService {
         }
     }
 
-    private void waitForOpenShiftBuildToComplete(OpenShiftClient client, Build build) throws MojoExecutionException, InterruptedException {
+    // Returns true if the build has been completed, false if it might still be running
+    private boolean waitForOpenShiftBuildToComplete(OpenShiftClient client, Build build) throws MojoExecutionException, InterruptedException {
         final CountDownLatch latch = new CountDownLatch(1);
         final CountDownLatch logTerminateLatch = new CountDownLatch(1);
         final String buildName = KubernetesHelper.getName(build);
@@ -492,8 +675,11 @@ public class OpenshiftBuildService implements BuildService {
                     latch.countDown();
                 }
 
-                waitUntilBuildFinished(latch);
-                logTerminateLatch.countDown();
+                try {
+                    latch.await();
+                } finally {
+                    logTerminateLatch.countDown();
+                }
 
                 build = buildHolder.get();
                 if (build == null) {
@@ -510,6 +696,7 @@ public class OpenshiftBuildService implements BuildService {
                 } else {
                     log.info("Build %s in status %s", buildName, status);
                 }
+                return Builds.isCompleted(status);
             }
         }
     }
@@ -538,21 +725,11 @@ public class OpenshiftBuildService implements BuildService {
             }
         })) {
             readyLatch.await(nAwaitTimeout, TimeUnit.SECONDS);
-        } catch (KubernetesClientException | InterruptedException e) {
+        } catch (KubernetesClientException e) {
             log.error("Could not watch pod", e);
         }
     }
 
-    private void waitUntilBuildFinished(CountDownLatch latch) {
-        while (latch.getCount() > 0L) {
-            try {
-                latch.await();
-            } catch (InterruptedException e) {
-                // ignore
-            }
-        }
-    }
-
     private Watcher<Build> getBuildWatcher(final CountDownLatch latch, final String buildName, final AtomicReference<Build> buildHolder) {
         return new Watcher<Build>() {
 
@@ -48,7 +48,7 @@ public class ClassUtil {
         return ret;
     }
 
-    private static ClassLoader[] mergeClassLoaders(List<ClassLoader> additionalClassLoaders) {
+    static ClassLoader[] mergeClassLoaders(List<ClassLoader> additionalClassLoaders) {
         ClassLoader[] classLoaders;
 
         if (additionalClassLoaders != null && !additionalClassLoaders.isEmpty()) {
@@ -169,19 +169,14 @@ public class ClassUtil {
     }
 
 
+    /**
+     * Get a class loader for the project's compile classpath which uses the plugin's class loader as parent.
+     * The class loader is shared for the project and must not be closed by the caller.
+     */
     public static URLClassLoader createProjectClassLoader(final MavenProject project, Logger log) {
 
         try {
-
-            List<URL> compileJars = new ArrayList<>();
-
-            for (String element : project.getCompileClasspathElements()) {
-                compileJars.add(new File(element).toURI().toURL());
-            }
-
-            return new URLClassLoader(compileJars.toArray(new URL[compileJars.size()]),
-                    PluginServiceFactory.class.getClassLoader());
-
+            return ProjectClassLoaders.getInstance(project).getProjectClassLoader();
         } catch (Exception e) {
             log.warn("Instructed to use project classpath, but cannot. Continuing build if we can: ", e);
         }
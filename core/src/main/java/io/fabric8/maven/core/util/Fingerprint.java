@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * SHA-256 fingerprint over a set of inputs, used for detecting whether a goal's inputs changed since
+ * its last run. Every input is added with a key, so that the same value given for different inputs results
+ * in a different fingerprint.
+ *
+ * @since 17/10/26
+ */
+public class Fingerprint {
+
+    // Mapper used for configuration objects. Sorted properties and map entries give a stable representation
+    private static final ObjectMapper CONFIG_MAPPER = new ObjectMapper()
+        .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+        .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+        .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+
+    private final MessageDigest digest;
+
+    public Fingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No SHA-256 digest available", e);
+        }
+    }
+
+    /**
+     * Add a string value
+     */
+    public Fingerprint add(String key, String value) {
+        update(key);
+        update(value != null ? value : "\u0000null");
+        return this;
+    }
+
+    /**
+     * Add properties, sorted by key
+     */
+    public Fingerprint addProperties(String key, Properties properties) {
+        update(key);
+        if (properties != null) {
+            for (String name : new TreeSet<>(properties.stringPropertyNames())) {
+                add(name, properties.getProperty(name));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add a configuration object by its JSON representation
+     *
+     * @throws IllegalArgumentException if the object cannot be serialized
+     */
+    public Fingerprint addObject(String key, Object value) {
+        try {
+            return add(key, CONFIG_MAPPER.writeValueAsString(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + key + " for fingerprint: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Add the content of a file, or of all files below a directory in a stable order. The path relative to the given
+     * file is included, too. Nothing is added for a non-existing file except the key.
+     */
+    public Fingerprint addFile(String key, File file) throws IOException {
+        update(key);
+        addFile(file, "");
+        return this;
+    }
+
+    /**
+     * Add the path, length and modification time of a file, but not its content. Used for large inputs like
+     * dependency jars.
+     */
+    public Fingerprint addFileStamp(String key, File file) {
+        update(key);
+        if (file != null && file.exists()) {
+            update(file.getAbsolutePath() + ";" + file.length() + ";" + file.lastModified());
+        }
+        return this;
+    }
+
+    /**
+     * Finish the fingerprint. The fingerprint can't be used anymore afterwards.
+     *
+     * @return fingerprint as hex string
+     */
+    public String build() {
+        byte[] hash = digest.digest();
+        StringBuilder ret = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            ret.append(String.format("%02x", b & 0xff));
+        }
+        return ret.toString();
+    }
+
+    // ====================================================================================
+
+    private void addFile(File file, String relativePath) throws IOException {
+        if (file == null || !file.exists()) {
+            return;
+        }
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    addFile(child, relativePath + "/" + child.getName());
+                }
+            }
+        } else {
+            update(relativePath);
+            update(Long.toString(file.length()));
+            byte[] buffer = new byte[8192];
+            try (InputStream is = new FileInputStream(file)) {
+                int read;
+                while ((read = is.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+    }
+
+    // Length prefixed so that concatenated values can't be ambiguous
+    private void update(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+}
@@ -30,7 +30,7 @@ import org.json.JSONObject;
  */
 public class JSONUtil {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectMapper OBJECT_MAPPER = Mappers.json();
 
     public static ObjectMapper mapper() {
         return OBJECT_MAPPER;
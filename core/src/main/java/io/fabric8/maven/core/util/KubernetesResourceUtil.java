@@ -23,7 +23,6 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.UnknownHostException;
-import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -41,11 +40,14 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import io.fabric8.kubernetes.api.KubernetesHelper;
-import io.fabric8.kubernetes.api.extensions.Templates;
 import io.fabric8.kubernetes.api.model.ConfigMap;
 import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
 import io.fabric8.kubernetes.api.model.Container;
@@ -88,16 +90,12 @@ import io.fabric8.openshift.api.model.BuildStatus;
 import io.fabric8.openshift.api.model.DeploymentConfig;
 import io.fabric8.openshift.api.model.DeploymentConfigSpec;
 import io.fabric8.openshift.api.model.Template;
-import io.fabric8.utils.Files;
 import io.fabric8.utils.Strings;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
@@ -151,16 +149,83 @@ public class KubernetesResourceUtil {
     public static KubernetesListBuilder readResourceFragmentsFrom(ResourceVersioning apiVersions,
                                                                   String defaultName,
                                                                   File[] resourceFiles) throws IOException {
+        return readResourceFragmentsFrom(apiVersions, defaultName, resourceFiles, 1);
+    }
+
+    /**
+     * Read all Kubernetes resource fragments from a directory and create a {@link KubernetesListBuilder} which
+     * can be adapted later. With more than one thread the fragments are parsed and converted concurrently on
+     * a fork-join pool. The items are added to the builder in the order of the given files in any case.
+     *
+     * @param apiVersions the api versions to use
+     * @param defaultName the default name to use when none is given
+     * @param resourceFiles files to add.
+     * @param threads number of fragments to parse in parallel
+     * @return the list builder
+     * @throws IOException
+     */
+    public static KubernetesListBuilder readResourceFragmentsFrom(ResourceVersioning apiVersions,
+                                                                  String defaultName,
+                                                                  File[] resourceFiles,
+                                                                  int threads) throws IOException {
         KubernetesListBuilder builder = new KubernetesListBuilder();
         if (resourceFiles != null) {
-            for (File file : resourceFiles) {
-                HasMetadata resource = getResource(apiVersions, file, defaultName);
-                builder.addToItems(resource);
+            if (threads > 1 && resourceFiles.length > 1) {
+                for (HasMetadata resource : readResourcesConcurrently(apiVersions, defaultName, resourceFiles, threads)) {
+                    builder.addToItems(resource);
+                }
+            } else {
+                for (File file : resourceFiles) {
+                    HasMetadata resource = getResource(apiVersions, file, defaultName);
+                    builder.addToItems(resource);
+                }
             }
         }
         return builder;
     }
 
+    private static List<HasMetadata> readResourcesConcurrently(final ResourceVersioning apiVersions,
+                                                               final String defaultName,
+                                                               File[] resourceFiles, int threads) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(Math.min(threads, resourceFiles.length));
+        try {
+            List<ForkJoinTask<HasMetadata>> tasks = new ArrayList<>();
+            for (final File file : resourceFiles) {
+                tasks.add(pool.submit(new Callable<HasMetadata>() {
+                    @Override
+                    public HasMetadata call() throws IOException {
+                        return getResource(apiVersions, file, defaultName);
+                    }
+                }));
+            }
+            // Collect in file order so that the result does not depend on scheduling
+            List<HasMetadata> ret = new ArrayList<>();
+            for (ForkJoinTask<HasMetadata> task : tasks) {
+                ret.add(waitForResource(task));
+            }
+            return ret;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static HasMetadata waitForResource(ForkJoinTask<HasMetadata> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading resource fragments", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
     /**
      * Read a Kubernetes resource fragment and add meta information extracted from the filename
      * to the resource descriptor. I.e. the following elements are added if not provided in the fragment:
@@ -179,9 +244,8 @@ public class KubernetesResourceUtil {
     public static HasMetadata getResource(ResourceVersioning apiVersions,
                                           File file, String appName) throws IOException {
         Map<String,Object> fragment = readAndEnrichFragment(apiVersions, file, appName);
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            return mapper.convertValue(fragment, HasMetadata.class);
+            return Mappers.json().convertValue(fragment, HasMetadata.class);
         } catch (ClassCastException exp) {
             throw new IllegalArgumentException(String.format("Resource fragment %s has an invalid syntax (%s)", file.getPath(), exp.getMessage()));
         }
@@ -201,17 +265,12 @@ public class KubernetesResourceUtil {
     }
 
     public static File writeResourceFile(Object resource, File outputFile, ResourceFileType resourceFileType) throws IOException {
-        String serialized = serializeAsString(resource, resourceFileType);
-        Files.writeToFile(outputFile, serialized, Charset.defaultCharset());
+        ManifestWriter.write(resource, outputFile, resourceFileType);
         return outputFile;
     }
 
     private static String serializeAsString(Object resource, ResourceFileType resourceFileType) throws JsonProcessingException {
-        ObjectMapper mapper = resourceFileType.getObjectMapper()
-                                              .enable(SerializationFeature.INDENT_OUTPUT)
-                                              .disable(SerializationFeature.WRITE_EMPTY_JSON_ARRAYS)
-                                              .disable(SerializationFeature.WRITE_NULL_MAP_VALUES);
-        return mapper.writeValueAsString(resource);
+        return ManifestWriter.toString(resource, resourceFileType);
     }
 
     public static File[] listResourceFragments(File resourceDir) {
@@ -291,12 +350,12 @@ public class KubernetesResourceUtil {
 
     private static final String FILENAME_PATTERN = "^(?<name>.*?)(-(?<type>[^-]+))?\\.(?<ext>yaml|yml|json)$";
     private static final String PROFILES_PATTERN = "^profiles?\\.ya?ml$";
+    private static final Pattern FILENAME_REGEXP = Pattern.compile(FILENAME_PATTERN, Pattern.CASE_INSENSITIVE);
 
     // Read fragment and add default values
     private static Map<String, Object> readAndEnrichFragment(ResourceVersioning apiVersions,
                                                              File file, String appName) throws IOException {
-        Pattern pattern = Pattern.compile(FILENAME_PATTERN, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(file.getName());
+        Matcher matcher = FILENAME_REGEXP.matcher(file.getName());
         if (!matcher.matches()) {
             throw new IllegalArgumentException(
                 String.format("Resource file name '%s' does not match pattern <name>-<type>.(yaml|yml|json)", file.getName()));
@@ -381,7 +440,7 @@ public class KubernetesResourceUtil {
     }
 
     private static Map<String,Object> readFragment(File file, String ext) throws IOException {
-        ObjectMapper mapper = new ObjectMapper("json".equals(ext) ? new JsonFactory() : new YAMLFactory());
+        ObjectMapper mapper = "json".equals(ext) ? Mappers.json() : Mappers.yaml();
         TypeReference<HashMap<String,Object>> typeRef = new TypeReference<HashMap<String,Object>>() {};
         try {
             Map<String, Object> ret = mapper.readValue(file, typeRef);
@@ -852,6 +911,13 @@ public class KubernetesResourceUtil {
     }
 
     public static Set<HasMetadata> loadResources(File manifest) throws IOException {
+        return loadResources(manifest, new TemplateExpander());
+    }
+
+    /**
+     * Load the resources of a manifest. A template is processed locally with the given expander.
+     */
+    public static Set<HasMetadata> loadResources(File manifest, TemplateExpander templateExpander) throws IOException {
         Object dto = KubernetesHelper.loadYaml(manifest, KubernetesResource.class);
         if (dto == null) {
             throw new IllegalStateException("Cannot load kubernetes YAML: " + manifest);
@@ -860,7 +926,7 @@ public class KubernetesResourceUtil {
         if (dto instanceof Template) {
             Template template = (Template) dto;
             boolean failOnMissingParameterValue = false;
-            dto = Templates.processTemplatesLocally(template, failOnMissingParameterValue);
+            dto = templateExpander.process(template, failOnMissingParameterValue);
         }
 
         Set<KubernetesResource<?>> resources = new LinkedHashSet<>();
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+
+/**
+ * Writes resource descriptors as YAML or JSON. Resources are serialized directly into the target files
+ * with the shared writer per file type from {@link Mappers}, so that the serialized document is never held in memory as a whole.
+ * <p>
+ * A list can be written to several composite files and to one file per item in a single pass over its items.
+ *
+ * @since 17/10/26
+ */
+public class ManifestWriter {
+
+    private ManifestWriter() {
+    }
+
+    /**
+     * Serialize a resource to a string
+     */
+    public static String toString(Object resource, ResourceFileType type) throws JsonProcessingException {
+        return Mappers.resourceWriter(type).writeValueAsString(resource);
+    }
+
+    /**
+     * Write a resource to the given file
+     */
+    public static void write(Object resource, File file, ResourceFileType type) throws IOException {
+        Mappers.resourceWriter(type).writeValue(openStream(file), resource);
+    }
+
+    /**
+     * Write a list to composite files and each of its items to an individual file. The items are traversed only
+     * once and every item is written to all files before the next item is serialized.
+     *
+     * @param list the list to write
+     * @param listFiles composite files to write the whole list to, by file type
+     * @param itemFiles files for the individual items. Items which are not contained are only written to the composite files.
+     * @param itemFileType file type of the individual files
+     * @throws IOException if writing fails
+     */
+    public static void write(KubernetesList list, Map<ResourceFileType, File> listFiles,
+                             Map<HasMetadata, File> itemFiles, ResourceFileType itemFileType) throws IOException {
+        if (list.getMetadata() != null || (list.getAdditionalProperties() != null && !list.getAdditionalProperties().isEmpty())) {
+            // Not streamed item by item, as the position of these properties is up to the list's serializer
+            for (Map.Entry<ResourceFileType, File> entry : listFiles.entrySet()) {
+                write(list, entry.getValue(), entry.getKey());
+            }
+            listFiles = Collections.emptyMap();
+        }
+
+        List<HasMetadata> items = list.getItems() != null ? list.getItems() : Collections.<HasMetadata>emptyList();
+        Map<JsonGenerator, ObjectWriter> generators = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<ResourceFileType, File> entry : listFiles.entrySet()) {
+                ObjectWriter writer = Mappers.resourceWriter(entry.getKey());
+                JsonGenerator generator = writer.getFactory().createGenerator(openStream(entry.getValue()));
+                generators.put(generator, writer);
+                if (entry.getKey() == ResourceFileType.json) {
+                    generator.useDefaultPrettyPrinter();
+                }
+                generator.writeStartObject();
+                writeStringField(generator, "apiVersion", list.getApiVersion());
+                writeStringField(generator, "kind", list.getKind());
+                if (!items.isEmpty()) {
+                    generator.writeFieldName("items");
+                    generator.writeStartArray();
+                }
+            }
+
+            for (HasMetadata item : items) {
+                for (Map.Entry<JsonGenerator, ObjectWriter> entry : generators.entrySet()) {
+                    entry.getValue().writeValue(entry.getKey(), item);
+                }
+                File itemFile = item != null ? itemFiles.get(item) : null;
+                if (itemFile != null) {
+                    write(item, itemFile, itemFileType);
+                }
+            }
+
+            for (JsonGenerator generator : generators.keySet()) {
+                if (!items.isEmpty()) {
+                    generator.writeEndArray();
+                }
+                generator.writeEndObject();
+            }
+        } finally {
+            IOException error = null;
+            for (JsonGenerator generator : generators.keySet()) {
+                try {
+                    generator.close();
+                } catch (IOException e) {
+                    error = error != null ? error : e;
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+
+    // Stream to the file, creating parent directories if needed. The stream is closed by the writer.
+    private static OutputStream openStream(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        return new BufferedOutputStream(new FileOutputStream(file));
+    }
+
+    private static void writeStringField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+}
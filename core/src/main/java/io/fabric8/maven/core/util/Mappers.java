@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.maven.core.config.Profile;
+import io.fabric8.openshift.api.model.Template;
+
+/**
+ * Shared Jackson mappers for JSON and YAML. Creating a mapper is expensive and every new mapper starts
+ * with empty serializer and deserializer caches, so the same instances should be used everywhere.
+ * <p>
+ * The mappers are thread-safe as long as they are not reconfigured, so callers must never change their
+ * configuration. Use {@link ObjectMapper#reader()} or {@link ObjectMapper#writer()} for a different
+ * configuration instead. Readers for the most often used types are created upfront so that their
+ * deserializers are resolved only once.
+ *
+ * @since 17/10/26
+ */
+public class Mappers {
+
+    private static final Class<?>[] PREFETCHED_TYPES = {
+        KubernetesList.class, HasMetadata.class, Template.class, Profile.class
+    };
+
+    private static final Map<ResourceFileType, ObjectMapper> MAPPERS = new EnumMap<>(ResourceFileType.class);
+
+    private static final Map<ResourceFileType, ObjectWriter> RESOURCE_WRITERS = new EnumMap<>(ResourceFileType.class);
+
+    private static final Map<ResourceFileType, Map<Class<?>, ObjectReader>> READERS = new EnumMap<>(ResourceFileType.class);
+
+    static {
+        for (ResourceFileType type : ResourceFileType.values()) {
+            ObjectMapper mapper = type.getObjectMapper();
+            MAPPERS.put(type, mapper);
+            RESOURCE_WRITERS.put(type, mapper.writer()
+                                             .with(SerializationFeature.INDENT_OUTPUT)
+                                             .without(SerializationFeature.WRITE_EMPTY_JSON_ARRAYS)
+                                             .without(SerializationFeature.WRITE_NULL_MAP_VALUES));
+            Map<Class<?>, ObjectReader> readers = new HashMap<>();
+            for (Class<?> clazz : PREFETCHED_TYPES) {
+                readers.put(clazz, mapper.readerFor(clazz));
+            }
+            READERS.put(type, readers);
+        }
+    }
+
+    private Mappers() {
+    }
+
+    /**
+     * @return the shared JSON mapper
+     */
+    public static ObjectMapper json() {
+        return MAPPERS.get(ResourceFileType.json);
+    }
+
+    /**
+     * @return the shared YAML mapper
+     */
+    public static ObjectMapper yaml() {
+        return MAPPERS.get(ResourceFileType.yaml);
+    }
+
+    /**
+     * @param type file type
+     * @return the shared mapper for the given file type
+     */
+    public static ObjectMapper forType(ResourceFileType type) {
+        return MAPPERS.get(type);
+    }
+
+    /**
+     * Get a reader for the given file type and class
+     *
+     * @param type file type to read
+     * @param clazz class to read into
+     * @return the reader
+     */
+    public static ObjectReader reader(ResourceFileType type, Class<?> clazz) {
+        ObjectReader reader = READERS.get(type).get(clazz);
+        return reader != null ? reader : MAPPERS.get(type).readerFor(clazz);
+    }
+
+    /**
+     * Get the writer used for resource descriptors. It indents the output and omits empty arrays and
+     * null map values.
+     *
+     * @param type file type to write
+     * @return the writer
+     */
+    public static ObjectWriter resourceWriter(ResourceFileType type) {
+        return RESOURCE_WRITERS.get(type);
+    }
+}
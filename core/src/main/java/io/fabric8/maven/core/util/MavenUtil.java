@@ -16,10 +16,7 @@
 
 package io.fabric8.maven.core.util;
 
-import io.fabric8.utils.Objects;
 import io.fabric8.utils.Strings;
-import org.apache.maven.artifact.Artifact;
-import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
@@ -35,14 +32,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 import java.util.Properties;
-import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
 
@@ -70,22 +61,20 @@ public class MavenUtil {
         return false;
     }
 
+    /**
+     * Get the class loader for the compile classpath of the given project. The class loader is shared and must
+     * not be closed by the caller.
+     */
     public static URLClassLoader getCompileClassLoader(MavenProject project) {
-        try {
-            List<String> classpathElements = project.getCompileClasspathElements();
-            return createClassLoader(classpathElements, project.getBuild().getOutputDirectory());
-        } catch (DependencyResolutionRequiredException e) {
-            throw new IllegalArgumentException("Cannot resolve artifact from compile classpath",e);
-        }
+        return ProjectClassLoaders.getInstance(project).getCompileClassLoader();
     }
 
+    /**
+     * Get the class loader for the test classpath of the given project. The class loader is shared and must
+     * not be closed by the caller.
+     */
     public static URLClassLoader getTestClassLoader(MavenProject project) {
-        try {
-            List<String> classpathElements = project.getTestClasspathElements();
-            return createClassLoader(classpathElements, project.getBuild().getTestOutputDirectory());
-        } catch (DependencyResolutionRequiredException e) {
-            throw new IllegalArgumentException("Cannot resolve artifact from test classpath", e);
-        }
+        return ProjectClassLoaders.getInstance(project).getTestClassLoader();
     }
 
     public static String createDefaultResourceName(MavenProject project, String ... suffixes) {
@@ -99,35 +88,6 @@ public class MavenUtil {
 
     // ====================================================
 
-    private static URLClassLoader createClassLoader(List<String> classpathElements, String... paths) {
-        List<URL> urls = new ArrayList<>();
-        for (String path : paths) {
-            URL url = pathToUrl(path);
-            urls.add(url);
-        }
-        for (Object object : classpathElements) {
-            if (object != null) {
-                String path = object.toString();
-                URL url = pathToUrl(path);
-                urls.add(url);
-            }
-        }
-        return createURLClassLoader(urls);
-    }
-
-    private static URLClassLoader createURLClassLoader(Collection<URL> jars) {
-        return new URLClassLoader(jars.toArray(new URL[jars.size()]));
-    }
-
-    private static URL pathToUrl(String path) {
-        try {
-            File file = new File(path);
-            return file.toURI().toURL();
-        } catch (MalformedURLException e) {
-            throw new IllegalArgumentException(String.format("Cannot convert %s to a an URL: %s",path,e.getMessage()),e);
-        }
-    }
-
 
     /**
      * Returns true if the maven project has a dependency with the given groupId
@@ -147,22 +107,7 @@ public class MavenUtil {
      * Returns the version associated to the dependency dependency with the given groupId and artifactId (if present)
      */
     public static String getDependencyVersion(MavenProject project, String groupId, String artifactId) {
-        Set<Artifact> artifacts = project.getArtifacts();
-        if (artifacts != null) {
-            for (Artifact artifact : artifacts) {
-                String scope = artifact.getScope();
-                if (Objects.equal("test", scope)) {
-                    continue;
-                }
-                if (artifactId != null && !Objects.equal(artifactId, artifact.getArtifactId())) {
-                    continue;
-                }
-                if (Objects.equal(groupId, artifact.getGroupId())) {
-                    return artifact.getVersion();
-                }
-            }
-        }
-        return null;
+        return ProjectCapabilities.getInstance(project).getDependencyVersion(groupId, artifactId);
     }
 
     public static boolean hasPlugin(MavenProject project, String plugin) {
@@ -181,71 +126,28 @@ public class MavenUtil {
      * Returns the plugin with the given groupId (if present) and artifactId.
      */
     public static Plugin getPlugin(MavenProject project, String groupId, String artifactId) {
-        if (artifactId == null) {
-            throw new IllegalArgumentException("artifactId cannot be null");
-        }
-
-        List<Plugin> plugins = project.getBuildPlugins();
-        if (plugins != null) {
-            for (Plugin plugin : plugins) {
-                boolean matchesArtifactId = artifactId.equals(plugin.getArtifactId());
-                boolean matchesGroupId = groupId == null || groupId.equals(plugin.getGroupId());
-
-                if (matchesGroupId && matchesArtifactId) {
-                    return plugin;
-                }
-            }
-        }
-        return null;
+        return ProjectCapabilities.getInstance(project).getPlugin(groupId, artifactId);
     }
 
     /**
      * Returns true if any of the given class names could be found on the given class loader
      */
     public static boolean hasClass(MavenProject project, String ... classNames) {
-        URLClassLoader compileClassLoader = getCompileClassLoader(project);
-        for (String className : classNames) {
-            try {
-                compileClassLoader.loadClass(className);
-                return true;
-            } catch (Throwable e) {
-                // ignore
-            }
-        }
-        return false;
+        return ProjectCapabilities.getInstance(project).hasClass(classNames);
     }
 
     /**
      * Returns true if any of the given resources could be found on the given class loader
      */
     public static boolean hasResource(MavenProject project, String... paths) {
-        URLClassLoader compileClassLoader = getCompileClassLoader(project);
-        for (String path : paths) {
-            try {
-                if (compileClassLoader.getResource(path) != null) {
-                    return true;
-                }
-            } catch (Throwable e) {
-                // ignore
-            }
-        }
-        return false;
+        return ProjectCapabilities.getInstance(project).hasResource(paths);
     }
 
     /**
      * Returns true if all the given class names could be found on the given class loader
      */
     public static boolean hasAllClasses(MavenProject project, String ... classNames) {
-        URLClassLoader compileClassLoader = getCompileClassLoader(project);
-        for (String className : classNames) {
-            try {
-                compileClassLoader.loadClass(className);
-            } catch (Throwable e) {
-                // ignore message
-                return false;
-            }
-        }
-        return true;
+        return ProjectCapabilities.getInstance(project).hasAllClasses(classNames);
     }
 
     /**
@@ -19,9 +19,12 @@ package io.fabric8.maven.core.util;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 /**
@@ -38,11 +41,19 @@ import java.util.regex.Pattern;
  * If a line starts with <code>!</code> it is removed if it has been added previously.
  * The optional second numeric value is the order in which the services are returned.
  *
+ * The descriptors and the service classes are resolved only once for a given context class and
+ * set of class loaders and then shared by all factories, so that only the services are created per factory.
+ * Class loaders and classes are referenced only weakly by this cache, so that it doesn't keep project
+ * class loaders alive which are not used anymore.
+ *
  * @author roland
  * @since 05.11.10
  */
 public final class PluginServiceFactory<C> {
 
+    // Resolved descriptors and service classes, keyed by context class and class loaders
+    private static final Map<CacheKey, ResolvedServices> resolvedServicesCache = new HashMap<>();
+
     private List<ClassLoader> additionalClassLoaders = new ArrayList<>();
 
     // Parameters for service constructors
@@ -69,79 +80,91 @@ public final class PluginServiceFactory<C> {
      * @return a ordered list of created services or an empty list.
      */
     public <T> List<T> createServiceObjects(String... descriptorPaths) {
-        try {
-            ServiceEntry.initDefaultOrder();
-            TreeMap<ServiceEntry,T> serviceMap = new TreeMap<ServiceEntry,T>();
-            for (String descriptor : descriptorPaths) {
-                readServiceDefinitions(serviceMap, descriptor);
+        ResolvedServices resolved = getResolvedServices();
+        // Local to this call so that concurrent lookups don't interfere
+        DefaultOrder defaultOrder = new DefaultOrder();
+        TreeMap<ServiceEntry,T> serviceMap = new TreeMap<ServiceEntry,T>();
+        for (String descriptor : descriptorPaths) {
+            for (DescriptorLine line : resolved.getDescriptorLines(descriptor, additionalClassLoaders)) {
+                try {
+                    createOrRemoveService(serviceMap, line.line, defaultOrder, resolved);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Cannot load service " + line.line + " defined in " +
+                                                    line.url + " : " + e + ". Aborting", e);
+                }
             }
-            ArrayList<T> ret = new ArrayList<T>();
-            for (T service : serviceMap.values()) {
-                ret.add(service);
+        }
+        ArrayList<T> ret = new ArrayList<T>();
+        for (T service : serviceMap.values()) {
+            ret.add(service);
+        }
+        return ret;
+    }
+
+    /**
+     * Forget all resolved descriptors and service classes.
+     */
+    public static void clearCache() {
+        synchronized (resolvedServicesCache) {
+            resolvedServicesCache.clear();
+        }
+    }
+
+    private ResolvedServices getResolvedServices() {
+        CacheKey key = new CacheKey(context.getClass(), ClassUtil.mergeClassLoaders(additionalClassLoaders));
+        synchronized (resolvedServicesCache) {
+            removeStaleEntries();
+            ResolvedServices ret = resolvedServicesCache.get(key);
+            if (ret == null) {
+                ret = new ResolvedServices();
+                resolvedServicesCache.put(key, ret);
             }
             return ret;
-        } finally {
-            ServiceEntry.removeDefaultOrder();
         }
     }
 
-    private <T> void readServiceDefinitions(Map<ServiceEntry, T> extractorMap, String defPath) {
-        try {
-            for (String url : ClassUtil.getResources(defPath, additionalClassLoaders)) {
-                readServiceDefinitionFromUrl(extractorMap, url);
+    // Remove entries for class loaders which have been garbage collected
+    private static void removeStaleEntries() {
+        Iterator<CacheKey> it = resolvedServicesCache.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().isStale()) {
+                it.remove();
             }
-        } catch (IOException e) {
-            throw new IllegalStateException("Cannot load service from " + defPath + ": " + e, e);
         }
     }
 
-    private <T> void readServiceDefinitionFromUrl(Map<ServiceEntry, T> extractorMap, String url) {
-        String line = null;
-        try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(new URL(url).openStream(), "UTF8"))) {
-            line = reader.readLine();
-            while (line != null) {
-                createOrRemoveService(extractorMap, line);
-                line = reader.readLine();
-            }
-        } catch (ReflectiveOperationException|IOException e) {
-            throw new IllegalStateException("Cannot load service " + line + " defined in " +
-                                            url + " : " + e + ". Aborting", e);
+    // Number of cached entries, for testing
+    static int getCacheSize() {
+        synchronized (resolvedServicesCache) {
+            removeStaleEntries();
+            return resolvedServicesCache.size();
         }
     }
 
     // Matches comment lines and empty lines. these are skipped
-    private static Pattern COMMENT_LINE_PATTERN = Pattern.compile("^(\\s*#.*|\\s*)$");
+    private static final Pattern COMMENT_LINE_PATTERN = Pattern.compile("^(\\s*#.*|\\s*)$");
 
-    private synchronized  <T> void createOrRemoveService(Map<ServiceEntry, T> serviceMap, String line)
+    private synchronized  <T> void createOrRemoveService(Map<ServiceEntry, T> serviceMap, String line, DefaultOrder defaultOrder,
+                                                        ResolvedServices resolved)
         throws ReflectiveOperationException {
-        if (line.length() > 0 && !COMMENT_LINE_PATTERN.matcher(line).matches()) {
-            ServiceEntry entry = new ServiceEntry(line);
-            if (entry.isRemove()) {
-                // Removing is a bit complex since we need to find out
-                // the proper key since the order is part of equals/hash
-                // so we cant fetch/remove it directly
-                Set<ServiceEntry> toRemove = new HashSet<ServiceEntry>();
-                for (ServiceEntry key : serviceMap.keySet()) {
-                    if (key.getClassName().equals(entry.getClassName())) {
-                        toRemove.add(key);
-                    }
-                }
-                for (ServiceEntry key : toRemove) {
-                    serviceMap.remove(key);
+        ServiceEntry entry = new ServiceEntry(line, defaultOrder);
+        if (entry.isRemove()) {
+            // Removing is a bit complex since we need to find out
+            // the proper key since the order is part of equals/hash
+            // so we cant fetch/remove it directly
+            Set<ServiceEntry> toRemove = new HashSet<ServiceEntry>();
+            for (ServiceEntry key : serviceMap.keySet()) {
+                if (key.getClassName().equals(entry.getClassName())) {
+                    toRemove.add(key);
                 }
-            } else {
-                Class<T> clazz = ClassUtil.classForName(entry.getClassName(), additionalClassLoaders);
-                if (clazz == null) {
-                    throw new ClassNotFoundException("Class " + entry.getClassName() + " could not be found");
-                }
-                Constructor<T> constructor = clazz.getConstructor(context.getClass());
-                if (constructor == null) {
-                    throw new IllegalArgumentException(
-                        "Internal Error: " + clazz + " does not have constructor (" + context.getClass() + ")");
-                }
-                T service = constructor.newInstance(context);
-                serviceMap.put(entry, service);
             }
+            for (ServiceEntry key : toRemove) {
+                serviceMap.remove(key);
+            }
+        } else {
+            Constructor<T> constructor = resolved.getConstructor(entry.getClassName(), context.getClass(), additionalClassLoaders);
+            T service = constructor.newInstance(context);
+            serviceMap.put(entry, service);
         }
     }
 
@@ -152,24 +175,138 @@ public final class PluginServiceFactory<C> {
 
     // =============================================================================
 
+    // A line of a service descriptor together with the descriptor's URL
+    private static class DescriptorLine {
+        private final String url;
+        private final String line;
+
+        DescriptorLine(String url, String line) {
+            this.url = url;
+            this.line = line;
+        }
+    }
+
+    // Context class and class loaders for which services are resolved. Both are referenced weakly.
+    private static class CacheKey {
+        private final WeakReference<Class<?>> contextClass;
+        private final List<WeakReference<ClassLoader>> classLoaders = new ArrayList<>();
+        private final int hashCode;
+
+        CacheKey(Class<?> contextClass, ClassLoader[] classLoaders) {
+            this.contextClass = new WeakReference<Class<?>>(contextClass);
+            int hash = System.identityHashCode(contextClass);
+            for (ClassLoader classLoader : classLoaders) {
+                if (classLoader == null) {
+                    continue;
+                }
+                this.classLoaders.add(new WeakReference<>(classLoader));
+                hash = 31 * hash + System.identityHashCode(classLoader);
+            }
+            this.hashCode = hash;
+        }
+
+        boolean isStale() {
+            if (contextClass.get() == null) {
+                return true;
+            }
+            for (WeakReference<ClassLoader> ref : classLoaders) {
+                if (ref.get() == null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) { return true; }
+            if (o == null || getClass() != o.getClass()) { return false; }
+
+            CacheKey that = (CacheKey) o;
+            if (hashCode != that.hashCode || classLoaders.size() != that.classLoaders.size() ||
+                contextClass.get() == null || contextClass.get() != that.contextClass.get()) {
+                return false;
+            }
+            for (int i = 0; i < classLoaders.size(); i++) {
+                if (classLoaders.get(i).get() != that.classLoaders.get(i).get()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    // Descriptor lines and service classes resolved for a context class and a set of class loaders. Classes
+    // are referenced weakly, since they would keep their class loader alive otherwise.
+    private static class ResolvedServices {
+        private final ConcurrentMap<String, List<DescriptorLine>> descriptorLines = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, WeakReference<Class<?>>> classes = new ConcurrentHashMap<>();
+
+        List<DescriptorLine> getDescriptorLines(String defPath, List<ClassLoader> additionalClassLoaders) {
+            List<DescriptorLine> ret = descriptorLines.get(defPath);
+            if (ret == null) {
+                ret = readDescriptorLines(defPath, additionalClassLoaders);
+                descriptorLines.put(defPath, ret);
+            }
+            return ret;
+        }
+
+        <T> Constructor<T> getConstructor(String className, Class<?> contextClass, List<ClassLoader> additionalClassLoaders)
+            throws ReflectiveOperationException {
+            WeakReference<Class<?>> ref = classes.get(className);
+            Class<T> clazz = ref != null ? (Class<T>) ref.get() : null;
+            if (clazz == null) {
+                clazz = ClassUtil.classForName(className, additionalClassLoaders);
+                if (clazz == null) {
+                    throw new ClassNotFoundException("Class " + className + " could not be found");
+                }
+                classes.put(className, new WeakReference<Class<?>>(clazz));
+            }
+            return clazz.getConstructor(contextClass);
+        }
+
+        private static List<DescriptorLine> readDescriptorLines(String defPath, List<ClassLoader> additionalClassLoaders) {
+            List<DescriptorLine> ret = new ArrayList<>();
+            try {
+                for (String url : ClassUtil.getResources(defPath, additionalClassLoaders)) {
+                    try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(new URL(url).openStream(), "UTF8"))) {
+                        String line = reader.readLine();
+                        while (line != null) {
+                            if (line.length() > 0 && !COMMENT_LINE_PATTERN.matcher(line).matches()) {
+                                ret.add(new DescriptorLine(url, line));
+                            }
+                            line = reader.readLine();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot load service from " + defPath + ": " + e, e);
+            }
+            return Collections.unmodifiableList(ret);
+        }
+    }
+
+    /**
+     * Order for entries without an explicit order. Starts with 100 and counts up for each entry.
+     */
+    static class DefaultOrder {
+        private int next = 100;
+
+        int next() {
+            return next++;
+        }
+    }
+
      static class ServiceEntry implements Comparable<ServiceEntry> {
         private String className;
         private boolean remove;
         private Integer order;
 
-        private static ThreadLocal<Integer> defaultOrderHolder = new ThreadLocal<Integer>() {
-
-            /**
-             * Initialise with start value for entries without an explicite order. 100 in this case.
-             *
-             * @return 100
-             */
-            @Override
-            protected Integer initialValue() {
-                return Integer.valueOf(100);
-            }
-        };
-
         /**
          * Parse an entry in the service definition. This should be the full qualified classname
          * of a service, optional prefixed with "<code>!</code>" in which case the service is removed
@@ -177,8 +314,9 @@ public final class PluginServiceFactory<C> {
          * indication for the ordering of services. If not given, 100 is taken for the first entry, counting up.
          *
          * @param line line to parse
+         * @param defaultOrder order to use if none is given
          */
-        public ServiceEntry(String line) {
+        public ServiceEntry(String line, DefaultOrder defaultOrder) {
             String[] parts = line.split(",");
             if (parts[0].startsWith("!")) {
                 remove = true;
@@ -191,27 +329,13 @@ public final class PluginServiceFactory<C> {
                 try {
                     order = Integer.parseInt(parts[1]);
                 } catch (NumberFormatException exp) {
-                    order = nextDefaultOrder();
+                    order = defaultOrder.next();
                 }
             } else {
-                order = nextDefaultOrder();
+                order = defaultOrder.next();
             }
         }
 
-        private Integer nextDefaultOrder() {
-            Integer defaultOrder = defaultOrderHolder.get();
-            defaultOrderHolder.set(defaultOrder + 1);
-            return defaultOrder;
-        }
-
-        private static void initDefaultOrder() {
-            defaultOrderHolder.set(100);
-        }
-
-        private static void removeDefaultOrder() {
-            defaultOrderHolder.remove();
-        }
-
         private String getClassName() {
             return className;
         }
@@ -19,10 +19,11 @@ package io.fabric8.maven.core.util;
 import java.io.*;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.databind.ObjectReader;
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.config.Profile;
 import org.apache.maven.shared.utils.StringUtils;
@@ -44,12 +45,16 @@ public class ProfileUtil {
     // Allowed profile names
     public static final String[] PROFILE_FILENAMES = {"profiles%s.yml", "profiles%s.yaml", "profiles%s"};
 
-    // Mapper for handling YAML formats
-    private static final ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+    // Reader for profile lists in YAML format
+    private static final ObjectReader PROFILES_READER = Mappers.yaml().readerFor(new TypeReference<List<Profile>>() {});
 
     // Default profile which will be always there
     public static final String DEFAULT_PROFILE = "default";
 
+    // Profiles parsed from classpath resources, keyed by resource URL. These resources don't change during a
+    // build, so they are shared by all modules. The cached profiles are never handed out directly but only copies.
+    private static final ConcurrentMap<String, List<Profile>> classpathProfileCache = new ConcurrentHashMap<>();
+
     /**
      * Find a profile. Profiles are looked up at various locations:
      *
@@ -183,9 +188,9 @@ public class ProfileUtil {
         List<Profile > ret = new ArrayList<>();
         for (String location : getMetaInfProfilePaths(ext)) {
             for (String url : ClassUtil.getResources(location)) {
-                for (Profile profile : fromYaml(new URL(url).openStream())) {
+                for (Profile profile : readFromClasspathUrl(url)) {
                     if (name.equals(profile.getName())) {
-                        ret.add(profile);
+                        ret.add(new Profile(profile));
                     }
                 }
             }
@@ -195,6 +200,20 @@ public class ProfileUtil {
 
     // ================================================================================
 
+    private static List<Profile> readFromClasspathUrl(String url) throws IOException {
+        List<Profile> profiles = classpathProfileCache.get(url);
+        if (profiles == null) {
+            try (InputStream is = new URL(url).openStream()) {
+                profiles = fromYaml(is);
+            }
+            if (profiles == null) {
+                profiles = Collections.emptyList();
+            }
+            classpathProfileCache.put(url, profiles);
+        }
+        return profiles;
+    }
+
     // check for various variations of profile files
     private static File findProfileYaml(File directory) {
         for (String profileFile : PROFILE_FILENAMES) {
@@ -227,8 +246,7 @@ public class ProfileUtil {
      * @throws IOException if deserialization fails
      */
     public static List<Profile> fromYaml(InputStream is) throws IOException {
-        TypeReference<List<Profile>> typeRef = new TypeReference<List<Profile>>() {};
-        return mapper.readValue(is, typeRef);
+        return PROFILES_READER.readValue(is);
     }
 
     // ================================================================================
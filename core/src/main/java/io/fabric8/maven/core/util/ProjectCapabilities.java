@@ -0,0 +1,206 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Snapshot of the build plugins and dependencies of a project, indexed for fast lookup. It is used by
+ * generators and enrichers for detecting whether they are applicable to a project, so that the plugin
+ * and artifact lists are scanned only once per module instead of once per check.
+ *
+ * Class and resource lookups are delegated to the memoized lookups of {@link ProjectClassLoaders}.
+ *
+ * The snapshot is stored in the project context and rebuilt when the project's artifacts or plugins
+ * change, e.g. after dependency resolution.
+ *
+ * @since 17/10/26
+ */
+public class ProjectCapabilities {
+
+    private static final String CONTEXT_KEY = ProjectCapabilities.class.getName();
+
+    private final MavenProject project;
+
+    // Sources of this snapshot, used for detecting changes
+    private final Set<Artifact> artifacts;
+    private final int artifactsSize;
+    private final List<Plugin> plugins;
+    private final int pluginsSize;
+
+    // "groupId:artifactId" --> plugin
+    private final Map<String, Plugin> pluginsByKey = new HashMap<>();
+    // artifactId --> plugin
+    private final Map<String, Plugin> pluginsByArtifactId = new HashMap<>();
+
+    // "groupId:artifactId" --> version, test scoped dependencies are not included
+    private final Map<String, String> dependencyVersions = new HashMap<>();
+    // groupId --> version
+    private final Map<String, String> dependencyGroupVersions = new HashMap<>();
+
+    private ProjectCapabilities(MavenProject project) {
+        this.project = project;
+        this.artifacts = project.getArtifacts();
+        this.artifactsSize = artifacts != null ? artifacts.size() : 0;
+        this.plugins = project.getBuildPlugins();
+        this.pluginsSize = plugins != null ? plugins.size() : 0;
+        indexPlugins();
+        indexDependencies();
+    }
+
+    /**
+     * Get the capabilities of a project
+     *
+     * @param project project to examine
+     * @return the current snapshot for this project
+     */
+    public static ProjectCapabilities getInstance(MavenProject project) {
+        Object cached = project.getContextValue(CONTEXT_KEY);
+        if (cached instanceof ProjectCapabilities && ((ProjectCapabilities) cached).isUpToDate()) {
+            return (ProjectCapabilities) cached;
+        }
+        ProjectCapabilities ret = new ProjectCapabilities(project);
+        project.setContextValue(CONTEXT_KEY, ret);
+        return ret;
+    }
+
+    /**
+     * Returns true if the project has a build plugin with the given key
+     *
+     * @param pluginKey plugin key in the format "groupId:artifactId"
+     */
+    public boolean hasPlugin(String pluginKey) {
+        return pluginsByKey.containsKey(pluginKey);
+    }
+
+    /**
+     * Returns the build plugin with the given groupId (if not null) and artifactId or null if there is none.
+     */
+    public Plugin getPlugin(String groupId, String artifactId) {
+        if (artifactId == null) {
+            throw new IllegalArgumentException("artifactId cannot be null");
+        }
+        return groupId == null ?
+            pluginsByArtifactId.get(artifactId) :
+            pluginsByKey.get(groupId + ":" + artifactId);
+    }
+
+    /**
+     * Returns true if the project has a non-test dependency with the given groupId and artifactId (if not null)
+     */
+    public boolean hasDependency(String groupId, String artifactId) {
+        return getDependencyVersion(groupId, artifactId) != null;
+    }
+
+    /**
+     * Returns true if the project has a non-test dependency with the given groupId
+     */
+    public boolean hasDependencyOnAnyArtifactOfGroup(String groupId) {
+        return dependencyGroupVersions.get(groupId) != null;
+    }
+
+    /**
+     * Returns the version of the non-test dependency with the given groupId and artifactId (if not null)
+     * or null if there is no such dependency.
+     */
+    public String getDependencyVersion(String groupId, String artifactId) {
+        return artifactId == null ?
+            dependencyGroupVersions.get(groupId) :
+            dependencyVersions.get(groupId + ":" + artifactId);
+    }
+
+    /**
+     * Returns true if any of the given classes is on the project's compile classpath
+     */
+    public boolean hasClass(String... classNames) {
+        ProjectClassLoaders classLoaders = ProjectClassLoaders.getInstance(project);
+        for (String className : classNames) {
+            if (classLoaders.hasClass(className)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if all of the given classes are on the project's compile classpath
+     */
+    public boolean hasAllClasses(String... classNames) {
+        ProjectClassLoaders classLoaders = ProjectClassLoaders.getInstance(project);
+        for (String className : classNames) {
+            if (!classLoaders.hasClass(className)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if any of the given resources is on the project's compile classpath
+     */
+    public boolean hasResource(String... paths) {
+        ProjectClassLoaders classLoaders = ProjectClassLoaders.getInstance(project);
+        for (String path : paths) {
+            if (classLoaders.getResource(path) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ===========================================================================================
+
+    private boolean isUpToDate() {
+        Set<Artifact> currentArtifacts = project.getArtifacts();
+        List<Plugin> currentPlugins = project.getBuildPlugins();
+        return currentArtifacts == artifacts &&
+               (currentArtifacts != null ? currentArtifacts.size() : 0) == artifactsSize &&
+               currentPlugins == plugins &&
+               (currentPlugins != null ? currentPlugins.size() : 0) == pluginsSize;
+    }
+
+    private void indexPlugins() {
+        for (Plugin plugin : plugins != null ? plugins : Collections.<Plugin>emptyList()) {
+            putIfAbsent(pluginsByKey, plugin.getGroupId() + ":" + plugin.getArtifactId(), plugin);
+            putIfAbsent(pluginsByArtifactId, plugin.getArtifactId(), plugin);
+        }
+    }
+
+    private void indexDependencies() {
+        for (Artifact artifact : artifacts != null ? artifacts : Collections.<Artifact>emptySet()) {
+            if ("test".equals(artifact.getScope())) {
+                continue;
+            }
+            putIfAbsent(dependencyVersions, artifact.getGroupId() + ":" + artifact.getArtifactId(), artifact.getVersion());
+            putIfAbsent(dependencyGroupVersions, artifact.getGroupId(), artifact.getVersion());
+        }
+    }
+
+    // First match wins, like for a linear scan
+    private static <T> void putIfAbsent(Map<String, T> map, String key, T value) {
+        if (!map.containsKey(key)) {
+            map.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Class loaders over the classpath of a project, shared by all code working on the same project
+ * during a Maven session. Successful class and resource lookups are memoized. Misses are not, since
+ * classes and resources can still show up in the output directory later in the build.
+ *
+ * The loaders are created lazily and recreated if the classpath of the project changes. They are kept
+ * only in the context of the project, and are closed by {@link #closeAll(Collection)} at the end of the
+ * Maven session if the plugin is registered as extension. Otherwise they are released together with
+ * the project.
+ *
+ * @since 17/10/26
+ */
+public class ProjectClassLoaders {
+
+    private static final String CONTEXT_KEY = ProjectClassLoaders.class.getName();
+
+    private final MavenProject project;
+
+    private CachedClassLoader compileClassLoader;
+    private CachedClassLoader testClassLoader;
+    private CachedClassLoader projectClassLoader;
+
+    // Loaders replaced because of a changed classpath. They might still be in use so are closed only at the end
+    private final List<URLClassLoader> retiredClassLoaders = new ArrayList<>();
+
+    private ProjectClassLoaders(MavenProject project) {
+        this.project = project;
+    }
+
+    /**
+     * Get the class loaders for a project
+     *
+     * @param project project for which to get the class loaders
+     * @return the shared class loaders of this project
+     */
+    public static ProjectClassLoaders getInstance(MavenProject project) {
+        synchronized (project) {
+            ProjectClassLoaders ret = (ProjectClassLoaders) project.getContextValue(CONTEXT_KEY);
+            if (ret == null) {
+                ret = new ProjectClassLoaders(project);
+                project.setContextValue(CONTEXT_KEY, ret);
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * Close all class loaders created for the given projects. Any subsequent lookup will create new class loaders.
+     *
+     * @param projects projects whose class loaders should be closed
+     */
+    public static void closeAll(Collection<MavenProject> projects) {
+        for (MavenProject project : projects) {
+            ProjectClassLoaders loaders;
+            synchronized (project) {
+                loaders = (ProjectClassLoaders) project.getContextValue(CONTEXT_KEY);
+                project.setContextValue(CONTEXT_KEY, null);
+            }
+            if (loaders != null) {
+                loaders.close();
+            }
+        }
+    }
+
+    /**
+     * Class loader for the compile classpath, including the project's output directory
+     */
+    public synchronized URLClassLoader getCompileClassLoader() {
+        compileClassLoader = refresh(compileClassLoader, getCompileClasspath(), null);
+        return compileClassLoader.classLoader;
+    }
+
+    /**
+     * Class loader for the test classpath, including the project's test output directory
+     */
+    public synchronized URLClassLoader getTestClassLoader() {
+        List<String> classpath = new ArrayList<>();
+        classpath.add(project.getBuild().getTestOutputDirectory());
+        try {
+            classpath.addAll(project.getTestClasspathElements());
+        } catch (DependencyResolutionRequiredException e) {
+            throw new IllegalArgumentException("Cannot resolve artifact from test classpath", e);
+        }
+        testClassLoader = refresh(testClassLoader, classpath, null);
+        return testClassLoader.classLoader;
+    }
+
+    /**
+     * Class loader for the compile classpath, which has the plugin's class loader as parent. Use this
+     * for looking up plugin extensions like enrichers or generators on the project's classpath.
+     */
+    public synchronized URLClassLoader getProjectClassLoader() {
+        List<String> classpath;
+        try {
+            classpath = project.getCompileClasspathElements();
+        } catch (DependencyResolutionRequiredException e) {
+            throw new IllegalArgumentException("Cannot resolve artifact from compile classpath",e);
+        }
+        projectClassLoader = refresh(projectClassLoader, classpath, ProjectClassLoaders.class.getClassLoader());
+        return projectClassLoader.classLoader;
+    }
+
+    /**
+     * Check whether a class can be loaded from the compile classpath
+     *
+     * @param className class to check
+     * @return true if the class could be loaded
+     */
+    public boolean hasClass(String className) {
+        CachedClassLoader loader = getCompileCachedClassLoader();
+        if (loader.classes.containsKey(className)) {
+            return true;
+        }
+        try {
+            loader.classLoader.loadClass(className);
+        } catch (Throwable e) {
+            return false;
+        }
+        loader.classes.put(className, Boolean.TRUE);
+        return true;
+    }
+
+    /**
+     * Lookup a resource on the compile classpath, including the parent class loader
+     *
+     * @param path resource path
+     * @return URL of the resource or <code>null</code> if not found
+     */
+    public URL getResource(String path) {
+        CachedClassLoader loader = getCompileCachedClassLoader();
+        URL ret = loader.resources.get(path);
+        if (ret == null) {
+            try {
+                ret = loader.classLoader.getResource(path);
+            } catch (Throwable e) {
+                // ignore
+            }
+            if (ret != null) {
+                loader.resources.put(path, ret);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Lookup a resource on the compile classpath only, without asking the parent class loader.
+     *
+     * @param path resource path
+     * @return URL of the resource or <code>null</code> if not found
+     */
+    public URL findResource(String path) {
+        CachedClassLoader loader = getCompileCachedClassLoader();
+        URL ret = loader.foundResources.get(path);
+        if (ret == null) {
+            ret = loader.classLoader.findResource(path);
+            if (ret != null) {
+                loader.foundResources.put(path, ret);
+            }
+        }
+        return ret;
+    }
+
+    // ==============================================================================================
+
+    private synchronized CachedClassLoader getCompileCachedClassLoader() {
+        getCompileClassLoader();
+        return compileClassLoader;
+    }
+
+    private List<String> getCompileClasspath() {
+        List<String> classpath = new ArrayList<>();
+        classpath.add(project.getBuild().getOutputDirectory());
+        try {
+            classpath.addAll(project.getCompileClasspathElements());
+        } catch (DependencyResolutionRequiredException e) {
+            throw new IllegalArgumentException("Cannot resolve artifact from compile classpath",e);
+        }
+        return classpath;
+    }
+
+    private CachedClassLoader refresh(CachedClassLoader current, List<String> classpath, ClassLoader parent) {
+        if (current != null && current.classpath.equals(classpath)) {
+            return current;
+        }
+        if (current != null) {
+            retiredClassLoaders.add(current.classLoader);
+        }
+        return new CachedClassLoader(classpath, createClassLoader(classpath, parent));
+    }
+
+    private synchronized void close() {
+        List<URLClassLoader> loaders = new ArrayList<>(retiredClassLoaders);
+        for (CachedClassLoader cached : new CachedClassLoader[] { compileClassLoader, testClassLoader, projectClassLoader }) {
+            if (cached != null) {
+                loaders.add(cached.classLoader);
+            }
+        }
+        for (URLClassLoader loader : loaders) {
+            try {
+                loader.close();
+            } catch (IOException e) {
+                // ignore, nothing we can do about it
+            }
+        }
+        retiredClassLoaders.clear();
+        compileClassLoader = testClassLoader = projectClassLoader = null;
+    }
+
+    private static URLClassLoader createClassLoader(List<String> classpath, ClassLoader parent) {
+        List<URL> urls = new ArrayList<>();
+        for (String path : classpath) {
+            if (path != null) {
+                urls.add(pathToUrl(path));
+            }
+        }
+        URL[] urlArray = urls.toArray(new URL[urls.size()]);
+        return parent != null ? new URLClassLoader(urlArray, parent) : new URLClassLoader(urlArray);
+    }
+
+    private static URL pathToUrl(String path) {
+        try {
+            File file = new File(path);
+            return file.toURI().toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(String.format("Cannot convert %s to a an URL: %s",path,e.getMessage()),e);
+        }
+    }
+
+    private static class CachedClassLoader {
+        private final List<String> classpath;
+        private final URLClassLoader classLoader;
+        private final ConcurrentMap<String, Boolean> classes = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, URL> resources = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, URL> foundResources = new ConcurrentHashMap<>();
+
+        private CachedClassLoader(List<String> classpath, URLClassLoader classLoader) {
+            this.classpath = new ArrayList<>(classpath);
+            this.classLoader = classLoader;
+        }
+    }
+}
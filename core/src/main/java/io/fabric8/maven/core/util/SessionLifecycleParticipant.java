@@ -0,0 +1,42 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import io.fabric8.maven.core.access.ClientRegistry;
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.MavenExecutionException;
+import org.apache.maven.execution.MavenSession;
+import org.codehaus.plexus.component.annotations.Component;
+
+/**
+ * Releases resources which are shared across all projects of a Maven session
+ * when the session ends. This participant is only called when the plugin is declared
+ * with <code>&lt;extensions&gt;true&lt;/extensions&gt;</code>. Otherwise the resources are released
+ * together with the projects or when the JVM exits.
+ *
+ * @since 17/10/26
+ */
+@Component(role = AbstractMavenLifecycleParticipant.class, hint = "fabric8")
+public class SessionLifecycleParticipant extends AbstractMavenLifecycleParticipant {
+
+    @Override
+    public void afterSessionEnd(MavenSession session) throws MavenExecutionException {
+        ProjectClassLoaders.closeAll(session.getProjects());
+        PluginServiceFactory.clearCache();
+        ClientRegistry.closeAll();
+    }
+}
@@ -19,7 +19,6 @@ package io.fabric8.maven.core.util;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -44,9 +43,9 @@ public class SpringBootUtil {
      * or an empty properties object if not found
      */
     public static Properties getSpringBootApplicationProperties(MavenProject project) {
-        URLClassLoader compileClassLoader = MavenUtil.getCompileClassLoader(project);
-        URL ymlResource = compileClassLoader.findResource("application.yml");
-        URL propertiesResource = compileClassLoader.findResource("application.properties");
+        ProjectClassLoaders classLoaders = ProjectClassLoaders.getInstance(project);
+        URL ymlResource = classLoaders.findResource("application.yml");
+        URL propertiesResource = classLoaders.findResource("application.properties");
 
         Properties props = getPropertiesFromYamlResource(ymlResource);
         props.putAll(getPropertiesResource(propertiesResource));
@@ -57,8 +56,7 @@ public class SpringBootUtil {
      * Returns the given properties file on the project classpath if found or an empty properties object if not
      */
     public static Properties getPropertiesFile(MavenProject project, String propertiesFileName) {
-        URLClassLoader compileClassLoader = MavenUtil.getCompileClassLoader(project);
-        URL resource = compileClassLoader.findResource(propertiesFileName);
+        URL resource = ProjectClassLoaders.getInstance(project).findResource(propertiesFileName);
         return getPropertiesResource(resource);
     }
 
@@ -81,8 +79,7 @@ public class SpringBootUtil {
      * Returns a {@code Properties} representation of the given Yaml file on the project classpath if found or an empty properties object if not
      */
     public static Properties getPropertiesFromYamlFile(MavenProject project, String yamlFileName) {
-        URLClassLoader compileClassLoader = MavenUtil.getCompileClassLoader(project);
-        URL resource = compileClassLoader.findResource(yamlFileName);
+        URL resource = ProjectClassLoaders.getInstance(project).findResource(yamlFileName);
         return getPropertiesFromYamlResource(resource);
     }
 
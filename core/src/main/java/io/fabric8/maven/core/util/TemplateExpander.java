@@ -0,0 +1,236 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.openshift.api.model.Parameter;
+import io.fabric8.openshift.api.model.Template;
+import io.fabric8.utils.Strings;
+
+/**
+ * Processes OpenShift templates locally, like <code>Templates.processTemplatesLocally()</code>. Instead of
+ * replacing every parameter in several passes over the whole template, the <code>${PARAM}</code> expressions
+ * are located once and the template is kept in this compiled form, keyed by a hash of its content.
+ * <p>
+ * If a cache directory is given, the expanded templates are stored there, keyed by the template hash and the
+ * parameter values. Processing the same template with the same values again skips the expansion.
+ *
+ * @since 17/10/26
+ */
+public class TemplateExpander {
+
+    /**
+     * Name of the cache directory within the plugin's work directory
+     */
+    public static final String CACHE_DIR_NAME = "template-cache";
+
+    // Maximum number of compiled templates kept in memory
+    private static final int MAX_COMPILED = 32;
+
+    // Same number of passes as Templates.processTemplatesLocally() for parameter values referring to other parameters
+    private static final int MAX_PASSES = 5;
+
+    private static final Map<String, CompiledTemplate> COMPILED = Collections.synchronizedMap(
+        new LinkedHashMap<String, CompiledTemplate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledTemplate> eldest) {
+                return size() > MAX_COMPILED;
+            }
+        });
+
+    private final File cacheDir;
+
+    public TemplateExpander() {
+        this(null);
+    }
+
+    /**
+     * @param cacheDir directory for storing expanded templates or null if they should not be cached
+     */
+    public TemplateExpander(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Process the template by replacing all parameter expressions in its objects
+     *
+     * @param template template to process
+     * @param failOnMissingParameterValue whether to fail if a parameter has no value. Otherwise an empty string is used.
+     * @return list of processed objects or null if the template has no objects
+     * @throws IOException if the processed objects cannot be parsed
+     */
+    public KubernetesList process(Template template, boolean failOnMissingParameterValue) throws IOException {
+        List<HasMetadata> objects = template != null ? template.getObjects() : null;
+        if (objects == null || objects.isEmpty()) {
+            return null;
+        }
+        List<Parameter> parameters = template.getParameters();
+        if (parameters == null || parameters.isEmpty()) {
+            KubernetesList ret = new KubernetesList();
+            ret.setItems(objects);
+            return ret;
+        }
+
+        String json = "{\"kind\": \"List\", \"apiVersion\": \"v1\",\n  \"items\": " + KubernetesHelper.toJson(objects) + " }";
+        Map<String, String> values = getParameterValues(parameters, failOnMissingParameterValue);
+        String templateHash = new Fingerprint().add("template", json).build();
+        String key = new Fingerprint().add("template", templateHash).addObject("parameters", values).build();
+
+        String expanded = readCache(key);
+        if (expanded == null) {
+            expanded = getCompiled(templateHash, json).expand(values);
+            writeCache(key, expanded);
+        }
+        return JSONUtil.mapper().readerFor(KubernetesList.class).readValue(expanded);
+    }
+
+    /**
+     * Split the given text into literal text and parameter expressions
+     *
+     * @param text text to compile
+     * @return the compiled text
+     */
+    static CompiledTemplate compile(String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int start = 0;
+        int pos = text.indexOf("${");
+        while (pos >= 0) {
+            int end = text.indexOf('}', pos + 2);
+            if (end < 0) {
+                break;
+            }
+            literals.add(text.substring(start, pos));
+            names.add(text.substring(pos + 2, end));
+            start = end + 1;
+            pos = text.indexOf("${", start);
+        }
+        literals.add(text.substring(start));
+        return new CompiledTemplate(literals.toArray(new String[literals.size()]), names.toArray(new String[names.size()]));
+    }
+
+    // Values by parameter name. Values referring to other parameters are resolved.
+    private Map<String, String> getParameterValues(List<Parameter> parameters, boolean failOnMissingParameterValue) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Parameter parameter : parameters) {
+            String value = parameter.getValue();
+            if (Strings.isNullOrBlank(value)) {
+                if (failOnMissingParameterValue) {
+                    throw new IllegalArgumentException("No value available for parameter name: " + parameter.getName());
+                }
+                value = "";
+            }
+            values.put(parameter.getName(), value);
+        }
+        for (int pass = 1; pass < MAX_PASSES; pass++) {
+            boolean changed = false;
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                if (entry.getValue().contains("${")) {
+                    String resolved = compile(entry.getValue()).expand(values);
+                    changed |= !resolved.equals(entry.getValue());
+                    entry.setValue(resolved);
+                }
+            }
+            if (!changed) {
+                break;
+            }
+        }
+        return values;
+    }
+
+    private CompiledTemplate getCompiled(String templateHash, String json) {
+        CompiledTemplate compiled = COMPILED.get(templateHash);
+        if (compiled == null) {
+            compiled = compile(json);
+            COMPILED.put(templateHash, compiled);
+        }
+        return compiled;
+    }
+
+    private String readCache(String key) throws IOException {
+        if (cacheDir == null) {
+            return null;
+        }
+        File file = new File(cacheDir, key + ".json");
+        return file.exists() ? new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8) : null;
+    }
+
+    private void writeCache(String key, String expanded) throws IOException {
+        if (cacheDir == null) {
+            return;
+        }
+        if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+            throw new IOException("Cannot create template cache directory " + cacheDir);
+        }
+        // Written to a temporary file first so that a partially written entry is never read
+        File tmp = File.createTempFile(key, ".tmp", cacheDir);
+        Files.write(tmp.toPath(), expanded.getBytes(StandardCharsets.UTF_8));
+        File file = new File(cacheDir, key + ".json");
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+        }
+    }
+
+    /**
+     * Text split into literal parts and the names of the parameters between them
+     */
+    static class CompiledTemplate {
+
+        private final String[] literals;
+        private final String[] names;
+        private final int length;
+
+        CompiledTemplate(String[] literals, String[] names) {
+            this.literals = literals;
+            this.names = names;
+            int len = 0;
+            for (String literal : literals) {
+                len += literal.length();
+            }
+            this.length = len;
+        }
+
+        /**
+         * Replace the parameters by their values. Expressions for unknown parameters are kept.
+         */
+        String expand(Map<String, String> values) {
+            StringBuilder ret = new StringBuilder(length + names.length * 16);
+            for (int i = 0; i < names.length; i++) {
+                ret.append(literals[i]);
+                String value = values.get(names[i]);
+                if (value != null) {
+                    ret.append(value);
+                } else {
+                    ret.append("${").append(names[i]).append('}');
+                }
+            }
+            ret.append(literals[names.length]);
+            return ret.toString();
+        }
+    }
+}
@@ -17,10 +17,11 @@ package io.fabric8.maven.core.util.validator;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.networknt.schema.JsonSchema;
 import com.networknt.schema.JsonSchemaFactory;
 import com.networknt.schema.ValidationMessage;
+import io.fabric8.maven.core.util.Mappers;
 import io.fabric8.maven.core.util.ResourceClassifier;
 import io.fabric8.maven.docker.util.Logger;
 import org.json.JSONException;
@@ -37,6 +38,13 @@ import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Validates Kubernetes/OpenShift resource descriptors using JSON schema validation method.
@@ -46,10 +54,25 @@ import java.util.*;
 public class ResourceValidator {
 
     public static final String SCHEMA_JSON = "/schema/kube-validation-schema.json";
+
+    // Compiled schemas per (lower case) kind, shared by all validators
+    private static final ConcurrentMap<String, JsonSchema> schemaCache = new ConcurrentHashMap<>();
+
+    // Schema as read from SCHEMA_JSON, lazily initialized. Access must be synchronized on schemaCache
+    private static JSONObject baseSchema;
+
+    // Used for converting in-memory resources with the same settings as when writing them out
+    private static final ObjectMapper TREE_MAPPER = new ObjectMapper()
+        .disable(SerializationFeature.WRITE_EMPTY_JSON_ARRAYS)
+        .disable(SerializationFeature.WRITE_NULL_MAP_VALUES);
+
     private Logger log;
     private File resources[];
+    // Resource objects which are validated without reading them from the file system
+    private Map<File, ?> inMemoryResources;
     private ResourceClassifier target = ResourceClassifier.KUBERNETES;
     private List<ValidationRule> ignoreValidationRules = new ArrayList<>();
+    private int threads = 1;
 
     /**
      * @param inputFile File/Directory path of resource descriptors
@@ -57,6 +80,12 @@ public class ResourceValidator {
     public ResourceValidator(File inputFile) {
         if(inputFile.isDirectory()) {
             resources = inputFile.listFiles();
+            if (resources != null) {
+                // Sort for a deterministic validation and reporting order
+                Arrays.sort(resources);
+            } else {
+                resources = new File[0];
+            }
         } else {
             resources = new File[]{inputFile};
         }
@@ -74,6 +103,35 @@ public class ResourceValidator {
         setupIgnoreRules(this.target);
     }
 
+    /**
+     * Validate resource objects directly, without writing and reading them from the file system.
+     *
+     * @param resources resource objects to validate, keyed by the file they would be written to. This file
+     *                  is only used for the validation messages.
+     * @param target  Target platform e.g OpenShift, Kubernetes
+     * @param log Logger for logging messages on standard output devices
+     */
+    public ResourceValidator(Map<File, ?> resources, ResourceClassifier target, Logger log) {
+        this.inMemoryResources = new TreeMap<>(resources);
+        this.resources = inMemoryResources.keySet().toArray(new File[0]);
+        this.target = target;
+        this.log = log;
+        setupIgnoreRules(this.target);
+    }
+
+    /**
+     * Set the number of threads to use for validating resource files concurrently. The
+     * reported violations do not depend on the number of threads.
+     *
+     * @param threads maximum number of resource files validated in parallel. A value &lt;= 1
+     *                validates all files in the calling thread.
+     * @return this validator
+     */
+    public ResourceValidator withThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
     /*
      * Add exception rules to ignore validation constraint from JSON schema for OpenShift/Kubernetes resources. Some fields in JSON schema which are marked as required
      * but in reality it's not required to provide values for those fields while creating the resources.
@@ -87,42 +145,121 @@ public class ResourceValidator {
 
     /**
      * Validates the resource descriptors as per JSON schema. If any resource is invalid it throws @{@link ConstraintViolationException} with
-     * all violated constraints
+     * all violated constraints of all invalid resources, reported in the order of the resource files.
      *
      * @return number of resources processed
      * @throws ConstraintViolationException
      * @throws IOException
      */
     public int validate() throws ConstraintViolationException, IOException {
-        for(File resource: resources) {
-            if (resource.isFile() && resource.exists()) {
-                try {
-                    log.info("validating %s resource", resource.toString());
-                    JsonNode inputSpecNode = geFileContent(resource);
-                    String kind = inputSpecNode.get("kind").toString();
-                    JsonSchema schema = getJsonSchema(prepareSchemaUrl(SCHEMA_JSON), kind);
-                    Set<ValidationMessage> errors = schema.validate(inputSpecNode);
-                    processErrors(errors, resource);
-                } catch (JSONException e) {
-                    throw new ConstraintViolationException(e.getMessage(), new HashSet<ConstraintViolationImpl>());
-                } catch (URISyntaxException e) {
-                    throw new IOException(e);
-                }
+        List<File> files = new ArrayList<>();
+        for (File resource : resources) {
+            if (inMemoryResources != null || (resource.isFile() && resource.exists())) {
+                files.add(resource);
             }
         }
 
+        List<Set<ConstraintViolationImpl>> results;
+        if (threads > 1 && files.size() > 1) {
+            results = validateConcurrently(files);
+        } else {
+            results = new ArrayList<>();
+            for (File file : files) {
+                log.info("validating %s resource", file.toString());
+                results.add(validateResource(file));
+            }
+        }
+        processErrors(files, results);
+
         return resources.length;
     }
 
-    private void processErrors(Set<ValidationMessage> errors, File resource) {
-        Set<ConstraintViolationImpl> constraintViolations = new HashSet<>();
+    private List<Set<ConstraintViolationImpl>> validateConcurrently(List<File> files) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, files.size()));
+        try {
+            List<Future<Set<ConstraintViolationImpl>>> futures = new ArrayList<>();
+            for (final File file : files) {
+                futures.add(executor.submit(new Callable<Set<ConstraintViolationImpl>>() {
+                    @Override
+                    public Set<ConstraintViolationImpl> call() throws IOException {
+                        return validateResource(file);
+                    }
+                }));
+            }
+            List<Set<ConstraintViolationImpl>> ret = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++) {
+                log.info("validating %s resource", files.get(i).toString());
+                ret.add(waitForResult(futures.get(i)));
+            }
+            return ret;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Set<ConstraintViolationImpl> waitForResult(Future<Set<ConstraintViolationImpl>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while validating resources", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private Set<ConstraintViolationImpl> validateResource(File resource) throws IOException {
+        try {
+            JsonNode inputSpecNode = inMemoryResources != null ?
+                TREE_MAPPER.valueToTree(inMemoryResources.get(resource)) :
+                geFileContent(resource);
+            String kind = inputSpecNode.get("kind").toString();
+            JsonSchema schema = getJsonSchema(kind);
+            return getViolations(schema.validate(inputSpecNode));
+        } catch (JSONException e) {
+            throw new ConstraintViolationException(e.getMessage(), new HashSet<ConstraintViolationImpl>());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private Set<ConstraintViolationImpl> getViolations(Set<ValidationMessage> errors) {
+        // Sorted for a stable error message
+        Set<ConstraintViolationImpl> constraintViolations = new TreeSet<>(new Comparator<ConstraintViolationImpl>() {
+            @Override
+            public int compare(ConstraintViolationImpl v1, ConstraintViolationImpl v2) {
+                return v1.toString().compareTo(v2.toString());
+            }
+        });
         for (ValidationMessage errorMsg: errors) {
             if(!ignoreError(errorMsg))
                 constraintViolations.add(new ConstraintViolationImpl(errorMsg));
         }
+        return constraintViolations;
+    }
+
+    private void processErrors(List<File> files, List<Set<ConstraintViolationImpl>> results) {
+        Set<ConstraintViolationImpl> constraintViolations = new LinkedHashSet<>();
+        StringBuilder errorMessage = new StringBuilder();
+        for (int i = 0; i < files.size(); i++) {
+            Set<ConstraintViolationImpl> violations = results.get(i);
+            if (violations.size() > 0) {
+                if (errorMessage.length() > 0) {
+                    errorMessage.append("\n");
+                }
+                errorMessage.append(getErrorMessage(files.get(i), violations));
+                constraintViolations.addAll(violations);
+            }
+        }
 
         if(constraintViolations.size() > 0) {
-            throw new ConstraintViolationException(getErrorMessage(resource, constraintViolations), constraintViolations);
+            throw new ConstraintViolationException(errorMessage.toString(), constraintViolations);
         }
     }
 
@@ -149,18 +286,29 @@ public class ResourceValidator {
         return  validationError.toString();
     }
 
-    private JsonSchema getJsonSchema(URI schemaUrl, String kind) throws IOException {
+    private JsonSchema getJsonSchema(String kind) throws IOException, URISyntaxException {
         checkIfKindPropertyExists(kind);
-        JsonSchemaFactory factory = new JsonSchemaFactory();
-        JSONObject jsonSchema = getSchemaJson(schemaUrl);
-        getResourceProperties(kind, jsonSchema);
-
-        return factory.getSchema(jsonSchema.toString());
+        String key = kind.replaceAll("\"", "").toLowerCase();
+        JsonSchema schema = schemaCache.get(key);
+        if (schema == null) {
+            synchronized (schemaCache) {
+                schema = schemaCache.get(key);
+                if (schema == null) {
+                    if (baseSchema == null) {
+                        baseSchema = getSchemaJson(prepareSchemaUrl(SCHEMA_JSON));
+                    }
+                    getResourceProperties(key, baseSchema);
+                    schema = new JsonSchemaFactory().getSchema(baseSchema.toString());
+                    schemaCache.put(key, schema);
+                }
+            }
+        }
+        return schema;
     }
 
     private void getResourceProperties(String kind, JSONObject jsonSchema) {
         jsonSchema.put("properties" , jsonSchema.getJSONObject("resources")
-                .getJSONObject(kind.replaceAll("\"", "").toLowerCase())
+                .getJSONObject(kind)
                 .getJSONObject("properties"));
     }
 
@@ -176,14 +324,12 @@ public class ResourceValidator {
 
     private JsonNode geFileContent(File file) throws IOException {
         try (InputStream resourceStream = new FileInputStream(file)) {
-            ObjectMapper jsonMapper = new ObjectMapper(new YAMLFactory());
-            return jsonMapper.readTree(resourceStream);
+            return Mappers.yaml().readTree(resourceStream);
         }
     }
 
     public JSONObject getSchemaJson(URI schemaUrl) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        String rootNode = objectMapper.readValue(schemaUrl.toURL(), JsonNode.class).toString();
+        String rootNode = Mappers.json().readTree(schemaUrl.toURL()).toString();
         JSONObject jsonObject = new JSONObject(rootNode);
         jsonObject.remove("id");
         return jsonObject;
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.access;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ApiDiscoveryCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void inMemory() throws Exception {
+        ApiDiscoveryCache cache = new ApiDiscoveryCache(null, 0);
+        CountingLookup lookup = new CountingLookup(true);
+        assertTrue(cache.get("https://cluster1", "openshift", lookup));
+        assertTrue(cache.get("https://cluster1", "openshift", lookup));
+        assertEquals(1, lookup.calls.get());
+
+        // Other cluster or key
+        assertTrue(cache.get("https://cluster2", "openshift", lookup));
+        assertTrue(cache.get("https://cluster1", "group:image.openshift.io", lookup));
+        assertEquals(3, lookup.calls.get());
+
+        cache.clear();
+        assertTrue(cache.get("https://cluster1", "openshift", lookup));
+        assertEquals(4, lookup.calls.get());
+    }
+
+    @Test
+    public void persisted() throws Exception {
+        File cacheFile = new File(folder.getRoot(), "cache/api-discovery.properties");
+        new ApiDiscoveryCache(cacheFile, 60000).get("https://cluster1", "openshift", new CountingLookup(false));
+        assertTrue(cacheFile.exists());
+
+        // A new cache, e.g. in the next build, doesn't need to look up again
+        CountingLookup lookup = new CountingLookup(true);
+        assertFalse(new ApiDiscoveryCache(cacheFile, 60000).get("https://cluster1", "openshift", lookup));
+        assertEquals(0, lookup.calls.get());
+    }
+
+    @Test
+    public void expired() throws Exception {
+        File cacheFile = new File(folder.getRoot(), "api-discovery.properties");
+        new ApiDiscoveryCache(cacheFile, 60000).get("https://cluster1", "openshift", new CountingLookup(false));
+        Thread.sleep(10);
+
+        CountingLookup lookup = new CountingLookup(true);
+        assertTrue(new ApiDiscoveryCache(cacheFile, 1).get("https://cluster1", "openshift", lookup));
+        assertEquals(1, lookup.calls.get());
+    }
+
+    @Test
+    public void notPersistedWithoutTtl() throws Exception {
+        File cacheFile = new File(folder.getRoot(), "api-discovery.properties");
+        new ApiDiscoveryCache(cacheFile, 0).get("https://cluster1", "openshift", new CountingLookup(false));
+        assertFalse(cacheFile.exists());
+    }
+
+    private static class CountingLookup implements Callable<Boolean> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final boolean result;
+
+        CountingLookup(boolean result) {
+            this.result = result;
+        }
+
+        @Override
+        public Boolean call() {
+            calls.incrementAndGet();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.access;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import io.fabric8.kubernetes.client.BaseClient;
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.openshift.client.OpenShiftClient;
+
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ClientRegistryTest {
+
+    @After
+    public void tearDown() {
+        ClientRegistry.closeAll();
+    }
+
+    @Test
+    public void sharedClients() {
+        KubernetesClient client = ClientRegistry.getKubernetesClient(createConfig("ns1"));
+        assertSame(client, ClientRegistry.getKubernetesClient(createConfig("ns1")));
+
+        KubernetesClient otherNamespace = ClientRegistry.getKubernetesClient(createConfig("ns2"));
+        OpenShiftClient openShiftClient = ClientRegistry.getOpenShiftClient(createConfig("ns1"));
+        assertNotSame(client, otherNamespace);
+        assertNotSame(client, openShiftClient);
+
+        // One connection pool for the cluster
+        assertSame(((BaseClient) client).getHttpClient().connectionPool(), ((BaseClient) otherNamespace).getHttpClient().connectionPool());
+        assertSame(((BaseClient) client).getHttpClient().connectionPool(), ((BaseClient) openShiftClient).getHttpClient().connectionPool());
+    }
+
+    @Test
+    public void separateClientsForDifferentConnectionSettings() {
+        KubernetesClient client = ClientRegistry.getKubernetesClient(createConfig("ns1"));
+
+        Config withPassword = createConfig("ns1");
+        withPassword.setUsername("admin");
+        withPassword.setPassword("secret");
+        Config withOtherPassword = createConfig("ns1");
+        withOtherPassword.setUsername("admin");
+        withOtherPassword.setPassword("other");
+        Config trustingCerts = createConfig("ns1");
+        trustingCerts.setTrustCerts(true);
+        Config withProxy = createConfig("ns1");
+        withProxy.setHttpsProxy("http://proxy:3128");
+        Config withTimeout = createConfig("ns1");
+        withTimeout.setRequestTimeout(1234);
+
+        Set<OkHttpClient> httpClients = new HashSet<>();
+        httpClients.add(((BaseClient) client).getHttpClient());
+        for (Config config : new Config[] { withPassword, withOtherPassword, trustingCerts, withProxy, withTimeout }) {
+            KubernetesClient other = ClientRegistry.getKubernetesClient(config);
+            assertNotSame(client, other);
+            assertTrue(httpClients.add(((BaseClient) other).getHttpClient()));
+            assertSame(other, ClientRegistry.getKubernetesClient(config));
+        }
+    }
+
+    @Test
+    public void closeAll() {
+        KubernetesClient client = ClientRegistry.getKubernetesClient(createConfig("ns1"));
+        ClientRegistry.closeAll();
+        assertNotSame(client, ClientRegistry.getKubernetesClient(createConfig("ns1")));
+    }
+
+    private Config createConfig(String namespace) {
+        return new ConfigBuilder().withMasterUrl("https://localhost:8443").withNamespace(namespace).build();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.fabric8.kubernetes.api.Controller;
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.ConfigMapListBuilder;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.NamespaceBuilder;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.kubernetes.api.model.SecretListBuilder;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.ServiceListBuilder;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentListBuilder;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.openshift.client.server.mock.OpenShiftMockServer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import mockit.Mocked;
+import mockit.integration.junit4.JMockit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(JMockit.class)
+public class ApplyServiceTest {
+
+    @Mocked
+    private Logger logger;
+
+    @Test
+    public void tiersInOrder() throws Exception {
+        RecordingController controller = new RecordingController(null);
+        int count = new ApplyService(null, controller, logger, 4, false).apply(createEntities(), "test.yml");
+
+        assertEquals(8, count);
+        List<String> kinds = controller.getKinds();
+        assertEquals("Namespace", kinds.get(0));
+        assertEquals(new ArrayList<>(Arrays.asList("ConfigMap", "Secret", "Secret")), sorted(kinds.subList(1, 4)));
+        assertEquals(Arrays.asList("Service", "Service"), kinds.subList(4, 6));
+        assertEquals(Arrays.asList("Deployment", "Deployment"), kinds.subList(6, 8));
+        assertTrue(controller.maxConcurrent.get() > 1);
+    }
+
+    @Test
+    public void sequential() throws Exception {
+        RecordingController controller = new RecordingController(null);
+        new ApplyService(null, controller, logger, 1, false).apply(createEntities(), "test.yml");
+
+        assertEquals(Arrays.asList("Namespace", "Secret", "ConfigMap", "Secret", "Service", "Service", "Deployment", "Deployment"),
+                     controller.getKinds());
+        assertEquals(1, controller.maxConcurrent.get());
+    }
+
+    @Test
+    public void errorStopsAfterTier() throws Exception {
+        RecordingController controller = new RecordingController("Secret");
+        try {
+            new ApplyService(null, controller, logger, 4, false).apply(createEntities(), "test.yml");
+            fail("Exception expected");
+        } catch (IllegalStateException exp) {
+            assertEquals("Cannot apply Secret", exp.getMessage());
+        }
+        // The whole failing tier is applied, but no services or deployments
+        assertEquals(4, controller.getKinds().size());
+    }
+
+    @Test
+    public void skipUnchanged() throws Exception {
+        Secret secret = new SecretBuilder().withNewMetadata().withName("secret").endMetadata().build();
+        String secretHash = ApplyService.addHashAnnotation(
+            new SecretBuilder().withNewMetadata().withName("secret").endMetadata().build());
+
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/secrets")
+                  .andReturn(200, new SecretListBuilder().addNewItem()
+                      .withNewMetadata().withName("secret").addToAnnotations(ApplyService.APPLIED_HASH_ANNOTATION, secretHash).endMetadata()
+                      .endItem().build()).once();
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services")
+                  .andReturn(200, new ServiceListBuilder().addNewItem()
+                      .withNewMetadata().withName("service").addToAnnotations(ApplyService.APPLIED_HASH_ANNOTATION, "other").endMetadata()
+                      .endItem().build()).once();
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/configmaps")
+                  .andReturn(200, new ConfigMapListBuilder().build()).once();
+        mockServer.expect().get().withPath("/apis/extensions/v1beta1/namespaces/test/deployments")
+                  .andReturn(200, new DeploymentListBuilder().addNewItem()
+                      .withNewMetadata().withName("deployment").endMetadata()
+                      .endItem().build()).once();
+        OpenShiftClient client = mockServer.createOpenShiftClient();
+
+        RecordingController controller = new RecordingController(null);
+        controller.setNamespace("test");
+        List<HasMetadata> entities = Arrays.asList(
+            secret,
+            new ServiceBuilder().withNewMetadata().withName("service").endMetadata().build(),
+            new ConfigMapBuilder().withNewMetadata().withName("config").endMetadata().build(),
+            new DeploymentBuilder().withNewMetadata().withName("deployment").endMetadata().build());
+        int count = new ApplyService(client, controller, logger, 1, true).apply(entities, "test.yml");
+
+        assertEquals(3, count);
+        assertEquals(Arrays.asList("ConfigMap", "Service", "Deployment"), controller.getKinds());
+        assertEquals(secretHash, secret.getMetadata().getAnnotations().get(ApplyService.APPLIED_HASH_ANNOTATION));
+    }
+
+    private List<HasMetadata> createEntities() {
+        return Arrays.asList(
+            new DeploymentBuilder().withNewMetadata().withName("d1").endMetadata().build(),
+            new ServiceBuilder().withNewMetadata().withName("s1").endMetadata().build(),
+            new NamespaceBuilder().withNewMetadata().withName("ns").endMetadata().build(),
+            new SecretBuilder().withNewMetadata().withName("secret1").endMetadata().build(),
+            new ConfigMapBuilder().withNewMetadata().withName("config").endMetadata().build(),
+            new DeploymentBuilder().withNewMetadata().withName("d2").endMetadata().build(),
+            new ServiceBuilder().withNewMetadata().withName("s2").endMetadata().build(),
+            new SecretBuilder().withNewMetadata().withName("secret2").endMetadata().build());
+    }
+
+    private List<String> sorted(List<String> list) {
+        List<String> ret = new ArrayList<>(list);
+        Collections.sort(ret);
+        return ret;
+    }
+
+    // Records the kinds in the order they have been applied
+    private static class RecordingController extends Controller {
+
+        private final List<String> kinds = new ArrayList<>();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private final String failingKind;
+
+        RecordingController(String failingKind) {
+            this.failingKind = failingKind;
+        }
+
+        @Override
+        public void applyService(Service service, String sourceName) throws Exception {
+            apply(service, sourceName);
+        }
+
+        @Override
+        public void apply(Object dto, String sourceName) throws Exception {
+            int current = concurrent.incrementAndGet();
+            synchronized (maxConcurrent) {
+                maxConcurrent.set(Math.max(maxConcurrent.get(), current));
+            }
+            try {
+                Thread.sleep(50);
+                String kind = KubernetesHelper.getKind((HasMetadata) dto);
+                synchronized (kinds) {
+                    kinds.add(kind);
+                }
+                if (kind.equals(failingKind)) {
+                    throw new IllegalStateException("Cannot apply " + kind);
+                }
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+
+        List<String> getKinds() {
+            synchronized (kinds) {
+                return new ArrayList<>(kinds);
+            }
+        }
+    }
+}
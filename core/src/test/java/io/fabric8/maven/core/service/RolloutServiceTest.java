@@ -0,0 +1,175 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.extensions.StatefulSet;
+import io.fabric8.kubernetes.api.model.extensions.StatefulSetBuilder;
+import io.fabric8.kubernetes.api.model.extensions.StatefulSetUpdateStrategyBuilder;
+import io.fabric8.maven.core.util.JSONUtil;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.openshift.client.server.mock.OpenShiftMockServer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import mockit.Mocked;
+import mockit.integration.junit4.JMockit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JMockit.class)
+public class RolloutServiceTest {
+
+    @Mocked
+    private Logger logger;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void deploymentRolledOut() {
+        assertFalse(RolloutService.isRolledOut(deployment(2L, 1L, 2, 2, 2, 2)));
+        assertFalse(RolloutService.isRolledOut(deployment(2L, 2L, 2, 3, 2, 3)));
+        assertFalse(RolloutService.isRolledOut(deployment(2L, 2L, 2, 2, 2, 1)));
+        assertTrue(RolloutService.isRolledOut(deployment(2L, 2L, 2, 2, 2, 2)));
+        assertTrue(RolloutService.isRolledOut(deployment(null, null, 0, 0, 0, 0)));
+    }
+
+    @Test
+    public void statefulSetRolledOut() {
+        assertFalse(RolloutService.isRolledOut(statefulSet("v1", "v2", 2)));
+        assertFalse(RolloutService.isRolledOut(statefulSet("v2", "v2", 1)));
+        assertTrue(RolloutService.isRolledOut(statefulSet("v2", "v2", 2)));
+    }
+
+    @Test
+    public void statefulSetWithOnDeleteRolledOut() {
+        StatefulSet statefulSet = statefulSet("v1", "v2", 1);
+        statefulSet.getSpec().setUpdateStrategy(new StatefulSetUpdateStrategyBuilder().withType("OnDelete").build());
+        assertFalse(RolloutService.isRolledOut(statefulSet));
+        // Revisions differ until the pods are deleted manually
+        statefulSet.getStatus().setReadyReplicas(2);
+        assertTrue(RolloutService.isRolledOut(statefulSet));
+
+        statefulSet.getMetadata().setGeneration(3L);
+        statefulSet.getStatus().setObservedGeneration(2L);
+        assertFalse(RolloutService.isRolledOut(statefulSet));
+    }
+
+    @Test
+    public void statefulSetWithPartitionRolledOut() {
+        StatefulSet statefulSet = statefulSet("v1", "v2", 2);
+        statefulSet.getSpec().setUpdateStrategy(new StatefulSetUpdateStrategyBuilder()
+                                                    .withType("RollingUpdate")
+                                                    .withNewRollingUpdate().withPartition(1).endRollingUpdate()
+                                                    .build());
+        statefulSet.getStatus().setUpdatedReplicas(0);
+        assertFalse(RolloutService.isRolledOut(statefulSet));
+        // Only the pod with ordinal 1 is updated
+        statefulSet.getStatus().setUpdatedReplicas(1);
+        assertTrue(RolloutService.isRolledOut(statefulSet));
+    }
+
+    @Test
+    public void waitForRolloutAndWriteReport() throws Exception {
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        Deployment deployment = deployment(1L, null, 1, 0, 0, 0);
+        mockServer.expect().get().withPath("/apis/extensions/v1beta1/namespaces/test/deployments/app")
+                  .andReturn(200, deployment).times(2);
+        mockServer.expect().get().withPath("/apis/extensions/v1beta1/namespaces/test/deployments/app")
+                  .andReturn(200, deployment(1L, 1L, 1, 1, 1, 1)).always();
+
+        Map<HasMetadata, Long> applyTimes = new IdentityHashMap<>();
+        applyTimes.put(deployment, System.currentTimeMillis());
+        List<HasMetadata> entities = Arrays.<HasMetadata>asList(
+            new ServiceBuilder().withNewMetadata().withName("app").endMetadata().build(), deployment);
+        List<RolloutService.Rollout> rollouts =
+            new RolloutService(mockServer.createOpenShiftClient(), logger).waitForRollout("test", entities, applyTimes, 20);
+
+        assertEquals(1, rollouts.size());
+        RolloutService.Rollout rollout = rollouts.get(0);
+        assertEquals("Deployment", rollout.getKind());
+        assertEquals("test", rollout.getNamespace());
+        assertTrue(rollout.isReady());
+        assertTrue(rollout.getDuration() >= 0);
+
+        File report = new File(folder.getRoot(), "json/" + RolloutService.REPORT_FILE_NAME);
+        RolloutService.writeReport(report, rollouts);
+        JsonNode resource = JSONUtil.mapper().readTree(report).get("resources").get(0);
+        assertEquals("app", resource.get("name").asText());
+        assertTrue(resource.get("ready").asBoolean());
+        assertEquals(rollout.getDuration(), resource.get("durationMillis").asLong());
+    }
+
+    @Test
+    public void rolloutTimeout() throws Exception {
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        StatefulSet statefulSet = statefulSet("v1", "v2", 2);
+        mockServer.expect().get().withPath("/apis/apps/v1beta1/namespaces/test/statefulsets/app")
+                  .andReturn(200, statefulSet).always();
+
+        List<RolloutService.Rollout> rollouts =
+            new RolloutService(mockServer.createOpenShiftClient(), logger)
+                .waitForRollout("test", Collections.<HasMetadata>singletonList(statefulSet),
+                                Collections.<HasMetadata, Long>emptyMap(), 1);
+
+        assertEquals(1, rollouts.size());
+        assertFalse(rollouts.get(0).isReady());
+        assertEquals(-1, rollouts.get(0).getDuration());
+    }
+
+    private Deployment deployment(Long generation, Long observedGeneration, int replicas,
+                                  int statusReplicas, int updatedReplicas, int availableReplicas) {
+        return new DeploymentBuilder()
+            .withNewMetadata().withName("app").withGeneration(generation).endMetadata()
+            .withNewSpec().withReplicas(replicas).endSpec()
+            .withNewStatus()
+              .withObservedGeneration(observedGeneration)
+              .withReplicas(statusReplicas)
+              .withUpdatedReplicas(updatedReplicas)
+              .withAvailableReplicas(availableReplicas)
+            .endStatus()
+            .build();
+    }
+
+    private StatefulSet statefulSet(String currentRevision, String updateRevision, int readyReplicas) {
+        return new StatefulSetBuilder()
+            .withNewMetadata().withName("app").endMetadata()
+            .withNewSpec().withReplicas(2).endSpec()
+            .withNewStatus()
+              .withCurrentRevision(currentRevision)
+              .withUpdateRevision(updateRevision)
+              .withReadyReplicas(readyReplicas)
+            .endStatus()
+            .build();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.Annotations;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.ServiceListBuilder;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.openshift.api.model.RouteListBuilder;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.openshift.client.server.mock.OpenShiftMockServer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import mockit.Mocked;
+import mockit.integration.junit4.JMockit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JMockit.class)
+public class ServiceUrlServiceTest {
+
+    @Mocked
+    private Logger logger;
+
+    @Test
+    public void urlsFromAnnotationAndRoute() throws Exception {
+        Service exposed = createService("exposed", true, null);
+        Service annotated = createService("annotated", false, "http://annotated.example.com");
+        Service routed = createService("routed", false, null);
+        Service internal = createService("internal", false, null);
+
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/services")
+                  .andReturn(200, new ServiceListBuilder()
+                      .withNewMetadata().withResourceVersion("1").endMetadata()
+                      .withItems(exposed, annotated, routed, internal).build()).always();
+        mockServer.expect().get().withPath("/oapi/v1/namespaces/test/routes")
+                  .andReturn(200, new RouteListBuilder().addNewItem()
+                      .withNewMetadata().withName("routed").endMetadata()
+                      .withNewSpec().withHost("routed.example.com").withNewTo().withName("routed").endTo().endSpec()
+                      .endItem().build()).once();
+        OpenShiftClient client = mockServer.createOpenShiftClient();
+
+        long start = System.currentTimeMillis();
+        Map<String, String> urls = new ServiceUrlService(client, logger)
+            .getServiceUrls("test", Arrays.asList(exposed, annotated, routed, internal), 1);
+
+        // The exposed service never gets an URL, so the wait is limited by the timeout
+        assertEquals(Arrays.asList("annotated", "routed"), Arrays.asList(urls.keySet().toArray()));
+        assertEquals("http://annotated.example.com", urls.get("annotated"));
+        assertEquals("http://routed.example.com", urls.get("routed"));
+        assertTrue(System.currentTimeMillis() - start < 10000);
+    }
+
+    @Test
+    public void noServices() throws Exception {
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        Map<String, String> urls = new ServiceUrlService(mockServer.createOpenShiftClient(), logger)
+            .getServiceUrls("test", Collections.<Service>emptyList(), 10);
+        assertTrue(urls.isEmpty());
+        assertEquals(0, mockServer.getRequestCount());
+    }
+
+    private Service createService(String name, boolean expose, String url) {
+        ServiceBuilder builder = new ServiceBuilder().withNewMetadata().withName(name).endMetadata();
+        if (expose) {
+            builder.editMetadata().addToLabels("expose", "true").endMetadata();
+        }
+        if (url != null) {
+            builder.editMetadata().addToAnnotations(Annotations.Service.EXPOSE_URL, url).endMetadata();
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodListBuilder;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.extensions.DaemonSet;
+import io.fabric8.kubernetes.api.model.extensions.DaemonSetBuilder;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.openshift.client.server.mock.OpenShiftMockServer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import mockit.Mocked;
+import mockit.integration.junit4.JMockit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JMockit.class)
+public class UndeployServiceTest {
+
+    @Mocked
+    private Logger logger;
+
+    @Test
+    public void deleteInReverseTiers() throws Exception {
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        Service service = new ServiceBuilder().withNewMetadata().withName("service").endMetadata().build();
+        ConfigMap configMap = new ConfigMapBuilder().withNewMetadata().withName("config").endMetadata().build();
+        Secret secret = new SecretBuilder().withNewMetadata().withName("secret").endMetadata().build();
+        mockServer.expect().delete().withPath("/api/v1/namespaces/test/services/service").andReturn(200, service).once();
+        mockServer.expect().delete().withPath("/api/v1/namespaces/test/configmaps/config").andReturn(200, configMap).once();
+        mockServer.expect().delete().withPath("/api/v1/namespaces/test/secrets/secret").andReturn(200, secret).once();
+
+        List<HasMetadata> entities = Arrays.<HasMetadata>asList(configMap, secret, service);
+        new UndeployService(mockServer.createOpenShiftClient(), logger).undeploy("test", entities, "-s2i", 1, 0);
+
+        assertEquals(Arrays.asList("/api/v1/namespaces/test/services/service",
+                                   "/api/v1/namespaces/test/secrets/secret",
+                                   "/api/v1/namespaces/test/configmaps/config"),
+                     getRequestPaths(mockServer));
+    }
+
+    @Test
+    public void deleteConcurrentlyAndWaitForPods() throws Exception {
+        OpenShiftMockServer mockServer = new OpenShiftMockServer(false);
+        DaemonSet daemonSet = new DaemonSetBuilder()
+            .withNewMetadata().withName("daemon").endMetadata()
+            .withNewSpec().withNewSelector().addToMatchLabels("app", "test").endSelector().endSpec()
+            .build();
+        ConfigMap configMap = new ConfigMapBuilder().withNewMetadata().withName("config").endMetadata().build();
+        Secret secret = new SecretBuilder().withNewMetadata().withName("secret").endMetadata().build();
+        mockServer.expect().delete().withPath("/apis/extensions/v1beta1/namespaces/test/daemonsets/daemon").andReturn(200, daemonSet).once();
+        mockServer.expect().delete().withPath("/api/v1/namespaces/test/configmaps/config").andReturn(200, configMap).once();
+        mockServer.expect().delete().withPath("/api/v1/namespaces/test/secrets/secret").andReturn(200, secret).once();
+        // The pod is still there on the first request
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/pods?labelSelector=app%3Dtest")
+                  .andReturn(200, new PodListBuilder().addToItems(new PodBuilder().withNewMetadata().withName("pod").endMetadata().build()).build())
+                  .times(2);
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/pods?labelSelector=app%3Dtest")
+                  .andReturn(200, new PodListBuilder().build())
+                  .always();
+
+        List<HasMetadata> entities = Arrays.<HasMetadata>asList(daemonSet, configMap, secret);
+        long start = System.currentTimeMillis();
+        new UndeployService(mockServer.createOpenShiftClient(), logger).undeploy("test", entities, "-s2i", 4, 20);
+
+        List<String> paths = getRequestPaths(mockServer);
+        assertEquals("/apis/extensions/v1beta1/namespaces/test/daemonsets/daemon", paths.get(0));
+        assertTrue(paths.containsAll(Arrays.asList("/api/v1/namespaces/test/secrets/secret",
+                                                   "/api/v1/namespaces/test/configmaps/config")));
+        assertTrue(paths.contains("/api/v1/namespaces/test/pods?labelSelector=app%3Dtest"));
+        assertTrue(System.currentTimeMillis() - start < 20000);
+    }
+
+    private List<String> getRequestPaths(OpenShiftMockServer mockServer) throws InterruptedException {
+        List<String> ret = new ArrayList<>();
+        int count = mockServer.getRequestCount();
+        for (int i = 0; i < count; i++) {
+            ret.add(mockServer.takeRequest().getPath());
+        }
+        return ret;
+    }
+}
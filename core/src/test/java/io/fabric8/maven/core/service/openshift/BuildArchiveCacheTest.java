@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service.openshift;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import io.fabric8.kubernetes.api.model.LocalObjectReference;
+import io.fabric8.openshift.api.model.BuildOutput;
+import io.fabric8.openshift.api.model.BuildOutputBuilder;
+import io.fabric8.openshift.api.model.BuildStrategy;
+import io.fabric8.openshift.api.model.BuildStrategyBuilder;
+import org.apache.commons.io.FileUtils;
+import org.codehaus.plexus.archiver.ArchiveEntry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class BuildArchiveCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void digestIgnoresTimestamps() throws IOException {
+        String first = BuildArchiveCache.digest(createArchive("a", 1000L, "content", 0644));
+        String second = BuildArchiveCache.digest(createArchive("b", 2000000L, "content", 0644));
+        String changed = BuildArchiveCache.digest(createArchive("c", 1000L, "changed", 0644));
+        String executable = BuildArchiveCache.digest(createArchive("d", 1000L, "content", 0755));
+
+        assertEquals(first, second);
+        assertNotEquals(first, changed);
+        assertNotEquals(first, executable);
+    }
+
+    @Test
+    public void digestIncludesBuildConfig() throws IOException {
+        BuildArchive archive = createArchive("a", 1000L, "content", 0644);
+        BuildOutput output = new BuildOutputBuilder().withNewTo().withKind("ImageStreamTag").withName("myapp:latest").endTo().build();
+        String digest = BuildArchiveCache.digest(archive, sourceStrategy("java:1", null), output);
+
+        assertEquals(digest, BuildArchiveCache.digest(archive, sourceStrategy("java:1", null), output));
+        assertNotEquals(digest, BuildArchiveCache.digest(archive, sourceStrategy("java:2", null), output));
+        assertNotEquals(digest, BuildArchiveCache.digest(archive, sourceStrategy("java:1", "pullsecret"), output));
+        assertNotEquals(digest, BuildArchiveCache.digest(archive, new BuildStrategyBuilder().withType("Docker")
+                                                                  .withNewDockerStrategy().endDockerStrategy().build(), output));
+        assertNotEquals(digest, BuildArchiveCache.digest(createArchive("b", 1000L, "changed", 0644), sourceStrategy("java:1", null), output));
+    }
+
+    @Test
+    public void storeAndLookup() throws IOException {
+        BuildArchiveCache cache = new BuildArchiveCache(new File(folder.getRoot(), BuildArchiveCache.CACHE_DIR_NAME));
+        assertNull(cache.getImage("myapp-s2i", "1234", "myapp:latest"));
+
+        cache.store("myapp-s2i", "1234", "myapp:latest", "sha256:abcd");
+        assertEquals("sha256:abcd", cache.getImage("myapp-s2i", "1234", "myapp:latest"));
+        assertNull(cache.getImage("myapp-s2i", "5678", "myapp:latest"));
+        assertNull(cache.getImage("myapp-s2i", "1234", "myapp:1.0"));
+
+        cache.remove("myapp-s2i");
+        assertNull(cache.getImage("myapp-s2i", "1234", "myapp:latest"));
+    }
+
+    private BuildStrategy sourceStrategy(String builderImage, String pullSecret) {
+        BuildStrategy strategy = new BuildStrategyBuilder()
+            .withType("Source")
+            .withNewSourceStrategy().withNewFrom().withKind("DockerImage").withName(builderImage).endFrom().endSourceStrategy()
+            .build();
+        if (pullSecret != null) {
+            strategy.getSourceStrategy().setPullSecret(new LocalObjectReference(pullSecret));
+        }
+        return strategy;
+    }
+
+    private BuildArchive createArchive(String dirName, long modTime, String content, int mode) throws IOException {
+        File dir = folder.newFolder(dirName);
+        File file = new File(dir, "app.jar");
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+        file.setLastModified(modTime);
+        dir.setLastModified(modTime);
+        return new BuildArchive(Arrays.asList(
+            ArchiveEntry.createDirectoryEntry("maven", dir, 0755, 0755),
+            ArchiveEntry.createFileEntry("maven/app.jar", file, mode, 0755)));
+    }
+}
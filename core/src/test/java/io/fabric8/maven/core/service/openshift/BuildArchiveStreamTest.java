@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service.openshift;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.codehaus.plexus.archiver.ArchiveEntry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class BuildArchiveStreamTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compress() throws IOException {
+        // Larger than the pipe so that the writer has to wait for the reader
+        byte[] data = createData(2 * 1024 * 1024);
+        BuildArchive archive = createArchive(data);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (InputStream is = new BuildArchiveStream(archive, 1)) {
+            IOUtils.copy(is, compressed);
+        }
+
+        try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertArrayEquals(data, readEntry(is, "maven/app.jar"));
+        }
+    }
+
+    @Test
+    public void uncompressed() throws IOException {
+        byte[] data = createData(2 * 1024 * 1024);
+
+        try (InputStream is = new BuildArchiveStream(createArchive(data), 0)) {
+            assertArrayEquals(data, readEntry(is, "maven/app.jar"));
+        }
+    }
+
+    @Test
+    public void closeEarly() throws IOException {
+        InputStream is = new BuildArchiveStream(createArchive(new byte[4 * 1024 * 1024]), 9);
+        assertTrue(is.read() != -1);
+        // Reader stopping is not reported as write error
+        is.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLevel() throws IOException {
+        new BuildArchiveStream(new BuildArchive(), 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeLevel() throws IOException {
+        new BuildArchiveStream(new BuildArchive(), -1);
+    }
+
+    private byte[] createData(int size) {
+        byte[] data = new byte[size];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    private BuildArchive createArchive(byte[] data) throws IOException {
+        File file = folder.newFile("app.jar");
+        FileUtils.writeByteArrayToFile(file, data);
+        return new BuildArchive(Collections.singletonList(ArchiveEntry.createFileEntry("maven/app.jar", file, 0644, 0755)));
+    }
+
+    private byte[] readEntry(InputStream is, String name) throws IOException {
+        TarArchiveInputStream tar = new TarArchiveInputStream(is);
+        TarArchiveEntry entry;
+        while ((entry = tar.getNextEntry()) != null) {
+            if (entry.getName().equals(name)) {
+                return IOUtils.toByteArray(tar);
+            }
+        }
+        fail("No entry " + name);
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service.openshift;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.fabric8.maven.docker.assembly.ArchiverCustomizer;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.codehaus.plexus.archiver.tar.TarArchiver;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class BuildArchiveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void collectAndWrite() throws IOException {
+        File buildDir = folder.newFolder("build");
+        FileUtils.writeStringToFile(new File(buildDir, "Dockerfile"), "FROM java", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(buildDir, "maven/app.jar"), "app", StandardCharsets.UTF_8);
+        final File environment = folder.newFile("s2i-env");
+        FileUtils.writeStringToFile(environment, "FOO=BAR", StandardCharsets.UTF_8);
+
+        TarArchiver archiver = new TarArchiver();
+        archiver.addDirectory(buildDir);
+        File tarFile = new File(folder.getRoot(), "docker-build.tar");
+
+        BuildArchive archive = new BuildArchive();
+        TarArchiver result = archive.collector(new ArchiverCustomizer() {
+            @Override
+            public TarArchiver customize(TarArchiver archiver) {
+                archiver.addFile(environment, ".s2i/environment");
+                return archiver;
+            }
+        }).customize(archiver);
+        result.setDestFile(tarFile);
+        result.createArchive();
+        assertFalse(tarFile.exists());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        archive.writeTo(out);
+
+        Map<String, String> content = new HashMap<>();
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextEntry()) != null) {
+                content.put(entry.getName(), entry.isDirectory() ? null : IOUtils.toString(tar, StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals("FROM java", content.get("Dockerfile"));
+        assertEquals("app", content.get("maven/app.jar"));
+        assertEquals("FOO=BAR", content.get(".s2i/environment"));
+        assertTrue(content.containsKey("maven/"));
+    }
+}
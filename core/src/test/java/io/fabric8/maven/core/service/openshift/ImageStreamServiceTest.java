@@ -17,16 +17,26 @@ package io.fabric8.maven.core.service.openshift;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
 import io.fabric8.kubernetes.client.dsl.*;
 import io.fabric8.kubernetes.client.dsl.base.BaseOperation;
 import io.fabric8.maven.docker.util.ImageName;
 import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.openshift.api.model.*;
 import io.fabric8.openshift.client.OpenShiftClient;
+import mockit.Delegate;
 import mockit.Expectations;
 import mockit.Mocked;
+import mockit.Verifications;
 import mockit.integration.junit4.JMockit;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.junit.Assert;
@@ -105,6 +115,113 @@ public class ImageStreamServiceTest {
         assertTrue(names.isEmpty());
     }
 
+    @Test
+    public void concurrentAppend() throws Exception {
+        final int count = 8;
+        new Expectations() {{
+            client.imageStreams(); result = imageStreamsOp;
+            imageStreamsOp.withName(anyString); result = resource;
+            resource.get(); result = lookupImageStream("ab12cd");
+            client.getNamespace(); result = "default";
+        }};
+
+        final File target = File.createTempFile("ImageStreamServiceTest", ".yml");
+        assertTrue(target.delete());
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                final ImageName name = new ImageName("app" + i + ":1.0");
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        // Each build has its own service, as when building concurrently
+                        new ImageStreamService(client, log).appendImageStreamResource(name, target);
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Set<String> names = new HashSet<>();
+        for (Map item : getItemsList(readImageStreamDescriptor(target))) {
+            names.add((String) ((Map) item.get("metadata")).get("name"));
+        }
+        assertEquals(count, names.size());
+        for (int i = 0; i < count; i++) {
+            assertTrue(names.contains("app" + i));
+        }
+    }
+
+    @Test
+    public void tagFromWatch(@Mocked final Watch watch) throws Exception {
+        ImageStreamService service = new ImageStreamService(client, log);
+
+        final ImageStream tagged = lookupImageStream("ab12cd");
+        new Expectations() {{
+            client.imageStreams(); result = imageStreamsOp;
+            imageStreamsOp.withName("test"); result = resource;
+            resource.get(); result = new ImageStream();
+            resource.watch((Watcher) any); result = new Delegate() {
+                Watch watch(Watcher<ImageStream> watcher) {
+                    watcher.eventReceived(Watcher.Action.MODIFIED, new ImageStream());
+                    watcher.eventReceived(Watcher.Action.MODIFIED, tagged);
+                    return watch;
+                }
+            };
+            client.getNamespace(); result = "default";
+        }};
+
+        File target = File.createTempFile("ImageStreamServiceTest", ".yml");
+        service.appendImageStreamResource(new ImageName("test:1.0"), target);
+        assertEquals("test@ab12cd", getFromName(target));
+
+        new Verifications() {{
+            watch.close();
+        }};
+    }
+
+    @Test
+    public void tagFromPollingWhenWatchFails() throws Exception {
+        ImageStreamService service = new ImageStreamService(client, log);
+
+        final ImageStream tagged = lookupImageStream("ef34ab");
+        new Expectations() {{
+            client.imageStreams(); result = imageStreamsOp;
+            imageStreamsOp.withName("test"); result = resource;
+            resource.get(); returns(null, new ImageStream(), tagged);
+            resource.watch((Watcher) any); result = new KubernetesClientException("no watch");
+            client.getNamespace(); result = "default";
+        }};
+
+        File target = File.createTempFile("ImageStreamServiceTest", ".yml");
+        service.appendImageStreamResource(new ImageName("test:1.0"), target);
+        assertEquals("test@ef34ab", getFromName(target));
+    }
+
+    @Test
+    public void jitter() {
+        for (int i = 0; i < 100; i++) {
+            long delay = ImageStreamService.jitter(1000);
+            assertTrue(delay >= 500 && delay <= 1000);
+        }
+        assertEquals(0, ImageStreamService.jitter(1));
+    }
+
+    private String getFromName(File target) throws FileNotFoundException {
+        Map isRead = getItemsList(readImageStreamDescriptor(target)).get(0);
+        Map tag = (Map) ((List) ((Map) isRead.get("spec")).get("tags")).get(0);
+        return (String) ((Map) tag.get("from")).get("name");
+    }
+
     private List<Map> getItemsList(Map result) {
         List items = (List) result.get("items");
         assertNotNull(items);
@@ -90,6 +90,9 @@ public class OpenshiftBuildServiceTest {
     @Mocked
     private MavenProject project;
 
+    @Mocked
+    private io.fabric8.maven.docker.service.BuildService.BuildContext dockerBuildContext;
+
     private ImageConfiguration image;
 
     private BuildService.BuildServiceConfig.Builder defaultConfig;
@@ -98,9 +101,7 @@ public class OpenshiftBuildServiceTest {
 
     @Before
     public void init() throws Exception {
-        final File dockerFile = new File(baseDir, "Docker.tar");
-        dockerFile.getParentFile().mkdirs();
-        dockerFile.createNewFile();
+        new File(baseDir).mkdirs();
 
         imageStreamFile.delete();
 
@@ -108,10 +109,6 @@ public class OpenshiftBuildServiceTest {
             dockerServiceHub.getArchiveService();
             result = archiveService;
 
-            archiveService.createDockerBuildArchive(withAny(ImageConfiguration.class.cast(null)), withAny(MojoParameters.class.cast(null)));
-            result = dockerFile;
-            minTimes = 0;
-
             project.getArtifact();
             result = "myapp";
             minTimes = 0;
@@ -134,7 +131,8 @@ public class OpenshiftBuildServiceTest {
                 .buildRecreateMode(BuildRecreateMode.none)
                 .s2iBuildNameSuffix("-s2i-suffix2")
                 .openshiftBuildStrategy(OpenShiftBuildStrategy.s2i)
-                .dockerMojoParameters(dockerMojoParameters);
+                .dockerMojoParameters(dockerMojoParameters)
+                .dockerBuildContext(dockerBuildContext);
 
         defaultConfigSecret = new BuildService.BuildServiceConfig.Builder()
                 .buildDirectory(baseDir)
@@ -142,7 +140,8 @@ public class OpenshiftBuildServiceTest {
                 .s2iBuildNameSuffix("-s2i-suffix2")
                 .openshiftPullSecret("pullsecret-fabric8")
                 .openshiftBuildStrategy(OpenShiftBuildStrategy.s2i)
-                .dockerMojoParameters(dockerMojoParameters);
+                .dockerMojoParameters(dockerMojoParameters)
+                .dockerBuildContext(dockerBuildContext);
     }
 
     @Test
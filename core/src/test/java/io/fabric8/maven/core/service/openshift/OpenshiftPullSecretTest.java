@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.service.openshift;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.maven.core.config.BuildRecreateMode;
+import io.fabric8.maven.core.config.OpenShiftBuildStrategy;
+import io.fabric8.maven.core.service.BuildService;
+import io.fabric8.maven.core.util.Mappers;
+import io.fabric8.maven.core.util.ResourceFileType;
+import io.fabric8.maven.docker.access.AuthConfig;
+import io.fabric8.maven.docker.config.BuildImageConfiguration;
+import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.docker.service.ServiceHub;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.docker.util.MojoParameters;
+import io.fabric8.openshift.client.server.mock.OpenShiftMockServer;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.integration.junit4.JMockit;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.maven.settings.Settings;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 17/10/26
+ */
+@RunWith(JMockit.class)
+public class OpenshiftPullSecretTest {
+
+    @Mocked
+    private ServiceHub dockerServiceHub;
+
+    @Mocked
+    private Logger logger;
+
+    @Mocked
+    private MojoParameters dockerMojoParameters;
+
+    @Mocked
+    private io.fabric8.maven.docker.service.BuildService.BuildContext dockerBuildContext;
+
+    private BuildService.BuildServiceConfig config;
+
+    private OpenShiftMockServer mockServer;
+
+    @Before
+    public void init() throws Exception {
+        new Expectations() {{
+            dockerBuildContext.getRegistryConfig().getAuthConfigFactory()
+                .createAuthConfig(anyBoolean, anyBoolean, (Map) any, (Settings) any, anyString, anyString);
+            result = new AuthConfig("fabric8", "secret", null, null);
+        }};
+        config = new BuildService.BuildServiceConfig.Builder()
+            .buildDirectory("target/test-files/openshift-pull-secret")
+            .buildRecreateMode(BuildRecreateMode.none)
+            .openshiftPullSecret("pullsecret-fabric8")
+            .openshiftBuildStrategy(OpenShiftBuildStrategy.s2i)
+            .dockerMojoParameters(dockerMojoParameters)
+            .dockerBuildContext(dockerBuildContext)
+            .build();
+        mockServer = new OpenShiftMockServer(false);
+    }
+
+    @Test
+    public void createForAllRegistries() throws Exception {
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/secrets/pullsecret-fabric8").andReturn(404, "").once();
+        mockServer.expect().post().withPath("/api/v1/namespaces/test/secrets").andReturn(201, new Secret()).once();
+
+        createService().prepareBuilds(Arrays.asList(imageFrom("app1", "registry1.example.com/java:8"),
+                                                    imageFrom("app2", "registry2.example.com/java:8"),
+                                                    imageFrom("app3", "registry1.example.com/tomcat:8")));
+
+        assertEquals("GET", mockServer.takeRequest().getMethod());
+        RecordedRequest create = mockServer.takeRequest();
+        assertEquals("POST", create.getMethod());
+        Secret secret = Mappers.reader(ResourceFileType.json, Secret.class).readValue(create.getBody().readUtf8());
+        JSONObject auths = getAuths(secret);
+        assertEquals(2, auths.length());
+        assertEquals(auth(), auths.getJSONObject("registry1.example.com").getString("auth"));
+        assertEquals(auth(), auths.getJSONObject("registry2.example.com").getString("auth"));
+        assertEquals(2, mockServer.getRequestCount());
+    }
+
+    @Test
+    public void keepSecretWithAllRegistries() throws Exception {
+        Secret secret = new SecretBuilder()
+            .withNewMetadata().withName("pullsecret-fabric8").endMetadata()
+            .addToData(".dockerconfigjson", dockerConfig("registry1.example.com", "registry2.example.com"))
+            .build();
+        mockServer.expect().get().withPath("/api/v1/namespaces/test/secrets/pullsecret-fabric8").andReturn(200, secret).always();
+
+        createService().prepareBuilds(Arrays.asList(imageFrom("app1", "registry2.example.com/java:8")));
+
+        // Credentials of other registries are kept, so nothing is written
+        assertEquals(1, mockServer.getRequestCount());
+    }
+
+    private OpenshiftBuildService createService() {
+        return new OpenshiftBuildService(mockServer.createOpenShiftClient(), logger, dockerServiceHub, config);
+    }
+
+    private ImageConfiguration imageFrom(String name, String from) {
+        return new ImageConfiguration.Builder()
+            .name(name)
+            .buildConfig(new BuildImageConfiguration.Builder().from(from).build())
+            .build();
+    }
+
+    private JSONObject getAuths(Secret secret) throws Exception {
+        String dockerConfig = new String(Base64.decodeBase64(secret.getData().get(".dockerconfigjson")), "UTF-8");
+        return new JSONObject(dockerConfig).getJSONObject("auths");
+    }
+
+    private String dockerConfig(String... registries) throws Exception {
+        JSONObject auths = new JSONObject();
+        for (String registry : registries) {
+            auths.put(registry, new JSONObject().put("auth", auth()));
+        }
+        return Base64.encodeBase64String(new JSONObject().put("auths", auths).toString().getBytes("UTF-8"));
+    }
+
+    private String auth() throws Exception {
+        return Base64.encodeBase64String("fabric8:secret".getBytes("UTF-8"));
+    }
+}
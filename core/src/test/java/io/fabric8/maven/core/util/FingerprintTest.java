@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Properties;
+
+import io.fabric8.maven.core.config.ProcessorConfig;
+import io.fabric8.maven.docker.config.BuildImageConfiguration;
+import io.fabric8.maven.docker.config.ImageConfiguration;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class FingerprintTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void stable() {
+        Properties props = new Properties();
+        props.setProperty("b", "2");
+        props.setProperty("a", "1");
+        Properties sameProps = new Properties();
+        sameProps.setProperty("a", "1");
+        sameProps.setProperty("b", "2");
+
+        assertEquals(new Fingerprint().add("k", "v").addProperties("props", props).build(),
+                     new Fingerprint().add("k", "v").addProperties("props", sameProps).build());
+        assertNotEquals(new Fingerprint().add("k", "v").build(),
+                        new Fingerprint().add("k", null).build());
+        // Values can't be moved between keys
+        assertNotEquals(new Fingerprint().add("ab", "c").build(),
+                        new Fingerprint().add("a", "bc").build());
+    }
+
+    @Test
+    public void files() throws IOException {
+        File dir = folder.newFolder("fabric8");
+        File fragment = new File(dir, "deployment.yml");
+        FileUtils.fileWrite(fragment, "UTF-8", "spec:\n  replicas: 1\n");
+        String fingerprint = new Fingerprint().addFile("dir", dir).build();
+        assertEquals(fingerprint, new Fingerprint().addFile("dir", dir).build());
+
+        FileUtils.fileWrite(fragment, "UTF-8", "spec:\n  replicas: 2\n");
+        String changed = new Fingerprint().addFile("dir", dir).build();
+        assertNotEquals(fingerprint, changed);
+
+        FileUtils.fileWrite(new File(dir, "service.yml"), "UTF-8", "");
+        assertNotEquals(changed, new Fingerprint().addFile("dir", dir).build());
+
+        assertEquals(new Fingerprint().addFile("dir", new File(dir, "missing")).build(),
+                     new Fingerprint().addFile("dir", null).build());
+    }
+
+    @Test
+    public void configObjects() {
+        ProcessorConfig config = new ProcessorConfig(Collections.singletonList("fmp-project"), null, null);
+        assertEquals(new Fingerprint().addObject("config", config).build(),
+                     new Fingerprint().addObject("config", new ProcessorConfig(Collections.singletonList("fmp-project"), null, null)).build());
+        assertNotEquals(new Fingerprint().addObject("config", config).build(),
+                        new Fingerprint().addObject("config", ProcessorConfig.EMPTY).build());
+
+        assertNotEquals(new Fingerprint().addObject("images", Collections.singletonList(createImage("java:8"))).build(),
+                        new Fingerprint().addObject("images", Collections.singletonList(createImage("java:9"))).build());
+    }
+
+    private ImageConfiguration createImage(String from) {
+        return new ImageConfiguration.Builder()
+            .name("app:latest")
+            .buildConfig(new BuildImageConfiguration.Builder().from(from).build())
+            .build();
+    }
+}
@@ -21,6 +21,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.util.List;
 
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.KubernetesList;
@@ -185,5 +186,28 @@ public class KubernetesResourceUtilTest {
             assertEquals("v2",item.getApiVersion());
         }
     }
-}
 
+    @Test
+    public void readWholeDirConcurrently() throws IOException {
+        File[] files = new File(fabric8Dir, "read-dir").listFiles();
+        List<HasMetadata> expected =
+            KubernetesResourceUtil.readResourceFragmentsFrom(DEFAULT_RESOURCE_VERSIONING, "pong", files).buildItems();
+
+        // Same items in the same order
+        List<HasMetadata> items =
+            KubernetesResourceUtil.readResourceFragmentsFrom(DEFAULT_RESOURCE_VERSIONING, "pong", files, 4).buildItems();
+        assertEquals(expected, items);
+    }
+
+    @Test
+    public void readConcurrentlyInvalidName() throws IOException {
+        File[] files = { new File(fabric8Dir, "read-dir").listFiles()[0], new File(fabric8Dir, "simple-rc.yaml"),
+                         new File(fabric8Dir, "simple-bla.yaml") };
+        try {
+            KubernetesResourceUtil.readResourceFragmentsFrom(DEFAULT_RESOURCE_VERSIONING, "pong", files, 3);
+            fail();
+        } catch (IllegalArgumentException exp) {
+            assertTrue(exp.getMessage().contains("bla"));
+        }
+    }
+}
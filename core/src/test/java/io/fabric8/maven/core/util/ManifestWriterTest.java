@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class ManifestWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compositeAndItems() throws Exception {
+        ConfigMap configMap = new ConfigMapBuilder()
+            .withNewMetadata().withName("config").addToLabels("app", "test").endMetadata()
+            .addToData("application.properties", "a=1\nb=2\n")
+            .build();
+        Service service = new ServiceBuilder()
+            .withNewMetadata().withName("service").endMetadata()
+            .withNewSpec().addNewPort().withPort(8080).endPort().endSpec()
+            .build();
+        KubernetesList list = new KubernetesList();
+        list.setItems(Arrays.<HasMetadata>asList(configMap, service));
+
+        File dir = new File(folder.getRoot(), "fabric8");
+        Map<ResourceFileType, File> listFiles = new EnumMap<>(ResourceFileType.class);
+        listFiles.put(ResourceFileType.yaml, new File(dir, "kubernetes.yml"));
+        listFiles.put(ResourceFileType.json, new File(dir, "kubernetes.json"));
+        Map<HasMetadata, File> itemFiles = new IdentityHashMap<>();
+        itemFiles.put(configMap, new File(dir, "kubernetes/config-configmap.yml"));
+
+        ManifestWriter.write(list, listFiles, itemFiles, ResourceFileType.yaml);
+
+        // Same content as serializing the whole list at once
+        assertEquals(ManifestWriter.toString(list, ResourceFileType.yaml), read(listFiles.get(ResourceFileType.yaml)));
+        assertEquals(ManifestWriter.toString(list, ResourceFileType.json), read(listFiles.get(ResourceFileType.json)));
+        assertEquals(ManifestWriter.toString(configMap, ResourceFileType.yaml), read(itemFiles.get(configMap)));
+        assertFalse(new File(dir, "kubernetes/service-svc.yml").exists());
+    }
+
+    @Test
+    public void emptyList() throws Exception {
+        KubernetesList list = new KubernetesList();
+        File file = new File(folder.getRoot(), "empty.json");
+
+        ManifestWriter.write(list, singleFile(ResourceFileType.json, file), new IdentityHashMap<HasMetadata, File>(), ResourceFileType.json);
+
+        assertEquals(ManifestWriter.toString(list, ResourceFileType.json), read(file));
+    }
+
+    @Test
+    public void listWithMetadata() throws Exception {
+        KubernetesList list = new KubernetesListBuilder()
+            .withNewMetadata().withResourceVersion("1").endMetadata()
+            .addToItems(new ConfigMapBuilder().withNewMetadata().withName("config").endMetadata().build())
+            .build();
+        File file = new File(folder.getRoot(), "list.yml");
+
+        ManifestWriter.write(list, singleFile(ResourceFileType.yaml, file), new IdentityHashMap<HasMetadata, File>(), ResourceFileType.yaml);
+
+        assertEquals(ManifestWriter.toString(list, ResourceFileType.yaml), read(file));
+    }
+
+    private Map<ResourceFileType, File> singleFile(ResourceFileType type, File file) {
+        Map<ResourceFileType, File> ret = new EnumMap<>(ResourceFileType.class);
+        ret.put(type, file);
+        return ret;
+    }
+
+    private String read(File file) throws Exception {
+        return FileUtils.fileRead(file, "UTF-8");
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.kubernetes.api.model.Service;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MappersTest {
+
+    @Test
+    public void shared() {
+        assertSame(Mappers.json(), Mappers.forType(ResourceFileType.json));
+        assertSame(Mappers.yaml(), Mappers.forType(ResourceFileType.yaml));
+        assertSame(Mappers.json(), JSONUtil.mapper());
+        // Readers for the common types are created only once
+        assertSame(Mappers.reader(ResourceFileType.yaml, KubernetesList.class),
+                   Mappers.reader(ResourceFileType.yaml, KubernetesList.class));
+        assertNotNull(Mappers.reader(ResourceFileType.json, ConfigMap.class));
+    }
+
+    @Test
+    public void readResources() throws Exception {
+        HasMetadata service = Mappers.reader(ResourceFileType.yaml, HasMetadata.class)
+                                     .readValue("apiVersion: v1\nkind: Service\nmetadata:\n  name: test\n");
+        assertTrue(service instanceof Service);
+        assertEquals("test", service.getMetadata().getName());
+
+        KubernetesList list = Mappers.reader(ResourceFileType.json, KubernetesList.class)
+                                     .readValue("{\"apiVersion\":\"v1\",\"kind\":\"List\",\"items\":[]}");
+        assertTrue(list.getItems().isEmpty());
+    }
+
+    @Test
+    public void resourceWriter() throws Exception {
+        ConfigMap configMap = new ConfigMap();
+        configMap.setApiVersion("v1");
+        configMap.setKind("ConfigMap");
+        assertEquals("{\n  \"apiVersion\" : \"v1\",\n  \"kind\" : \"ConfigMap\"\n}",
+                     Mappers.resourceWriter(ResourceFileType.json).writeValueAsString(configMap));
+        assertEquals("---\napiVersion: v1\nkind: ConfigMap\n",
+                     Mappers.resourceWriter(ResourceFileType.yaml).writeValueAsString(configMap));
+    }
+}
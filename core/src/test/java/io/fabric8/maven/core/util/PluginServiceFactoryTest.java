@@ -16,8 +16,17 @@
 
 package io.fabric8.maven.core.util;
 
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -50,6 +59,67 @@ public class PluginServiceFactoryTest {
         }
     }
 
+    @Test
+    public void concurrentOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                results.add(executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() {
+                        PluginServiceFactory<TestContext> factory = new PluginServiceFactory<>(new TestContext());
+                        List<String> names = new ArrayList<>();
+                        for (Object service : factory.createServiceObjects("service/test-services-default", "service/test-services")) {
+                            names.add(((TestService) service).getName());
+                        }
+                        return names;
+                    }
+                }));
+            }
+            for (Future<List<String>> result : results) {
+                assertEquals(Arrays.asList("three", "two", "five", "one"), result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void servicesCreatedPerFactory() {
+        List<TestService> services =
+            pluginServiceFactory.createServiceObjects("service/test-services-default", "service/test-services");
+        List<TestService> otherServices = new PluginServiceFactory<>(new TestContext())
+            .createServiceObjects("service/test-services-default", "service/test-services");
+        assertEquals(services.size(), otherServices.size());
+        for (int i = 0; i < services.size(); i++) {
+            assertEquals(services.get(i).getClass(), otherServices.get(i).getClass());
+            assertNotSame(services.get(i), otherServices.get(i));
+        }
+
+        PluginServiceFactory.clearCache();
+        List<TestService> recreated = pluginServiceFactory.createServiceObjects("service/test-services-default", "service/test-services");
+        assertEquals(services.size(), recreated.size());
+    }
+
+    @Test
+    public void classLoadersNotRetained() throws Exception {
+        PluginServiceFactory.clearCache();
+        URLClassLoader loader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+        new PluginServiceFactory<>(new TestContext(), loader)
+            .createServiceObjects("service/test-services-default", "service/test-services");
+        assertEquals(1, PluginServiceFactory.getCacheSize());
+
+        WeakReference<URLClassLoader> ref = new WeakReference<>(loader);
+        loader = null;
+        for (int i = 0; i < 20 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertNull(ref.get());
+        assertEquals(0, PluginServiceFactory.getCacheSize());
+    }
+
     @Test
     public void errorHandling() {
         try {
@@ -68,6 +68,15 @@ public class ProfileUtilTest {
         assertNotNull(profiles.get(0));
     }
 
+    @Test
+    public void fromClasspathReturnsCopies() throws IOException {
+        Profile profile = ProfileUtil.readAllFromClasspath("one", "").get(0);
+        profile.setEnricherConfig(null);
+        Profile other = ProfileUtil.readAllFromClasspath("one", "").get(0);
+        assertNotSame(profile, other);
+        assertNotNull(other.getEnricherConfig());
+    }
+
     @Test
     public void lookup() throws IOException, URISyntaxException {
         File dir = getProfileDir();
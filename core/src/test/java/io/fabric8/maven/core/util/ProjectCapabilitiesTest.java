@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ProjectCapabilitiesTest {
+
+    private MavenProject project;
+
+    @Before
+    public void setUp() {
+        project = new MavenProject();
+        Build build = new Build();
+        build.addPlugin(createPlugin("org.apache.maven.plugins", "maven-war-plugin"));
+        build.addPlugin(createPlugin("org.springframework.boot", "spring-boot-maven-plugin"));
+        project.setBuild(build);
+        project.setArtifacts(createArtifacts(
+            createArtifact("io.vertx", "vertx-core", "3.5.0", "compile"),
+            createArtifact("io.vertx", "vertx-dropwizard-metrics", "3.5.1", "runtime"),
+            createArtifact("junit", "junit", "4.12", "test")));
+    }
+
+    @Test
+    public void plugins() {
+        ProjectCapabilities capabilities = ProjectCapabilities.getInstance(project);
+        assertTrue(capabilities.hasPlugin("org.apache.maven.plugins:maven-war-plugin"));
+        assertFalse(capabilities.hasPlugin("org.apache.maven.plugins:maven-jar-plugin"));
+        assertEquals("spring-boot-maven-plugin", capabilities.getPlugin(null, "spring-boot-maven-plugin").getArtifactId());
+        assertNotNull(capabilities.getPlugin("org.springframework.boot", "spring-boot-maven-plugin"));
+        assertNull(capabilities.getPlugin("org.example", "spring-boot-maven-plugin"));
+        assertTrue(MavenUtil.hasPluginOfAnyGroupId(project, "maven-war-plugin"));
+    }
+
+    @Test
+    public void dependencies() {
+        ProjectCapabilities capabilities = ProjectCapabilities.getInstance(project);
+        assertTrue(capabilities.hasDependencyOnAnyArtifactOfGroup("io.vertx"));
+        assertEquals("3.5.0", capabilities.getDependencyVersion("io.vertx", null));
+        assertEquals("3.5.1", capabilities.getDependencyVersion("io.vertx", "vertx-dropwizard-metrics"));
+        assertFalse(capabilities.hasDependency("io.vertx", "vertx-infinispan"));
+        // Test dependencies are ignored
+        assertFalse(capabilities.hasDependency("junit", "junit"));
+        assertFalse(MavenUtil.hasDependencyOnAnyArtifactOfGroup(project, "junit"));
+    }
+
+    @Test
+    public void snapshotIsShared() {
+        ProjectCapabilities capabilities = ProjectCapabilities.getInstance(project);
+        assertSame(capabilities, ProjectCapabilities.getInstance(project));
+    }
+
+    @Test
+    public void snapshotIsRebuiltOnChange() {
+        ProjectCapabilities capabilities = ProjectCapabilities.getInstance(project);
+        assertFalse(capabilities.hasDependency("io.thorntail", "monitor"));
+
+        project.setArtifacts(createArtifacts(createArtifact("io.thorntail", "monitor", "2.0.0", "compile")));
+        assertNotSame(capabilities, ProjectCapabilities.getInstance(project));
+        assertTrue(MavenUtil.hasDependency(project, "io.thorntail", "monitor"));
+
+        capabilities = ProjectCapabilities.getInstance(project);
+        project.getBuild().addPlugin(createPlugin("io.thorntail", "thorntail-maven-plugin"));
+        assertNotSame(capabilities, ProjectCapabilities.getInstance(project));
+        assertTrue(MavenUtil.hasPlugin(project, "io.thorntail:thorntail-maven-plugin"));
+    }
+
+    private Plugin createPlugin(String groupId, String artifactId) {
+        Plugin plugin = new Plugin();
+        plugin.setGroupId(groupId);
+        plugin.setArtifactId(artifactId);
+        return plugin;
+    }
+
+    private Artifact createArtifact(String groupId, String artifactId, String version, String scope) {
+        return new DefaultArtifact(groupId, artifactId, version, scope, "jar", "", null);
+    }
+
+    private Set<Artifact> createArtifacts(Artifact... artifacts) {
+        return new LinkedHashSet<>(Arrays.asList(artifacts));
+    }
+}
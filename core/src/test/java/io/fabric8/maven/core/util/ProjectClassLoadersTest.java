@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.Collections;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.project.MavenProject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class ProjectClassLoadersTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MavenProject project;
+    private File outputDir;
+
+    @Before
+    public void setUp() throws IOException {
+        outputDir = folder.newFolder("classes");
+        project = new MavenProject();
+        Build build = new Build();
+        build.setOutputDirectory(outputDir.getAbsolutePath());
+        build.setTestOutputDirectory(folder.newFolder("test-classes").getAbsolutePath());
+        project.setBuild(build);
+    }
+
+    @After
+    public void tearDown() {
+        ProjectClassLoaders.closeAll(Collections.singletonList(project));
+    }
+
+    @Test
+    public void sharedClassLoader() {
+        ProjectClassLoaders loaders = ProjectClassLoaders.getInstance(project);
+        assertSame(loaders, ProjectClassLoaders.getInstance(project));
+        URLClassLoader compileClassLoader = MavenUtil.getCompileClassLoader(project);
+        assertSame(compileClassLoader, MavenUtil.getCompileClassLoader(project));
+        assertNotSame(compileClassLoader, MavenUtil.getTestClassLoader(project));
+    }
+
+    @Test
+    public void memoizedLookups() throws IOException {
+        assertTrue(new File(outputDir, "application.properties").createNewFile());
+        assertTrue(MavenUtil.hasResource(project, "application.properties"));
+        assertNotNull(ProjectClassLoaders.getInstance(project).findResource("application.properties"));
+        assertFalse(MavenUtil.hasResource(project, "application.yml"));
+        assertFalse(MavenUtil.hasClass(project, "org.example.NotThere"));
+        assertTrue(MavenUtil.hasClass(project, "java.lang.String"));
+
+        // Misses are not cached, so that resources added later to the output directory are found
+        assertTrue(new File(outputDir, "application.yml").createNewFile());
+        assertTrue(MavenUtil.hasResource(project, "application.yml"));
+        assertNotNull(ProjectClassLoaders.getInstance(project).findResource("application.yml"));
+    }
+
+    @Test
+    public void closeAll() throws IOException {
+        URLClassLoader compileClassLoader = MavenUtil.getCompileClassLoader(project);
+        assertFalse(MavenUtil.hasResource(project, "application.yml"));
+
+        ProjectClassLoaders.closeAll(Collections.singletonList(project));
+
+        assertTrue(new File(outputDir, "application.yml").createNewFile());
+        assertNotSame(compileClassLoader, MavenUtil.getCompileClassLoader(project));
+        assertTrue(MavenUtil.hasResource(project, "application.yml"));
+    }
+
+    @Test
+    public void changedClasspath() {
+        URLClassLoader compileClassLoader = MavenUtil.getCompileClassLoader(project);
+        project.getBuild().setOutputDirectory(folder.getRoot().getAbsolutePath());
+        assertNotSame(compileClassLoader, MavenUtil.getCompileClassLoader(project));
+    }
+}
@@ -15,6 +15,8 @@
  */
 package io.fabric8.maven.core.util;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.jayway.jsonassert.impl.matcher.IsCollectionWithSize;
 import io.fabric8.maven.core.util.validator.ResourceValidator;
 import io.fabric8.maven.docker.util.Logger;
@@ -24,18 +26,27 @@ import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
 import javax.validation.ConstraintViolationException;
+import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ResourceValidatorTest {
 
     @Rule
     public final ExpectedException thrown = ExpectedException.none();
 
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     @Mocked
     private Logger logger;
 
@@ -122,4 +133,84 @@ public class ResourceValidatorTest {
         // Then
         Assert.assertEquals(2, resources);
     }
+
+    @Test
+    public void testValidOpenshiftResourcesDirectoryConcurrently() throws IOException, URISyntaxException {
+        // Given
+        URL fileUrl = ResourceValidatorTest.class.getResource("/validations/openshift");
+
+        // When
+        ResourceValidator resourceValidator = new ResourceValidator(Paths.get(fileUrl.toURI()).toFile(), ResourceClassifier.OPENSHIFT, logger)
+            .withThreads(4);
+        int resources = resourceValidator.validate();
+
+        // Then
+        Assert.assertEquals(2, resources);
+    }
+
+    @Test
+    public void testInvalidKubernetesResourcesDirectoryConcurrently() throws IOException, URISyntaxException {
+        // Given
+        File dir = folder.newFolder();
+        Files.copy(Paths.get(ResourceValidatorTest.class.getResource("/validations/kubernetes-deploy-invalid.yml").toURI()),
+                   new File(dir, "a-deployment.yml").toPath());
+        Files.copy(Paths.get(ResourceValidatorTest.class.getResource("/validations/kubernetes/svc.yml").toURI()),
+                   new File(dir, "b-svc.yml").toPath());
+        Files.copy(Paths.get(ResourceValidatorTest.class.getResource("/validations/kubernetes-deploy-invalid.yml").toURI()),
+                   new File(dir, "c-deployment.yml").toPath());
+
+        // When
+        ResourceValidator resourceValidator = new ResourceValidator(dir, ResourceClassifier.KUBERNETES, logger)
+            .withThreads(4);
+
+        // Then
+        try {
+            resourceValidator.validate();
+            Assert.fail("Validation errors expected");
+        } catch (ConstraintViolationException e) {
+            Assert.assertEquals(4, e.getConstraintViolations().size());
+            String message = e.getMessage();
+            Assert.assertTrue(message.startsWith("Invalid Resource : " + new File(dir, "a-deployment.yml")));
+            Assert.assertTrue(message.contains("Invalid Resource : " + new File(dir, "c-deployment.yml")));
+            Assert.assertFalse(message.contains("b-svc.yml"));
+        }
+    }
+
+    @Test
+    public void testValidKubernetesResourcesInMemory() throws IOException, URISyntaxException {
+        // Given
+        Map<File, Object> resources = new HashMap<>();
+        File dir = Paths.get(ResourceValidatorTest.class.getResource("/validations/kubernetes").toURI()).toFile();
+        for (String name : new String[] { "deployment.yml", "svc.yml" }) {
+            File file = new File(dir, name);
+            resources.put(file, KubernetesResourceUtil.loadResources(file).iterator().next());
+        }
+
+        // When
+        ResourceValidator resourceValidator = new ResourceValidator(resources, ResourceClassifier.KUBERNETES, logger);
+        int validResources = resourceValidator.validate();
+
+        // Then
+        Assert.assertEquals(2, validResources);
+    }
+
+    @Test
+    public void testInvalidKubernetesPodSpecInMemory() throws IOException, URISyntaxException {
+        // Given
+        URL fileUrl = ResourceValidatorTest.class.getResource("/validations/kubernetes-deploy-invalid.yml");
+        Object deployment = new ObjectMapper(new YAMLFactory()).readValue(fileUrl, Map.class);
+        File target = new File("deployment.yml");
+
+        // When
+        ResourceValidator resourceValidator =
+            new ResourceValidator(Collections.singletonMap(target, deployment), ResourceClassifier.KUBERNETES, logger);
+
+        // Then
+        thrown.expect(ConstraintViolationException.class);
+        thrown.expect(Matchers.hasProperty("constraintViolations", IsCollectionWithSize.hasSize(2)));
+        thrown.expectMessage("Invalid Resource : " + target);
+
+        // On
+        resourceValidator.validate();
+    }
 }
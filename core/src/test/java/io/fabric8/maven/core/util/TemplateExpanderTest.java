@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.util.Collections;
+
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.extensions.Templates;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.openshift.api.model.Template;
+import io.fabric8.openshift.api.model.TemplateBuilder;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class TemplateExpanderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void compile() {
+        TemplateExpander.CompiledTemplate compiled = TemplateExpander.compile("a${X}b${Y}${X}c${");
+        assertEquals("a1b${Y}1c${", compiled.expand(Collections.singletonMap("X", "1")));
+        assertEquals("plain", TemplateExpander.compile("plain").expand(Collections.singletonMap("X", "1")));
+    }
+
+    @Test
+    public void sameAsTemplates() throws Exception {
+        Template template = createTemplate("world", "${NAME}-suffix");
+        KubernetesList expected = Templates.processTemplatesLocally(createTemplate("world", "${NAME}-suffix"), false);
+
+        KubernetesList list = new TemplateExpander().process(template, false);
+
+        assertEquals(KubernetesHelper.toJson(expected), KubernetesHelper.toJson(list));
+        ConfigMap configMap = (ConfigMap) list.getItems().get(0);
+        assertEquals("hello world", configMap.getData().get("greeting"));
+        assertEquals("world-suffix", configMap.getData().get("other"));
+    }
+
+    @Test
+    public void missingValue() throws Exception {
+        KubernetesList list = new TemplateExpander().process(createTemplate(null, "x"), false);
+        assertEquals("hello ", ((ConfigMap) list.getItems().get(0)).getData().get("greeting"));
+        try {
+            new TemplateExpander().process(createTemplate(null, "x"), true);
+            fail("Missing value not detected");
+        } catch (IllegalArgumentException exp) {
+            assertTrue(exp.getMessage().contains("NAME"));
+        }
+    }
+
+    @Test
+    public void cached() throws Exception {
+        File cacheDir = new File(folder.getRoot(), TemplateExpander.CACHE_DIR_NAME);
+        TemplateExpander expander = new TemplateExpander(cacheDir);
+        expander.process(createTemplate("world", "x"), false);
+        File[] entries = cacheDir.listFiles();
+        assertEquals(1, entries.length);
+
+        // A cache hit uses the stored expansion
+        String cached = FileUtils.fileRead(entries[0], "UTF-8");
+        FileUtils.fileWrite(entries[0], "UTF-8", cached.replace("hello world", "cached"));
+        KubernetesList list = expander.process(createTemplate("world", "x"), false);
+        assertEquals("cached", ((ConfigMap) list.getItems().get(0)).getData().get("greeting"));
+
+        // Other parameter values are expanded again
+        list = expander.process(createTemplate("moon", "x"), false);
+        assertEquals("hello moon", ((ConfigMap) list.getItems().get(0)).getData().get("greeting"));
+        assertEquals(2, cacheDir.listFiles().length);
+    }
+
+    private Template createTemplate(String name, String other) {
+        ConfigMap configMap = new ConfigMapBuilder()
+            .withNewMetadata().withName("config").endMetadata()
+            .addToData("greeting", "hello ${NAME}")
+            .addToData("other", "${OTHER}")
+            .build();
+        return new TemplateBuilder()
+            .withNewMetadata().withName("template").endMetadata()
+            .addNewParameter().withName("NAME").withValue(name).endParameter()
+            .addNewParameter().withName("OTHER").withValue(other).endParameter()
+            .withObjects(configMap)
+            .build();
+    }
+}
@@ -20,6 +20,7 @@ import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.core.util.Configs;
 import io.fabric8.maven.core.util.PrefixedLogger;
+import io.fabric8.maven.core.util.ProjectCapabilities;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.docker.util.Logger;
 import org.apache.maven.project.MavenProject;
@@ -78,6 +79,10 @@ public abstract class BaseEnricher implements Enricher {
         return null;
     }
 
+    protected ProjectCapabilities getCapabilities() {
+        return ProjectCapabilities.getInstance(getProject());
+    }
+
     protected Logger getLog() {
         return log;
     }
@@ -22,6 +22,7 @@ import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.config.ResourceConfig;
 import io.fabric8.maven.core.util.GoalFinder;
 import io.fabric8.maven.core.util.OpenShiftDependencyResources;
+import io.fabric8.maven.core.util.ProjectCapabilities;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.docker.util.Logger;
 
@@ -91,6 +92,13 @@ public class EnricherContext {
         return openshiftDependencyResources;
     }
 
+    /**
+     * Indexed plugins, dependencies and classpath lookups of the project, shared by all enrichers
+     */
+    public ProjectCapabilities getProjectCapabilities() {
+        return ProjectCapabilities.getInstance(project);
+    }
+
     /**
      * Returns true if we are in watch mode
      */
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.enricher.api.util;
+
+/**
+ * Immutable snapshot of the Git metadata of a local repository
+ *
+ * @since 17/10/26
+ */
+public class GitInfo {
+
+    private final String branch;
+    private final String commitId;
+    private final String remoteUrl;
+
+    public GitInfo(String branch, String commitId, String remoteUrl) {
+        this.branch = branch;
+        this.commitId = commitId;
+        this.remoteUrl = remoteUrl;
+    }
+
+    /**
+     * @return the currently checked out branch or the commit id for a detached HEAD
+     */
+    public String getBranch() {
+        return branch;
+    }
+
+    /**
+     * @return id of the HEAD commit or <code>null</code> if there are no commits yet
+     */
+    public String getCommitId() {
+        return commitId;
+    }
+
+    /**
+     * @return URL of the "origin" remote or <code>null</code> if no such remote is configured
+     */
+    public String getRemoteUrl() {
+        return remoteUrl;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.enricher.api.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.project.MavenProject;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * Provides {@link GitInfo} for a project. The information is resolved only once per
+ * repository and shared across all modules of a build. It is resolved again only when
+ * <code>HEAD</code>, the ref it points to, <code>packed-refs</code> or the repository config
+ * has been modified since.
+ *
+ * @since 17/10/26
+ */
+public class GitInfoProvider {
+
+    private static final String REF_PREFIX = "ref: ";
+
+    private static final ConcurrentMap<File, CachedGitInfo> cache = new ConcurrentHashMap<>();
+
+    private GitInfoProvider() { }
+
+    /**
+     * Get the Git information for the repository the given project belongs to
+     *
+     * @param project project to lookup
+     * @return the git info or <code>null</code> if the project is not part of a Git repository
+     * @throws IOException if the repository could not be read
+     */
+    public static GitInfo getGitInfo(MavenProject project) throws IOException {
+        File gitFolder = GitUtil.findGitFolder(project);
+        return gitFolder != null ? getGitInfo(gitFolder) : null;
+    }
+
+    /**
+     * Get the Git information for a given ".git" folder
+     *
+     * @param gitFolder git folder of the repository
+     * @return the git info
+     * @throws IOException if the repository could not be read
+     */
+    public static GitInfo getGitInfo(File gitFolder) throws IOException {
+        File key = gitFolder.getCanonicalFile();
+        String stamp = createStamp(key);
+        CachedGitInfo cached = cache.get(key);
+        if (cached != null && cached.stamp.equals(stamp)) {
+            return cached.info;
+        }
+        synchronized (cache) {
+            cached = cache.get(key);
+            if (cached == null || !cached.stamp.equals(stamp)) {
+                cached = new CachedGitInfo(stamp, resolve(key));
+                cache.put(key, cached);
+            }
+            return cached.info;
+        }
+    }
+
+    /**
+     * Forget all cached information
+     */
+    public static void clear() {
+        cache.clear();
+    }
+
+    // ==========================================================================================
+
+    private static GitInfo resolve(File gitFolder) throws IOException {
+        try (Repository repository = GitUtil.openGitRepository(gitFolder)) {
+            ObjectId head = repository.resolve(Constants.HEAD);
+            return new GitInfo(repository.getBranch(),
+                               head != null ? head.getName() : null,
+                               repository.getConfig().getString("remote", "origin", "url"));
+        }
+    }
+
+    // Modification times of all files which influence the resolved information
+    private static String createStamp(File gitFolder) throws IOException {
+        File head = new File(gitFolder, Constants.HEAD);
+        StringBuilder ret = new StringBuilder()
+            .append(head.lastModified()).append(':')
+            .append(new File(gitFolder, Constants.PACKED_REFS).lastModified()).append(':')
+            .append(new File(gitFolder, "config").lastModified());
+        if (head.isFile()) {
+            String content = new String(Files.readAllBytes(head.toPath()), StandardCharsets.UTF_8).trim();
+            if (content.startsWith(REF_PREFIX)) {
+                File ref = new File(gitFolder, content.substring(REF_PREFIX.length()).trim());
+                ret.append(':').append(ref.lastModified());
+            }
+        }
+        return ret.toString();
+    }
+
+    private static class CachedGitInfo {
+        private final String stamp;
+        private final GitInfo info;
+
+        private CachedGitInfo(String stamp, GitInfo info) {
+            this.stamp = stamp;
+            this.info = info;
+        }
+    }
+}
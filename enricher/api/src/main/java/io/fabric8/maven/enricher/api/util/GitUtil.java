@@ -36,6 +36,22 @@ public class GitUtil {
 
 
     public static Repository getGitRepository(MavenProject project) throws IOException {
+        File gitFolder = findGitFolder(project);
+        if (gitFolder == null) {
+            // No git repository found
+            return null;
+        }
+        return openGitRepository(gitFolder);
+    }
+
+    /**
+     * Find the Git folder for the given project by looking upwards from the root project's
+     * base directory.
+     *
+     * @param project project to check
+     * @return the ".git" folder or <code>null</code> if the project is not part of a Git repository
+     */
+    public static File findGitFolder(MavenProject project) {
         MavenProject rootProject = MavenUtil.getRootProject(project);
         File baseDir = rootProject.getBasedir();
         if (baseDir == null) {
@@ -45,11 +61,10 @@ public class GitUtil {
             // TODO: Why is this check needed ?
             baseDir = new File(System.getProperty("basedir", "."));
         }
-        File gitFolder = GitHelpers.findGitFolder(baseDir);
-        if (gitFolder == null) {
-            // No git repository found
-            return null;
-        }
+        return GitHelpers.findGitFolder(baseDir);
+    }
+
+    static Repository openGitRepository(File gitFolder) throws IOException {
         FileRepositoryBuilder builder = new FileRepositoryBuilder();
         Repository repository = builder
             .readEnvironment()
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.enricher.api.util;
+
+import java.io.File;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class GitInfoProviderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        GitInfoProvider.clear();
+    }
+
+    @Test
+    public void resolveAndCache() throws Exception {
+        try (Git git = Git.init().setDirectory(folder.getRoot()).call()) {
+            StoredConfig config = git.getRepository().getConfig();
+            config.setString("remote", "origin", "url", "https://github.com/fabric8io/fabric8-maven-plugin.git");
+            config.save();
+            RevCommit first = git.commit().setMessage("first").call();
+            File gitFolder = git.getRepository().getDirectory();
+
+            GitInfo info = GitInfoProvider.getGitInfo(gitFolder);
+            assertEquals("master", info.getBranch());
+            assertEquals(first.getName(), info.getCommitId());
+            assertEquals("https://github.com/fabric8io/fabric8-maven-plugin.git", info.getRemoteUrl());
+
+            // Nothing changed, so the very same info is returned
+            assertSame(info, GitInfoProvider.getGitInfo(gitFolder));
+
+            RevCommit second = git.commit().setMessage("second").call();
+            // Make sure the change is visible even on file systems with a coarse timestamp resolution
+            File ref = new File(gitFolder, "refs/heads/master");
+            assertTrue(ref.setLastModified(ref.lastModified() + 2000));
+
+            GitInfo updated = GitInfoProvider.getGitInfo(gitFolder);
+            assertNotSame(info, updated);
+            assertEquals(second.getName(), updated.getCommitId());
+        }
+    }
+
+    @Test
+    public void emptyRepository() throws Exception {
+        try (Git git = Git.init().setDirectory(folder.getRoot()).call()) {
+            GitInfo info = GitInfoProvider.getGitInfo(git.getRepository().getDirectory());
+            assertNull(info.getCommitId());
+            assertNull(info.getRemoteUrl());
+        }
+    }
+}
@@ -23,15 +23,14 @@ import java.util.Map;
 import io.fabric8.kubernetes.api.Annotations;
 import io.fabric8.kubernetes.api.ServiceNames;
 import io.fabric8.maven.core.util.Configs;
-import io.fabric8.maven.enricher.api.util.GitUtil;
+import io.fabric8.maven.enricher.api.util.GitInfo;
+import io.fabric8.maven.enricher.api.util.GitInfoProvider;
 import io.fabric8.maven.core.util.MavenUtil;
 import io.fabric8.maven.enricher.api.AbstractLiveEnricher;
 import io.fabric8.maven.enricher.api.EnricherContext;
 import io.fabric8.maven.enricher.api.Kind;
 import io.fabric8.utils.*;
 import org.apache.maven.project.MavenProject;
-import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.lib.Repository;
 
 /**
  * Enricher for adding continous delivery metadata:
@@ -83,10 +82,11 @@ public class CdEnricher extends AbstractLiveEnricher {
             Map<String, String> annotations = new HashMap<>();
             MavenProject rootProject = MavenUtil.getRootProject(getProject());
             String repoName = rootProject.getArtifactId();
-            try (Repository repository = GitUtil.getGitRepository(getProject())) {
+            try {
                 // Git annotations (if git is used as SCM)
-                if (repository != null) {
-                    String gitCommitId = GitUtil.getGitCommitId(repository);
+                GitInfo gitInfo = GitInfoProvider.getGitInfo(getProject());
+                if (gitInfo != null) {
+                    String gitCommitId = gitInfo.getCommitId();
                     if (gitCommitId != null) {
                         addGitServiceUrl(annotations, repoName, gitCommitId);
                     } else {
@@ -95,7 +95,7 @@ public class CdEnricher extends AbstractLiveEnricher {
                 } else {
                     log.debug("No local Git repository found");
                 }
-            } catch (IOException | GitAPIException e) {
+            } catch (IOException e) {
                 log.error("Cannot extract Git information for adding to annotations: " + e, e);
             }
             // Jenkins annotations
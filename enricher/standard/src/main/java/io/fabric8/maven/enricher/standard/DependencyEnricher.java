@@ -16,8 +16,7 @@
 
 package io.fabric8.maven.enricher.standard;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.KubernetesList;
@@ -25,6 +24,8 @@ import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
 import io.fabric8.maven.core.util.Configs;
 import io.fabric8.maven.core.util.KindAndName;
 import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import io.fabric8.maven.core.util.Mappers;
+import io.fabric8.maven.core.util.ResourceFileType;
 import io.fabric8.maven.enricher.api.BaseEnricher;
 import io.fabric8.maven.enricher.api.EnricherContext;
 import io.fabric8.maven.enricher.api.Kind;
@@ -32,6 +33,7 @@ import io.fabric8.openshift.api.model.Template;
 import io.fabric8.utils.Function;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
 
 import java.io.File;
 import java.io.IOException;
@@ -54,6 +56,9 @@ public class DependencyEnricher extends BaseEnricher {
     private static String DEPENDENCY_KUBERNETES_TEMPLATE_YAML = "META-INF/fabric8/k8s-template.yml";
     private static String DEPENDENCY_OPENSHIFT_YAML = "META-INF/fabric8/openshift.yml";
 
+    private static final String MANIFEST_INDEX_FILE = "fabric8/dependency-manifests.properties";
+
+
     private Set<URL> kubernetesDependencyArtifacts = new HashSet<>();
     private Set<URL> kubernetesTemplateDependencyArtifacts = new HashSet<>();
     private Set<URL> openshiftDependencyArtifacts = new HashSet<>();
@@ -78,19 +83,30 @@ public class DependencyEnricher extends BaseEnricher {
     public DependencyEnricher(EnricherContext buildContext) {
         super(buildContext, "fmp-dependency");
 
-        addArtifactsWithYaml(buildContext, kubernetesDependencyArtifacts, DEPENDENCY_KUBERNETES_YAML);
-        addArtifactsWithYaml(buildContext, kubernetesTemplateDependencyArtifacts, DEPENDENCY_KUBERNETES_TEMPLATE_YAML);
-        addArtifactsWithYaml(buildContext, openshiftDependencyArtifacts, DEPENDENCY_OPENSHIFT_YAML);
+        DependencyManifestIndex manifestIndex = new DependencyManifestIndex(getManifestIndexFile(buildContext), getLog());
+        addArtifactsWithYaml(buildContext, manifestIndex, kubernetesDependencyArtifacts, DEPENDENCY_KUBERNETES_YAML);
+        addArtifactsWithYaml(buildContext, manifestIndex, kubernetesTemplateDependencyArtifacts, DEPENDENCY_KUBERNETES_TEMPLATE_YAML);
+        addArtifactsWithYaml(buildContext, manifestIndex, openshiftDependencyArtifacts, DEPENDENCY_OPENSHIFT_YAML);
+        manifestIndex.save();
+    }
 
+    private File getManifestIndexFile(EnricherContext buildContext) {
+        MavenProject project = buildContext.getProject();
+        String buildDir = project != null && project.getBuild() != null ? project.getBuild().getDirectory() : null;
+        return buildDir != null ? new File(buildDir, MANIFEST_INDEX_FILE) : null;
     }
 
-    private void addArtifactsWithYaml(EnricherContext buildContext, Set<URL> artifactSet, String dependencyYaml) {
+    private void addArtifactsWithYaml(EnricherContext buildContext, DependencyManifestIndex manifestIndex, Set<URL> artifactSet, String dependencyYaml) {
         Set<Artifact> artifacts = isIncludeTransitive() ?
                 buildContext.getProject().getArtifacts() : buildContext.getProject().getDependencyArtifacts();
 
         for (Artifact artifact : artifacts) {
             if (Artifact.SCOPE_COMPILE.equals(artifact.getScope()) && "jar".equals(artifact.getType())) {
                 File file = artifact.getFile();
+                // Only look at jars which actually contain the descriptor
+                if (!manifestIndex.getManifests(file).contains(dependencyYaml)) {
+                    continue;
+                }
                 try {
                     URL url = new URL("jar:" + file.toURI().toURL() + "!/" + dependencyYaml);
                     artifactSet.add(url);
@@ -206,16 +222,19 @@ public class DependencyEnricher extends BaseEnricher {
 
     private void processArtifactSetResources(Set<URL> artifactSet, Function<List<HasMetadata>, Void> function) {
         for (URL url : artifactSet) {
-            try {
-                InputStream is = url.openStream();
+            try (InputStream is = url.openStream()) {
                 if (is != null) {
                     log.debug("Processing Kubernetes YAML in at: %s", url);
 
-                    KubernetesList resources = new ObjectMapper(new YAMLFactory()).readValue(is, KubernetesList.class);
+                    // Parse only once, a template is converted from the same tree
+                    JsonNode tree = Mappers.yaml().readTree(is);
+                    if (tree == null || tree.isMissingNode()) {
+                        continue;
+                    }
+                    KubernetesList resources = Mappers.reader(ResourceFileType.yaml, KubernetesList.class).readValue(tree);
                     List<HasMetadata> items = notNullList(resources.getItems());
                     if (items.size() == 0 && Objects.equals("Template", resources.getKind())) {
-                        is = url.openStream();
-                        Template template = new ObjectMapper(new YAMLFactory()).readValue(is, Template.class);
+                        Template template = Mappers.reader(ResourceFileType.yaml, Template.class).readValue(tree);
                         if (template != null) {
                             items.add(template);
                         }
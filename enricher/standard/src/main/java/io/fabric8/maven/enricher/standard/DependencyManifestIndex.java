@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.enricher.standard;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import io.fabric8.maven.docker.util.Logger;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Index recording which fabric8 manifests (entries below <code>META-INF/fabric8/</code>) are contained
+ * in a dependency jar, so that only jars actually shipping manifests need to be opened.
+ *
+ * Entries are keyed by the jar's path and are only valid as long as size and modification time of the jar
+ * don't change. They are shared within the JVM and optionally persisted in an index file so that subsequent builds
+ * don't need to look into the jars at all.
+ *
+ * @since 17/10/26
+ */
+class DependencyManifestIndex {
+
+    static final String MANIFEST_DIR = "META-INF/fabric8/";
+
+    // Shared across all modules of a build
+    private static final ConcurrentMap<String, String> sharedIndex = new ConcurrentHashMap<>();
+
+    private final File indexFile;
+    private final Logger log;
+    private final Properties index = new Properties();
+    private boolean dirty;
+
+    /**
+     * Create an index
+     *
+     * @param indexFile file where to persist the index. Can be <code>null</code> in which case
+     *                  the index is kept in memory only.
+     * @param log logger
+     */
+    DependencyManifestIndex(File indexFile, Logger log) {
+        this.indexFile = indexFile;
+        this.log = log;
+        load();
+    }
+
+    /**
+     * Get all fabric8 manifests contained in a jar
+     *
+     * @param jar jar file to check
+     * @return set of the entry names for all manifests, which is empty if the jar doesn't contain any
+     */
+    Set<String> getManifests(File jar) {
+        if (jar == null || !jar.isFile()) {
+            return Collections.emptySet();
+        }
+        String key = jar.getAbsolutePath();
+        String stamp = jar.length() + ";" + jar.lastModified() + ";";
+
+        String value = index.getProperty(key);
+        if (value == null || !value.startsWith(stamp)) {
+            value = sharedIndex.get(key);
+            if (value == null || !value.startsWith(stamp)) {
+                value = stamp + StringUtils.join(scanJar(jar), ",");
+                sharedIndex.put(key, value);
+            }
+            index.setProperty(key, value);
+            dirty = true;
+        }
+        String entries = value.substring(stamp.length());
+        return entries.isEmpty() ?
+            Collections.<String>emptySet() :
+            new LinkedHashSet<>(Arrays.asList(entries.split(",")));
+    }
+
+    /**
+     * Store the index if it has changed since it has been loaded
+     */
+    void save() {
+        if (indexFile == null || !dirty) {
+            return;
+        }
+        File parent = indexFile.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            log.debug("Cannot create directory %s for dependency manifest index", parent);
+            return;
+        }
+        try (OutputStream os = new FileOutputStream(indexFile)) {
+            index.store(os, "fabric8 manifests in dependencies");
+            dirty = false;
+        } catch (IOException e) {
+            log.debug("Cannot store dependency manifest index %s: %s", indexFile, e);
+        }
+    }
+
+    // ==================================================================================
+
+    private void load() {
+        if (indexFile != null && indexFile.isFile()) {
+            try (InputStream is = new FileInputStream(indexFile)) {
+                index.load(is);
+            } catch (IOException e) {
+                log.debug("Cannot read dependency manifest index %s: %s", indexFile, e);
+                index.clear();
+            }
+        }
+    }
+
+    private List<String> scanJar(File jar) {
+        List<String> ret = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(jar)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (!entry.isDirectory() && name.startsWith(MANIFEST_DIR) && !name.contains(",")) {
+                    ret.add(name);
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Cannot read %s: %s", jar, e);
+        }
+        Collections.sort(ret);
+        return ret;
+    }
+}
@@ -17,10 +17,9 @@
 package io.fabric8.maven.enricher.standard;
 
 import io.fabric8.kubernetes.api.Annotations;
-import io.fabric8.maven.enricher.api.util.GitUtil;
+import io.fabric8.maven.enricher.api.util.GitInfo;
+import io.fabric8.maven.enricher.api.util.GitInfoProvider;
 import io.fabric8.maven.enricher.api.*;
-import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.lib.Repository;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -45,36 +44,25 @@ public class GitEnricher extends BaseEnricher {
     @Override
     public Map<String, String> getAnnotations(Kind kind) {
         Map<String, String> annotations = new HashMap<>();
-        Repository repository = null;
         try {
             if (kind.isController() || kind == Kind.SERVICE) {
                 // Git annotations (if git is used as SCM)
-                repository = GitUtil.getGitRepository(getProject());
-                if (repository != null) {
-                    String result;
-                    String branch = repository.getBranch();
+                GitInfo gitInfo = GitInfoProvider.getGitInfo(getProject());
+                if (gitInfo != null) {
+                    String branch = gitInfo.getBranch();
                     if (branch != null) {
                         annotations.put(Annotations.Builds.GIT_BRANCH, branch);
                     }
-                    String id = GitUtil.getGitCommitId(repository);
+                    String id = gitInfo.getCommitId();
                     if (id != null) {
                         annotations.put(Annotations.Builds.GIT_COMMIT, id);
                     }
                 }
             }
             return annotations;
-        } catch (IOException | GitAPIException e) {
+        } catch (IOException e) {
             log.error("Cannot extract Git information for adding to annotations: " + e, e);
             return null;
-        } finally {
-            if (repository != null) {
-                try {
-                    repository.close();
-                } catch (Exception e) {
-                    // ignore
-                }
-            }
         }
     }
 }
-
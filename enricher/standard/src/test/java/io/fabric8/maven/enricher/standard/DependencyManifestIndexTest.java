@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.enricher.standard;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import io.fabric8.maven.docker.util.Logger;
+import mockit.Mocked;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class DependencyManifestIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mocked
+    private Logger log;
+
+    @Test
+    public void manifestsInJar() throws IOException {
+        File jar = createJar("with-manifest.jar", "META-INF/fabric8/kubernetes.yml", "META-INF/fabric8/openshift.yml", "Foo.class");
+        File indexFile = new File(folder.getRoot(), "index/manifests.properties");
+
+        DependencyManifestIndex index = new DependencyManifestIndex(indexFile, log);
+        Set<String> manifests = index.getManifests(jar);
+        assertEquals(2, manifests.size());
+        assertTrue(manifests.contains("META-INF/fabric8/kubernetes.yml"));
+        assertTrue(manifests.contains("META-INF/fabric8/openshift.yml"));
+        assertTrue(index.getManifests(createJar("plain.jar", "Foo.class")).isEmpty());
+        index.save();
+        assertTrue(indexFile.exists());
+
+        // A new index picks up the stored content
+        assertEquals(manifests, new DependencyManifestIndex(indexFile, log).getManifests(jar));
+    }
+
+    @Test
+    public void changedJarIsRescanned() throws IOException {
+        File jar = createJar("lib.jar", "Foo.class");
+        DependencyManifestIndex index = new DependencyManifestIndex(null, log);
+        assertTrue(index.getManifests(jar).isEmpty());
+
+        jar = createJar("lib.jar", "Foo.class", "META-INF/fabric8/kubernetes.yml");
+        assertTrue(jar.setLastModified(jar.lastModified() + 2000));
+        assertTrue(index.getManifests(jar).contains("META-INF/fabric8/kubernetes.yml"));
+    }
+
+    @Test
+    public void missingJar() {
+        DependencyManifestIndex index = new DependencyManifestIndex(null, log);
+        assertTrue(index.getManifests(new File(folder.getRoot(), "missing.jar")).isEmpty());
+        assertTrue(index.getManifests(null).isEmpty());
+    }
+
+    private File createJar(String name, String... entries) throws IOException {
+        File jar = new File(folder.getRoot(), name);
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (String entry : entries) {
+                zos.putNextEntry(new ZipEntry(entry));
+                zos.write("test".getBytes());
+                zos.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
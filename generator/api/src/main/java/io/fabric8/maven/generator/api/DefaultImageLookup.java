@@ -17,9 +17,13 @@
 package io.fabric8.maven.generator.api;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.Map;
 import java.util.Properties;
+import java.util.WeakHashMap;
 
 /**
  * @author roland
@@ -29,19 +33,36 @@ public class DefaultImageLookup {
 
     public static final String DEFAULT_IMAGES_PROPERTIES = "META-INF/fabric8/default-images.properties";
 
+    // Properties loaded per class loader, shared by all lookups. They are never modified after loading.
+    private static final Map<ClassLoader, Properties> propertiesCache =
+        Collections.synchronizedMap(new WeakHashMap<ClassLoader, Properties>());
+
     private final Properties defaultImageProps;
 
     public DefaultImageLookup(Class realm) {
-        defaultImageProps = new Properties();
+        ClassLoader classLoader = realm.getClassLoader();
+        Properties props = propertiesCache.get(classLoader);
+        if (props == null) {
+            props = loadDefaultImageProperties(classLoader);
+            propertiesCache.put(classLoader, props);
+        }
+        defaultImageProps = props;
+    }
+
+    private static Properties loadDefaultImageProperties(ClassLoader classLoader) {
+        Properties props = new Properties();
         try {
-            Enumeration<URL> resourceUrls = realm.getClassLoader().getResources(DEFAULT_IMAGES_PROPERTIES);
+            Enumeration<URL> resourceUrls = classLoader.getResources(DEFAULT_IMAGES_PROPERTIES);
             while (resourceUrls.hasMoreElements()) {
                 URL resourceUrl = resourceUrls.nextElement();
-                defaultImageProps.load(resourceUrl.openStream());
+                try (InputStream is = resourceUrl.openStream()) {
+                    props.load(is);
+                }
             }
         } catch (IOException e) {
             throw new IllegalArgumentException("Cannot load default images properties " + DEFAULT_IMAGES_PROPERTIES + ": " + e, e);
         }
+        return props;
     }
 
     public String getImageName(String key) {
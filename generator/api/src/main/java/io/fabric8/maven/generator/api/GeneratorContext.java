@@ -21,6 +21,7 @@ import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.service.ArtifactResolverService;
 import io.fabric8.maven.core.util.GoalFinder;
+import io.fabric8.maven.core.util.ProjectCapabilities;
 import io.fabric8.maven.docker.util.Logger;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -82,6 +83,13 @@ public class GeneratorContext {
         return artifactResolver;
     }
 
+    /**
+     * Indexed plugins, dependencies and classpath lookups of the project, shared by all generators
+     */
+    public ProjectCapabilities getProjectCapabilities() {
+        return ProjectCapabilities.getInstance(project);
+    }
+
     /**
      * Returns true if we are in watch mode
      */
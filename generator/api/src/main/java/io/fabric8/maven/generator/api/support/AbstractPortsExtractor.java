@@ -1,9 +1,7 @@
 package io.fabric8.maven.generator.api.support;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-
 import io.fabric8.maven.core.util.Configs;
+import io.fabric8.maven.core.util.Mappers;
 import org.apache.maven.project.MavenProject;
 
 import java.io.File;
@@ -21,9 +19,6 @@ import io.fabric8.utils.Strings;
 
 public abstract class AbstractPortsExtractor implements PortsExtractor {
 
-    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
-    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
-
     private static final String DOT = ".";
     private static final String JSON_EXTENSION = ".json";
     private static final String YAML_EXTENSION = ".yaml";
@@ -109,9 +104,9 @@ public abstract class AbstractPortsExtractor implements PortsExtractor {
     private Map<String, String> readConfig(File f) throws IOException {
         Map<String, String> map;
         if (f.getName().endsWith(JSON_EXTENSION)) {
-            map = flatten(JSON_MAPPER.readValue(f, Map.class));
+            map = flatten(Mappers.json().readValue(f, Map.class));
         } else if (f.getName().endsWith(YAML_EXTENSION) || f.getName().endsWith(YML_EXTENSION)) {
-            map = flatten(YAML_MAPPER.readValue(f, Map.class));
+            map = flatten(Mappers.yaml().readValue(f, Map.class));
         } else if (f.getName().endsWith(PROPERTIES_EXTENSION)) {
             Properties properties = new Properties();
             properties.load(new FileInputStream(f));
@@ -25,6 +25,7 @@ import io.fabric8.maven.core.config.OpenShiftBuildStrategy;
 import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.core.util.Configs;
 import io.fabric8.maven.core.util.PrefixedLogger;
+import io.fabric8.maven.core.util.ProjectCapabilities;
 import io.fabric8.maven.docker.config.BuildImageConfiguration;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.docker.util.ImageName;
@@ -86,6 +87,10 @@ abstract public class BaseGenerator implements Generator {
         return context.getProject();
     }
 
+    protected ProjectCapabilities getCapabilities() {
+        return ProjectCapabilities.getInstance(getProject());
+    }
+
     public String getName() {
         return name;
     }
@@ -17,7 +17,6 @@
 package io.fabric8.maven.generator.javaexec;
 
 import io.fabric8.maven.core.util.Configs;
-import io.fabric8.maven.core.util.MavenUtil;
 import io.fabric8.maven.docker.config.AssemblyConfiguration;
 import io.fabric8.maven.docker.config.BuildImageConfiguration;
 import io.fabric8.maven.docker.config.ImageConfiguration;
@@ -99,7 +98,7 @@ public class JavaExecGenerator extends BaseGenerator {
             }
             // Check for the existing of plugins indicating a plain java exec app
             for (String plugin : JAVA_EXEC_MAVEN_PLUGINS) {
-                if (MavenUtil.hasPlugin(getProject(), plugin)) {
+                if (getCapabilities().hasPlugin(plugin)) {
                     return true;
                 }
             }
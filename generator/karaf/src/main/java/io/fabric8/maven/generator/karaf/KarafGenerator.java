@@ -19,7 +19,6 @@ import java.util.ArrayList;
 import java.util.List;
 
 import io.fabric8.maven.core.util.Configs;
-import io.fabric8.maven.core.util.MavenUtil;
 import io.fabric8.maven.docker.config.AssemblyConfiguration;
 import io.fabric8.maven.docker.config.BuildImageConfiguration;
 import io.fabric8.maven.docker.config.ImageConfiguration;
@@ -66,7 +65,7 @@ public class KarafGenerator extends BaseGenerator {
     @Override
     public boolean isApplicable(List<ImageConfiguration> configs) {
         return shouldAddImageConfiguration(configs) &&
-               MavenUtil.hasPlugin(getProject(), "org.apache.karaf.tooling:karaf-maven-plugin");
+               getCapabilities().hasPlugin("org.apache.karaf.tooling:karaf-maven-plugin");
     }
 
     protected List<String> extractPorts() {
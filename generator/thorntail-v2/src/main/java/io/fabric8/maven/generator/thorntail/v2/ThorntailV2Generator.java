@@ -15,7 +15,6 @@
  */
 package io.fabric8.maven.generator.thorntail.v2;
 
-import io.fabric8.maven.core.util.MavenUtil;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.generator.api.GeneratorContext;
 import io.fabric8.maven.generator.javaexec.JavaExecGenerator;
@@ -33,9 +32,9 @@ public class ThorntailV2Generator extends JavaExecGenerator {
     @Override
     public boolean isApplicable(List<ImageConfiguration> configs) {
         return shouldAddImageConfiguration(configs)
-                && MavenUtil.hasPlugin(getProject(), "io.thorntail:thorntail-maven-plugin")
+                && getCapabilities().hasPlugin("io.thorntail:thorntail-maven-plugin")
                 // if there's thorntail-kernel, it's Thorntail v4
-                && !MavenUtil.hasDependency(getProject(), "io.thorntail", "thorntail-kernel");
+                && !getCapabilities().hasDependency("io.thorntail", "thorntail-kernel");
     }
 
     @Override
@@ -16,7 +16,6 @@
 
 package io.fabric8.maven.generator.vertx;
 
-import io.fabric8.maven.core.util.MavenUtil;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.generator.api.GeneratorContext;
 import io.fabric8.maven.generator.javaexec.JavaExecGenerator;
@@ -56,8 +55,8 @@ public class VertxGenerator extends JavaExecGenerator {
   @Override
   public boolean isApplicable(List<ImageConfiguration> configs) throws MojoExecutionException {
     return shouldAddImageConfiguration(configs)
-        && (MavenUtil.hasPlugin(getProject(), VERTX_MAVEN_PLUGIN_GA)
-        || MavenUtil.hasDependencyOnAnyArtifactOfGroup(getProject(), VERTX_GROUPID));
+        && (getCapabilities().hasPlugin(VERTX_MAVEN_PLUGIN_GA)
+        || getCapabilities().hasDependencyOnAnyArtifactOfGroup(VERTX_GROUPID));
   }
 
   @Override
@@ -69,13 +68,13 @@ public class VertxGenerator extends JavaExecGenerator {
       opts.add("-Dvertx.disableDnsResolver=true");
     }
     
-    if (MavenUtil.hasDependency(getProject(), VERTX_GROUPID, VERTX_DROPWIZARD)) {
+    if (getCapabilities().hasDependency(VERTX_GROUPID, VERTX_DROPWIZARD)) {
       opts.add("-Dvertx.metrics.options.enabled=true");
       opts.add("-Dvertx.metrics.options.jmxEnabled=true");
       opts.add("-Dvertx.metrics.options.jmxDomain=vertx");
     }
 
-    if (! contains("-Djava.net.preferIPv4Stack", opts)  && MavenUtil.hasDependency(getProject(), VERTX_GROUPID, VERTX_INFINIPAN)) {
+    if (! contains("-Djava.net.preferIPv4Stack", opts)  && getCapabilities().hasDependency(VERTX_GROUPID, VERTX_INFINIPAN)) {
       opts.add("-Djava.net.preferIPv4Stack=true");
     }
 
@@ -91,7 +90,7 @@ public class VertxGenerator extends JavaExecGenerator {
       args = "";
     }
 
-    if (MavenUtil.hasResource(getProject(), CLUSTER_MANAGER_SPI)) {
+    if (getCapabilities().hasResource(CLUSTER_MANAGER_SPI)) {
       if (! args.isEmpty()) {
         args += " ";
       }
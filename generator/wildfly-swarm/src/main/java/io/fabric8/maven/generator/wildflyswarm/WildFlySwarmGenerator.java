@@ -15,7 +15,6 @@
  */
 package io.fabric8.maven.generator.wildflyswarm;
 
-import io.fabric8.maven.core.util.MavenUtil;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.generator.api.GeneratorContext;
 import io.fabric8.maven.generator.javaexec.JavaExecGenerator;
@@ -36,7 +35,7 @@ public class WildFlySwarmGenerator extends JavaExecGenerator {
 
     @Override
     public boolean isApplicable(List<ImageConfiguration> configs) {
-        return shouldAddImageConfiguration(configs) && MavenUtil.hasPlugin(getProject(), "org.wildfly.swarm:wildfly-swarm-plugin");
+        return shouldAddImageConfiguration(configs) && getCapabilities().hasPlugin("org.wildfly.swarm:wildfly-swarm-plugin");
     }
 
     @Override
@@ -51,9 +51,15 @@ public class EnricherManager {
 
     private Logger log;
 
-    // List of visitors used to enrich with labels
-    private final MetadataVisitor<?>[] metaDataVisitors;
-    private final SelectorVisitor<?>[] selectorVisitorCreators;
+    // Resource configuration used by the visitors for adding labels and annotations
+    private final ResourceConfig resourceConfig;
+
+    // Enrichers filtered and ordered per processor config (keyed by identity)
+    private final Map<ProcessorConfig, List<Enricher>> filteredEnricherCache = new IdentityHashMap<>();
+
+    // Labels, annotations and selectors extracted per processor config (keyed by identity) and kind.
+    // Only valid during a single enrich pass
+    private final Map<ProcessorConfig, Map<Extractor, Map<Kind, Map<String, String>>>> extractionCache = new IdentityHashMap<>();
 
     public EnricherManager(ResourceConfig resourceConfig, EnricherContext enricherContext) {
         PluginServiceFactory<EnricherContext> pluginFactory = new PluginServiceFactory<>(enricherContext);
@@ -78,28 +84,9 @@ public class EnricherManager {
             annotationConfig = null;
         }
 
-        logEnrichers(filterEnrichers(defaultEnricherConfig, enrichers));
-
-        metaDataVisitors = new MetadataVisitor[] {
-            new MetadataVisitor.DeploymentBuilderVisitor(resourceConfig, this),
-            new MetadataVisitor.ReplicaSet(resourceConfig, this),
-            new MetadataVisitor.ReplicationControllerBuilderVisitor(resourceConfig, this),
-            new MetadataVisitor.ServiceBuilderVisitor(resourceConfig, this),
-            new MetadataVisitor.PodTemplateSpecBuilderVisitor(resourceConfig, this),
-            new MetadataVisitor.DaemonSetBuilderVisitor(resourceConfig, this),
-            new MetadataVisitor.StatefulSetBuilderVisitor(resourceConfig, this),
-            new MetadataVisitor.JobBuilderVisitor(resourceConfig, this),
-        };
+        logEnrichers(getFilteredEnrichers(defaultEnricherConfig));
 
-        selectorVisitorCreators = new SelectorVisitor[] {
-            new SelectorVisitor.DeploymentSpecBuilderVisitor(this),
-            new SelectorVisitor.ReplicaSetSpecBuilderVisitor(this),
-            new SelectorVisitor.ReplicationControllerSpecBuilderVisitor(this),
-            new SelectorVisitor.ServiceSpecBuilderVisitor(this),
-            new SelectorVisitor.DaemonSetSpecBuilderVisitor(this),
-            new SelectorVisitor.StatefulSetSpecBuilderVisitor(this),
-            new SelectorVisitor.JobSpecBuilderVisitor(this)
-        };
+        this.resourceConfig = resourceConfig;
     }
 
     public void createDefaultResources(final KubernetesListBuilder builder) {
@@ -122,16 +109,31 @@ public class EnricherManager {
     }
 
     public void enrich(ProcessorConfig config, KubernetesListBuilder builder) {
-        // Enrich labels
-        enrichLabels(config, builder);
+        // Extracted metadata is only cached within a single enrich pass
+        extractionCache.clear();
+        try {
+            // Enrich labels
+            enrichLabels(config, builder);
 
-        // Add missing selectors
-        addMissingSelectors(config, builder);
+            // Add missing selectors
+            addMissingSelectors(config, builder);
+        } finally {
+            extractionCache.clear();
+        }
 
         // Final customization step
         adapt(config, builder);
     }
 
+    /**
+     * Invalidate all cached enricher lists and extracted metadata. Should be called when
+     * switching to another set of resources enriched with different configuration (e.g. a profile)
+     */
+    public void clearCaches() {
+        filteredEnricherCache.clear();
+        extractionCache.clear();
+    }
+
 
     // ==================================================================================================
 
@@ -149,7 +151,20 @@ public class EnricherManager {
      * @param builder the build to enrich with labels
      */
     private void enrichLabels(ProcessorConfig config, KubernetesListBuilder builder) {
-        visit(config, builder, metaDataVisitors);
+        // Visitors are created per pass as they are bound to the processor config
+        MetadataVisitor<?>[] visitors = new MetadataVisitor[] {
+            new MetadataVisitor.DeploymentBuilderVisitor(resourceConfig, config, this),
+            new MetadataVisitor.ReplicaSet(resourceConfig, config, this),
+            new MetadataVisitor.ReplicationControllerBuilderVisitor(resourceConfig, config, this),
+            new MetadataVisitor.ServiceBuilderVisitor(resourceConfig, config, this),
+            new MetadataVisitor.PodTemplateSpecBuilderVisitor(resourceConfig, config, this),
+            new MetadataVisitor.DaemonSetBuilderVisitor(resourceConfig, config, this),
+            new MetadataVisitor.StatefulSetBuilderVisitor(resourceConfig, config, this),
+            new MetadataVisitor.JobBuilderVisitor(resourceConfig, config, this),
+        };
+        for (MetadataVisitor<?> visitor : visitors) {
+            builder.accept(visitor);
+        }
     }
 
     /**
@@ -159,13 +174,17 @@ public class EnricherManager {
      * @param builder builder to add selectors to.
      */
     private void addMissingSelectors(ProcessorConfig config, KubernetesListBuilder builder) {
-        SelectorVisitor.setProcessorConfig(config);
-        try {
-            for (SelectorVisitor<?> visitor : selectorVisitorCreators) {
-                builder.accept(visitor);
-            }
-        } finally {
-            SelectorVisitor.clearProcessorConfig();
+        SelectorVisitor<?>[] visitors = new SelectorVisitor[] {
+            new SelectorVisitor.DeploymentSpecBuilderVisitor(config, this),
+            new SelectorVisitor.ReplicaSetSpecBuilderVisitor(config, this),
+            new SelectorVisitor.ReplicationControllerSpecBuilderVisitor(config, this),
+            new SelectorVisitor.ServiceSpecBuilderVisitor(config, this),
+            new SelectorVisitor.DaemonSetSpecBuilderVisitor(config, this),
+            new SelectorVisitor.StatefulSetSpecBuilderVisitor(config, this),
+            new SelectorVisitor.JobSpecBuilderVisitor(config, this)
+        };
+        for (SelectorVisitor<?> visitor : visitors) {
+            builder.accept(visitor);
         }
     }
 
@@ -209,16 +228,40 @@ public class EnricherManager {
         return config.prepareProcessors(enrichers, "enricher");
     }
 
+    private List<Enricher> getFilteredEnrichers(ProcessorConfig config) {
+        List<Enricher> ret = filteredEnricherCache.get(config);
+        if (ret == null) {
+            ret = filterEnrichers(config, enrichers);
+            filteredEnricherCache.put(config, ret);
+        }
+        return ret;
+    }
+
     private void loop(ProcessorConfig config, Function<Enricher, Void> function) {
-        for (Enricher enricher : filterEnrichers(config,enrichers)) {
+        for (Enricher enricher : getFilteredEnrichers(config)) {
             function.apply(enricher);
         }
     }
 
     private Map<String, String> extract(ProcessorConfig config, Extractor extractor, Kind kind) {
-        Map <String, String> ret = new HashMap<>();
-        for (Enricher enricher : filterEnrichers(config, enrichers)) {
-            putAllIfNotNull(ret, extractor.extract(enricher, kind));
+        Map<Extractor, Map<Kind, Map<String, String>>> configCache = extractionCache.get(config);
+        if (configCache == null) {
+            configCache = new EnumMap<>(Extractor.class);
+            extractionCache.put(config, configCache);
+        }
+        Map<Kind, Map<String, String>> kindCache = configCache.get(extractor);
+        if (kindCache == null) {
+            kindCache = new EnumMap<>(Kind.class);
+            configCache.put(extractor, kindCache);
+        }
+        Map<String, String> ret = kindCache.get(kind);
+        if (ret == null) {
+            ret = new HashMap<>();
+            for (Enricher enricher : getFilteredEnrichers(config)) {
+                putAllIfNotNull(ret, extractor.extract(enricher, kind));
+            }
+            ret = Collections.unmodifiableMap(ret);
+            kindCache.put(kind, ret);
         }
         return ret;
     }
@@ -251,15 +294,4 @@ public class EnricherManager {
             ret.putAll(toPut);
         }
     }
-
-    private void visit(ProcessorConfig config, KubernetesListBuilder builder, MetadataVisitor<?>[] visitors) {
-        MetadataVisitor.setProcessorConfig(config);
-        try {
-            for (MetadataVisitor<?> visitor : visitors) {
-                builder.accept(visitor);
-            }
-        } finally {
-            MetadataVisitor.clearProcessorConfig();
-        }
-    }
 }
@@ -38,12 +38,14 @@ public abstract class MetadataVisitor<T> extends TypedVisitor<T> {
 
     private final EnricherManager enricherManager;
 
-    private static ThreadLocal<ProcessorConfig> configHolder = new ThreadLocal<>();
+    // Processor config used for extracting labels and annotations
+    private final ProcessorConfig config;
     private final Map<String, String> labelsFromConfig;
     private final Map<String, String> annotationFromConfig;
 
-    private MetadataVisitor(ResourceConfig resourceConfig, EnricherManager enricherManager) {
+    private MetadataVisitor(ResourceConfig resourceConfig, ProcessorConfig config, EnricherManager enricherManager) {
         this.enricherManager = enricherManager;
+        this.config = config;
         if (resourceConfig != null) {
             labelsFromConfig = getMapFromConfiguration(resourceConfig.getLabels(), getKind());
             annotationFromConfig = getMapFromConfiguration(resourceConfig.getAnnotations(), getKind());
@@ -53,24 +55,7 @@ public abstract class MetadataVisitor<T> extends TypedVisitor<T> {
         }
     }
 
-    static void setProcessorConfig(ProcessorConfig config) {
-        configHolder.set(config);
-    }
-
-    static void clearProcessorConfig() {
-        configHolder.set(null);
-    }
-
-    private ProcessorConfig getProcessorConfig() {
-        ProcessorConfig config = configHolder.get();
-        if (config == null) {
-            throw new IllegalArgumentException("No ProcessorConfig set");
-        }
-        return config;
-    }
-
     public void visit(T item) {
-        ProcessorConfig config = getProcessorConfig();
         ObjectMeta metadata = getOrCreateMetadata(item);
         updateLabels(metadata);
         updateAnnotations(metadata);
@@ -78,12 +63,12 @@ public abstract class MetadataVisitor<T> extends TypedVisitor<T> {
 
     private void updateLabels(ObjectMeta metadata) {
         overlayMap(metadata.getLabels(),labelsFromConfig);
-        overlayMap(metadata.getLabels(),enricherManager.extractLabels(getProcessorConfig(), getKind()));
+        overlayMap(metadata.getLabels(),enricherManager.extractLabels(config, getKind()));
     }
 
     private void updateAnnotations(ObjectMeta metadata) {
         overlayMap(metadata.getAnnotations(),annotationFromConfig);
-        overlayMap(metadata.getAnnotations(), enricherManager.extractAnnotations(getProcessorConfig(), getKind()));
+        overlayMap(metadata.getAnnotations(), enricherManager.extractAnnotations(config, getKind()));
     }
 
     private Map<String, String> getMapFromConfiguration(MetaDataConfig config, Kind kind) {
@@ -141,8 +126,8 @@ public abstract class MetadataVisitor<T> extends TypedVisitor<T> {
 
     public static class PodTemplateSpecBuilderVisitor extends MetadataVisitor<PodTemplateSpecBuilder> {
 
-        PodTemplateSpecBuilderVisitor(ResourceConfig resourceConfig, EnricherManager enricher) {
-            super(resourceConfig, enricher);
+        PodTemplateSpecBuilderVisitor(ResourceConfig resourceConfig, ProcessorConfig config, EnricherManager enricher) {
+            super(resourceConfig, config, enricher);
         }
 
         @Override
@@ -158,8 +143,8 @@ public abstract class MetadataVisitor<T> extends TypedVisitor<T> {
 
     public static class ServiceBuilderVisitor extends MetadataVisitor<ServiceBuilder> {
 
-        ServiceBuilderVisitor(ResourceConfig resourceConfig, EnricherManager enricher) {
-            super(resourceConfig, enricher);
+        ServiceBuilderVisitor(ResourceConfig resourceConfig, ProcessorConfig config, EnricherManager enricher) {
+            super(resourceConfig, config, enricher);
         }
 
         @Override
@@ -174,8 +159,8 @@ public abstract class MetadataVisitor<T> extends TypedVisitor<T> {
     }
 
     public static class ReplicaSet extends MetadataVisitor<ReplicaSetBuilder> {
-        ReplicaSet(ResourceConfig resourceConfig, EnricherManager enricher) {
-            super(resourceConfig, enricher);
+        ReplicaSet(ResourceConfig resourceConfig, ProcessorConfig config, EnricherManager enricher) {
+            super(resourceConfig, config, enricher);
         }
 
         @Override
@@ -190,8 +175,8 @@ public abstract class MetadataVisitor<T> extends TypedVisitor<T> {
     }
 
     public static class ReplicationControllerBuilderVisitor extends MetadataVisitor<ReplicationControllerBuilder> {
-        ReplicationControllerBuilderVisitor(ResourceConfig resourceConfig, EnricherManager enricher) {
-            super(resourceConfig, enricher);
+        ReplicationControllerBuilderVisitor(ResourceConfig resourceConfig, ProcessorConfig config, EnricherManager enricher) {
+            super(resourceConfig, config, enricher);
         }
 
         @Override
@@ -206,8 +191,8 @@ public abstract class MetadataVisitor<T> extends TypedVisitor<T> {
     }
 
     public static class DeploymentBuilderVisitor extends MetadataVisitor<DeploymentBuilder> {
-        DeploymentBuilderVisitor(ResourceConfig resourceConfig, EnricherManager enricher) {
-            super(resourceConfig, enricher);
+        DeploymentBuilderVisitor(ResourceConfig resourceConfig, ProcessorConfig config, EnricherManager enricher) {
+            super(resourceConfig, config, enricher);
         }
 
         @Override
@@ -222,8 +207,8 @@ public abstract class MetadataVisitor<T> extends TypedVisitor<T> {
     }
 
     public static class DaemonSetBuilderVisitor extends MetadataVisitor<DaemonSetBuilder> {
-        DaemonSetBuilderVisitor(ResourceConfig resourceConfig, EnricherManager enricher) {
-            super(resourceConfig, enricher);
+        DaemonSetBuilderVisitor(ResourceConfig resourceConfig, ProcessorConfig config, EnricherManager enricher) {
+            super(resourceConfig, config, enricher);
         }
 
         @Override
@@ -238,8 +223,8 @@ public abstract class MetadataVisitor<T> extends TypedVisitor<T> {
     }
 
     public static class StatefulSetBuilderVisitor extends MetadataVisitor<StatefulSetBuilder> {
-        StatefulSetBuilderVisitor(ResourceConfig resourceConfig, EnricherManager enricher) {
-            super(resourceConfig, enricher);
+        StatefulSetBuilderVisitor(ResourceConfig resourceConfig, ProcessorConfig config, EnricherManager enricher) {
+            super(resourceConfig, config, enricher);
         }
 
         @Override
@@ -254,8 +239,8 @@ public abstract class MetadataVisitor<T> extends TypedVisitor<T> {
     }
 
     public static class JobBuilderVisitor extends MetadataVisitor<JobBuilder> {
-        JobBuilderVisitor(ResourceConfig resourceConfig, EnricherManager enricher) {
-            super(resourceConfig, enricher);
+        JobBuilderVisitor(ResourceConfig resourceConfig, ProcessorConfig config, EnricherManager enricher) {
+            super(resourceConfig, config, enricher);
         }
 
         @Override
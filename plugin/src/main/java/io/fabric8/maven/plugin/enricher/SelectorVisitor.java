@@ -32,34 +32,24 @@ public abstract class SelectorVisitor<T> extends TypedVisitor<T> {
 
     final EnricherManager enricherManager;
 
-    SelectorVisitor(EnricherManager enricherManager) {
-        this.enricherManager = enricherManager;
-    }
+    // Processor config used for extracting the selectors
+    private final ProcessorConfig config;
 
-    private static ThreadLocal<ProcessorConfig> configHolder = new ThreadLocal<>();
-
-    static void setProcessorConfig(ProcessorConfig config) {
-        configHolder.set(config);
-    }
-
-    static void clearProcessorConfig() {
-        configHolder.set(null);
+    SelectorVisitor(ProcessorConfig config, EnricherManager enricherManager) {
+        this.config = config;
+        this.enricherManager = enricherManager;
     }
 
-    protected static ProcessorConfig getConfig() {
-        ProcessorConfig ret = configHolder.get();
-        if (ret == null) {
-            throw new IllegalArgumentException("Internal: No ProcessorConfig set");
-        }
-        return ret;
+    protected ProcessorConfig getConfig() {
+        return config;
     }
 
     // ========================================================================
 
     static class ServiceSpecBuilderVisitor extends SelectorVisitor<ServiceSpecBuilder> {
 
-        ServiceSpecBuilderVisitor(EnricherManager enricherManager) {
-            super(enricherManager);
+        ServiceSpecBuilderVisitor(ProcessorConfig config, EnricherManager enricherManager) {
+            super(config, enricherManager);
         }
 
         @Override
@@ -69,8 +59,8 @@ public abstract class SelectorVisitor<T> extends TypedVisitor<T> {
     }
 
     static class ReplicationControllerSpecBuilderVisitor extends SelectorVisitor<ReplicationControllerSpecBuilder> {
-        ReplicationControllerSpecBuilderVisitor(EnricherManager enricherManager) {
-            super(enricherManager);
+        ReplicationControllerSpecBuilderVisitor(ProcessorConfig config, EnricherManager enricherManager) {
+            super(config, enricherManager);
         }
 
         @Override
@@ -83,8 +73,8 @@ public abstract class SelectorVisitor<T> extends TypedVisitor<T> {
 
     static class DeploymentSpecBuilderVisitor extends SelectorVisitor<DeploymentSpecBuilder> {
 
-        DeploymentSpecBuilderVisitor(EnricherManager enricherManager) {
-            super(enricherManager);
+        DeploymentSpecBuilderVisitor(ProcessorConfig config, EnricherManager enricherManager) {
+            super(config, enricherManager);
         }
 
         @Override
@@ -101,8 +91,8 @@ public abstract class SelectorVisitor<T> extends TypedVisitor<T> {
 
     static class StatefulSetSpecBuilderVisitor extends SelectorVisitor<StatefulSetSpecBuilder> {
 
-        StatefulSetSpecBuilderVisitor(EnricherManager enricherManager) {
-            super(enricherManager);
+        StatefulSetSpecBuilderVisitor(ProcessorConfig config, EnricherManager enricherManager) {
+            super(config, enricherManager);
         }
 
         @Override
@@ -119,8 +109,8 @@ public abstract class SelectorVisitor<T> extends TypedVisitor<T> {
 
     static class DaemonSetSpecBuilderVisitor extends SelectorVisitor<DaemonSetSpecBuilder> {
 
-        DaemonSetSpecBuilderVisitor(EnricherManager enricherManager) {
-            super(enricherManager);
+        DaemonSetSpecBuilderVisitor(ProcessorConfig config, EnricherManager enricherManager) {
+            super(config, enricherManager);
         }
 
         @Override
@@ -136,8 +126,8 @@ public abstract class SelectorVisitor<T> extends TypedVisitor<T> {
     }
 
     static class JobSpecBuilderVisitor extends SelectorVisitor<JobSpecBuilder> {
-        JobSpecBuilderVisitor(EnricherManager enricherManager) {
-            super(enricherManager);
+        JobSpecBuilderVisitor(ProcessorConfig config, EnricherManager enricherManager) {
+            super(config, enricherManager);
         }
 
         @Override
@@ -152,8 +142,8 @@ public abstract class SelectorVisitor<T> extends TypedVisitor<T> {
 
     static class ReplicaSetSpecBuilderVisitor extends SelectorVisitor<ReplicaSetSpecBuilder> {
 
-        ReplicaSetSpecBuilderVisitor(EnricherManager enricherManager) {
-            super(enricherManager);
+        ReplicaSetSpecBuilderVisitor(ProcessorConfig config, EnricherManager enricherManager) {
+            super(config, enricherManager);
         }
 
         @Override
@@ -18,12 +18,17 @@ package io.fabric8.maven.plugin.mojo.build;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.KubernetesList;
 import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import io.fabric8.maven.core.util.ManifestWriter;
 import io.fabric8.maven.core.util.ResourceClassifier;
 import io.fabric8.maven.core.util.ResourceFileType;
 import io.fabric8.maven.docker.util.Logger;
@@ -77,23 +82,53 @@ public abstract class AbstractResourceMojo extends AbstractFabric8Mojo {
         // write kubernetes.yml / openshift.yml
         File resourceFileBase = new File(this.targetDir, classifier.getValue());
 
-        File file = writeResourcesIndividualAndComposite(resources, resourceFileBase, this.resourceFileType, log, generateRoute);
+        // TODO: Remove the JSON composite when devops and other apps used by gofabric8 are migrated
+        // to fmp-v3. See also https://github.com/fabric8io/fabric8-maven-plugin/issues/167
+        // lets generate JSON too to aid migration from version 2.x to 3.x for packaging templates
+        boolean withJson = this.resourceFileType.equals(yaml);
+        File file = writeResourcesIndividualAndComposite(resources, resourceFileBase, this.resourceFileType, log, generateRoute, withJson);
 
         // Attach it to the Maven reactor so that it will also get deployed
         projectHelper.attachArtifact(project, this.resourceFileType.getArtifactType(), classifier.getValue(), file);
+        if (withJson) {
+            projectHelper.attachArtifact(project, json.getArtifactType(), classifier.getValue(), json.addExtension(resourceFileBase));
+        }
+    }
 
-        // TODO: Remove the following block when devops and other apps used by gofabric8 are migrated
-        // to fmp-v3. See also https://github.com/fabric8io/fabric8-maven-plugin/issues/167
+    /**
+     * Attach the resource descriptors of the given classifier written by a previous run to the project.
+     *
+     * @param classifier classifier of the descriptors
+     * @return true if a descriptor has been found and attached
+     */
+    protected boolean attachExistingResources(ResourceClassifier classifier) {
+        File resourceFileBase = new File(this.targetDir, classifier.getValue());
+        File file = this.resourceFileType.addExtension(resourceFileBase);
+        if (!file.exists()) {
+            return false;
+        }
+        projectHelper.attachArtifact(project, this.resourceFileType.getArtifactType(), classifier.getValue(), file);
         if (this.resourceFileType.equals(yaml)) {
-            // lets generate JSON too to aid migration from version 2.x to 3.x for packaging templates
-            file = writeResource(resourceFileBase, resources, json);
-
-            // Attach it to the Maven reactor so that it will also get deployed
-            projectHelper.attachArtifact(project, json.getArtifactType(), classifier.getValue(), file);
+            File jsonFile = json.addExtension(resourceFileBase);
+            if (jsonFile.exists()) {
+                projectHelper.attachArtifact(project, json.getArtifactType(), classifier.getValue(), jsonFile);
+            }
         }
+        return true;
+    }
+
+    /**
+     * Check whether the composite resource descriptor of the given classifier has been written already
+     */
+    protected boolean hasResourceFile(ResourceClassifier classifier) {
+        return this.resourceFileType.addExtension(new File(this.targetDir, classifier.getValue())).exists();
     }
 
     public static File writeResourcesIndividualAndComposite(KubernetesList resources, File resourceFileBase, ResourceFileType resourceFileType, Logger log, Boolean generateRoute) throws MojoExecutionException {
+        return writeResourcesIndividualAndComposite(resources, resourceFileBase, resourceFileType, log, generateRoute, false);
+    }
+
+    private static File writeResourcesIndividualAndComposite(KubernetesList resources, File resourceFileBase, ResourceFileType resourceFileType, Logger log, Boolean generateRoute, boolean withJson) throws MojoExecutionException {
 
         //Creating a new items list. This will be used to generate openshift.yml
         List<HasMetadata> newItemList = new ArrayList<>();
@@ -113,44 +148,76 @@ public abstract class AbstractResourceMojo extends AbstractFabric8Mojo {
 
         }
 
-        // entity is object which will be sent to writeResource for openshift.yml
-        // if generateRoute is false, this will be set to resources with new list
-        // otherwise it will be set to resources with old list.
-        Object entity = resources;
-
-        // if the list contains a single Template lets unwrap it
-        // in resources already new or old as per condition is set.
-        // no need to worry about this for dropping Route.
+        // The list is written to openshift.yml / kubernetes.yml. If generateRoute is false, the list without
+        // routes is used. If the list contains a single Template lets unwrap it.
+        File file = resourceFileType.addExtension(resourceFileBase);
+        Map<ResourceFileType, File> listFiles = new EnumMap<>(ResourceFileType.class);
         Template template = getSingletonTemplate(resources);
         if (template != null) {
-            entity = template;
+            writeResource(resourceFileBase, template, resourceFileType);
+        } else {
+            listFiles.put(resourceFileType, file);
+        }
+        if (withJson) {
+            listFiles.put(json, json.addExtension(resourceFileBase));
         }
 
-        File file = writeResource(resourceFileBase, entity, resourceFileType);
-
-        // write separate files, one for each resource item
-        // resources passed to writeIndividualResources is also new one.
-        writeIndividualResources(resources, resourceFileBase, resourceFileType, log, generateRoute);
+        // The composite files and the separate files, one for each resource item, are written in one go
+        Map<HasMetadata, File> itemFiles = getIndividualResourceFiles(resources, resourceFileBase, resourceFileType, log, generateRoute);
+        try {
+            ManifestWriter.write(resources, listFiles, itemFiles, resourceFileType);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to write resource to " + resourceFileBase + ". " + e, e);
+        }
         return file;
     }
 
-    private static void writeIndividualResources(KubernetesList resources, File targetDir, ResourceFileType resourceFileType, Logger log, Boolean generateRoute) throws MojoExecutionException {
+    private static Map<HasMetadata, File> getIndividualResourceFiles(KubernetesList resources, File targetDir, ResourceFileType resourceFileType, Logger log, Boolean generateRoute) {
+        Map<HasMetadata, File> ret = new IdentityHashMap<>();
         for (HasMetadata item : resources.getItems()) {
-            String name = KubernetesHelper.getName(item);
-            if (Strings.isNullOrBlank(name)) {
+            File itemTarget = getIndividualResourceFile(targetDir, item);
+            if (itemTarget == null) {
                 log.error("No name for generated item %s", item);
                 continue;
             }
-            String itemFile = KubernetesResourceUtil.getNameWithSuffix(name, item.getKind());
 
             // Here we are writing individual file for all the resources.
             // if generateRoute is false and resource is route, we should not generate it.
-            
             if (!(item.getKind().equalsIgnoreCase("Route") && !generateRoute)){
-                File itemTarget = new File(targetDir, itemFile);
-                writeResource(itemTarget, item, resourceFileType);
+                ret.put(item, resourceFileType.addExtension(itemTarget));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Get the resource items which would be written as individual files by {@link #writeResources(KubernetesList, ResourceClassifier, Boolean)},
+     * keyed by the file they would be written to.
+     *
+     * @param resources resources to write
+     * @param classifier classifier used for the target directory
+     * @param generateRoute whether routes are written
+     * @return map with the target files (including the extension) as keys and the items as values
+     */
+    protected Map<File, HasMetadata> getIndividualResources(KubernetesList resources, ResourceClassifier classifier, Boolean generateRoute) {
+        File resourceFileBase = new File(this.targetDir, classifier.getValue());
+        Map<File, HasMetadata> ret = new LinkedHashMap<>();
+        for (HasMetadata item : resources.getItems()) {
+            File itemTarget = getIndividualResourceFile(resourceFileBase, item);
+            if (itemTarget != null && !(item.getKind().equalsIgnoreCase("Route") && !generateRoute)) {
+                ret.put(this.resourceFileType.addExtension(itemTarget), item);
             }
         }
+        return ret;
+    }
+
+    // File (without extension) to which an individual item is written or null if the item has no name
+    private static File getIndividualResourceFile(File targetDir, HasMetadata item) {
+        String name = KubernetesHelper.getName(item);
+        if (Strings.isNullOrBlank(name)) {
+            return null;
+        }
+        return new File(targetDir, KubernetesResourceUtil.getNameWithSuffix(name, item.getKind()));
     }
 
     private static File writeResource(File resourceFileBase, Object entity, ResourceFileType resourceFileType) throws MojoExecutionException {
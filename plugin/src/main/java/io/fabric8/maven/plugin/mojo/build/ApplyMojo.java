@@ -17,22 +17,20 @@ package io.fabric8.maven.plugin.mojo.build;
 
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
 
-import io.fabric8.kubernetes.api.Annotations;
 import io.fabric8.kubernetes.api.Controller;
 import io.fabric8.kubernetes.api.KubernetesHelper;
-import io.fabric8.kubernetes.api.model.DoneableService;
 import io.fabric8.kubernetes.api.model.HasMetadata;
-import io.fabric8.kubernetes.api.model.Pod;
-import io.fabric8.kubernetes.api.model.ReplicationController;
 import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.api.model.ServicePort;
 import io.fabric8.kubernetes.api.model.ServiceSpec;
@@ -47,10 +45,14 @@ import io.fabric8.kubernetes.api.model.extensions.IngressRule;
 import io.fabric8.kubernetes.api.model.extensions.IngressSpec;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
-import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.maven.core.access.ClientRegistry;
 import io.fabric8.maven.core.access.ClusterAccess;
+import io.fabric8.maven.core.service.ApplyService;
 import io.fabric8.maven.core.service.Fabric8ServiceHub;
+import io.fabric8.maven.core.service.RolloutService;
+import io.fabric8.maven.core.service.ServiceUrlService;
 import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import io.fabric8.maven.core.util.TemplateExpander;
 import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.plugin.mojo.AbstractFabric8Mojo;
 import io.fabric8.openshift.api.model.Route;
@@ -75,9 +77,7 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 
 import static io.fabric8.kubernetes.api.KubernetesHelper.createIntOrString;
-import static io.fabric8.kubernetes.api.KubernetesHelper.getLabels;
 import static io.fabric8.kubernetes.api.KubernetesHelper.getName;
-import static io.fabric8.kubernetes.api.KubernetesHelper.getOrCreateAnnotations;
 
 /**
  * Base class for goals which deploy the generated artifacts into the Kubernetes cluster
@@ -206,6 +206,31 @@ public class ApplyMojo extends AbstractFabric8Mojo {
     @Parameter(property = "fabric8.s2i.buildNameSuffix", defaultValue = "-s2i")
     protected String s2iBuildNameSuffix;
 
+    /**
+     * Number of threads used for applying independent resources concurrently
+     */
+    @Parameter(property = "fabric8.deploy.applyThreads", defaultValue = "1")
+    protected int applyThreads;
+
+    /**
+     * Whether to skip resources which haven't changed since they were applied the last time. Only the
+     * hash stored when applying is compared, so changes done directly in the cluster are not reverted.
+     */
+    @Parameter(property = "fabric8.deploy.skipUnchanged", defaultValue = "false")
+    protected boolean skipUnchanged;
+
+    /**
+     * Whether to wait until the applied Deployments, DeploymentConfigs and StatefulSets have been rolled out
+     */
+    @Parameter(property = "fabric8.deploy.waitForRollout", defaultValue = "false")
+    protected boolean waitForRollout;
+
+    /**
+     * How many seconds to wait at most for all rollouts to finish
+     */
+    @Parameter(property = "fabric8.deploy.rolloutTimeoutSeconds", defaultValue = "300")
+    protected long rolloutTimeoutSeconds;
+
     private ClusterAccess clusterAccess;
 
     private Route createRouteForService(String routeDomainPostfix, String namespace, Service service) {
@@ -332,8 +357,9 @@ public class ApplyMojo extends AbstractFabric8Mojo {
         try {
             KubernetesClient kubernetes = clusterAccess.createDefaultClient(log);
             URL masterUrl = kubernetes.getMasterUrl();
+            boolean openShift = ClientRegistry.isOpenShift(kubernetes);
             File manifest;
-            if (KubernetesHelper.isOpenShift(kubernetes)) {
+            if (openShift) {
                 manifest = openshiftManifest;
             } else {
                 manifest = kubernetesManifest;
@@ -348,7 +374,7 @@ public class ApplyMojo extends AbstractFabric8Mojo {
             }
 
             String clusterKind = "Kubernetes";
-            if (KubernetesHelper.isOpenShift(kubernetes)) {
+            if (openShift) {
                 clusterKind = "OpenShift";
             }
             KubernetesResourceUtil.validateKubernetesMasterUrl(masterUrl);
@@ -366,7 +392,6 @@ public class ApplyMojo extends AbstractFabric8Mojo {
             controller.setRollingUpgrade(rollingUpgrades);
             controller.setRollingUpgradePreserveScale(isRollingUpgradePreserveScale());
 
-            boolean openShift = KubernetesHelper.isOpenShift(kubernetes);
             if (openShift) {
                 getLog().info("OpenShift platform detected");
             } else {
@@ -378,7 +403,7 @@ public class ApplyMojo extends AbstractFabric8Mojo {
             controller.applyNamespace(namespace);
             controller.setNamespace(namespace);
 
-            Set<HasMetadata> entities = KubernetesResourceUtil.loadResources(manifest);
+            Set<HasMetadata> entities = KubernetesResourceUtil.loadResources(manifest, new TemplateExpander(getTemplateCacheDir(project)));
 
             if (createExternalUrls) {
                 if (controller.getOpenShiftClientOrNull() != null) {
@@ -399,55 +424,46 @@ public class ApplyMojo extends AbstractFabric8Mojo {
     }
 
     protected void applyEntities(Controller controller, KubernetesClient kubernetes, String namespace, String fileName, Set<HasMetadata> entities) throws Exception {
-        // Apply all items
-        for (HasMetadata entity : entities) {
-            if (entity instanceof Pod) {
-                Pod pod = (Pod) entity;
-                controller.applyPod(pod, fileName);
-            } else if (entity instanceof Service) {
-                Service service = (Service) entity;
-                controller.applyService(service, fileName);
-            } else if (entity instanceof ReplicationController) {
-                ReplicationController replicationController = (ReplicationController) entity;
-                controller.applyReplicationController(replicationController, fileName);
-            } else if (entity != null) {
-                controller.apply(entity, fileName);
-            }
+        // Apply all items, tier by tier
+        ApplyService applyService = new ApplyService(kubernetes, controller, log, applyThreads, skipUnchanged && !recreate);
+        applyService.apply(entities, fileName);
+        if (waitForRollout) {
+            waitForRollout(kubernetes, namespace, entities, applyService.getApplyTimes());
         }
 
         String command = clusterAccess.isOpenShiftImageStream(log) ? "oc" : "kubectl";
         log.info("[[B]]HINT:[[B]] Use the command `%s get pods -w` to watch your pods start up", command);
 
         Logger serviceLogger = createExternalProcessLogger("[[G]][SVC][[G]] ");
-        long serviceUrlWaitTimeSeconds = this.serviceUrlWaitTimeSeconds;
+        List<Service> services = new ArrayList<>();
         for (HasMetadata entity : entities) {
             if (entity instanceof Service) {
-                Service service = (Service) entity;
-                String name = getName(service);
-                Resource<Service, DoneableService> serviceResource = kubernetes.services().inNamespace(namespace).withName(name);
-                String url = null;
-                // lets wait a little while until there is a service URL in case the exposecontroller is running slow
-                for (int i = 0; i < serviceUrlWaitTimeSeconds; i++) {
-                    if (i > 0) {
-                        Thread.sleep(1000);
-                    }
-                    Service s = serviceResource.get();
-                    if (s != null) {
-                        url = getExternalServiceURL(s);
-                        if (Strings.isNotBlank(url)) {
-                            break;
-                        }
-                    }
-                    if (!isExposeService(service)) {
-                        break;
-                    }
-                }
+                services.add((Service) entity);
+            }
+        }
+        // lets wait a little while until there are service URLs in case the exposecontroller is running slow
+        Map<String, String> urls = new ServiceUrlService(kubernetes, log).getServiceUrls(namespace, services, serviceUrlWaitTimeSeconds);
+        for (Map.Entry<String, String> entry : urls.entrySet()) {
+            if (entry.getValue().startsWith("http")) {
+                serviceLogger.info("" + entry.getKey() + ": " + entry.getValue());
+            }
+        }
+    }
 
-                // lets not wait for other services
-                serviceUrlWaitTimeSeconds = 1;
-                if (Strings.isNotBlank(url) && url.startsWith("http")) {
-                    serviceLogger.info("" + name + ": " + url);
-                }
+    private void waitForRollout(KubernetesClient kubernetes, String namespace, Set<HasMetadata> entities,
+                                Map<HasMetadata, Long> applyTimes) throws InterruptedException, IOException, MojoExecutionException {
+        List<RolloutService.Rollout> rollouts =
+            new RolloutService(kubernetes, log).waitForRollout(namespace, entities, applyTimes, rolloutTimeoutSeconds);
+        if (rollouts.isEmpty()) {
+            return;
+        }
+        File report = new File(jsonLogDir, RolloutService.REPORT_FILE_NAME);
+        RolloutService.writeReport(report, rollouts);
+        log.verbose("Rollout report written to %s", report);
+        for (RolloutService.Rollout rollout : rollouts) {
+            if (!rollout.isReady() && failOnError) {
+                throw new MojoExecutionException("Rollout of " + rollout.getKind() + " " + rollout.getName() +
+                                                 " not finished after " + rolloutTimeoutSeconds + " seconds");
             }
         }
     }
@@ -463,15 +479,6 @@ public class ApplyMojo extends AbstractFabric8Mojo {
         return getFabric8ServiceHubBuilder(controller).build();
     }
 
-    protected String getExternalServiceURL(Service service) {
-        return getOrCreateAnnotations(service).get(Annotations.Service.EXPOSE_URL);
-    }
-
-    protected boolean isExposeService(Service service) {
-        String expose = getLabels(service).get("expose");
-        return expose != null && expose.toLowerCase().equals("true");
-    }
-
     public boolean isRollingUpgrades() {
         return rollingUpgrades;
     }
@@ -497,7 +504,17 @@ public class ApplyMojo extends AbstractFabric8Mojo {
     protected static Object applyTemplates(Template template, KubernetesClient kubernetes, Controller controller, String namespace, String fileName, MavenProject project, Logger log) throws Exception {
         KubernetesHelper.setNamespace(template, namespace);
         overrideTemplateParameters(template, project, log);
-        return controller.applyTemplate(template, fileName);
+        // Same as controller.applyTemplate() but with cached local processing
+        controller.installTemplate(template, fileName);
+        return new TemplateExpander(getTemplateCacheDir(project)).process(template, controller.isFailOnMissingParameterValue());
+    }
+
+    // Directory for caching locally processed templates or null if there is no project
+    private static File getTemplateCacheDir(MavenProject project) {
+        if (project == null || project.getBuild() == null || project.getBuild().getDirectory() == null) {
+            return null;
+        }
+        return new File(project.getBuild().getDirectory(), "fabric8/" + TemplateExpander.CACHE_DIR_NAME);
     }
 
     /**
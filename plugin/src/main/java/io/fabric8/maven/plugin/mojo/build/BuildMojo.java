@@ -19,9 +19,16 @@ package io.fabric8.maven.plugin.mojo.build;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
 import io.fabric8.maven.core.access.ClusterAccess;
@@ -31,16 +38,21 @@ import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.config.ResourceConfig;
 import io.fabric8.maven.core.service.BuildService;
+import io.fabric8.maven.core.service.Fabric8ServiceException;
 import io.fabric8.maven.core.service.Fabric8ServiceHub;
 import io.fabric8.maven.core.util.GoalFinder;
 import io.fabric8.maven.core.util.Gofabric8Util;
 import io.fabric8.maven.core.util.OpenShiftDependencyResources;
+import io.fabric8.maven.core.util.PrefixedLogger;
 import io.fabric8.maven.core.util.ProfileUtil;
 import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.config.BuildImageConfiguration;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.docker.service.DockerAccessFactory;
 import io.fabric8.maven.docker.service.ServiceHub;
 import io.fabric8.maven.docker.util.EnvUtil;
+import io.fabric8.maven.docker.util.ImageName;
+import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.docker.util.Task;
 import io.fabric8.maven.enricher.api.EnricherContext;
 import io.fabric8.maven.generator.api.GeneratorContext;
@@ -145,6 +157,29 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
     @Parameter(property = "fabric8.s2i.imageStreamLookupPolicyLocal", defaultValue = "true")
     private boolean s2iImageStreamLookupPolicyLocal = true;
 
+    /**
+     * Skip the upload and the S2I binary build if the content of the build archive did not change since the
+     * last successful build and the image stream tag still refers to the image built from it.
+     */
+    @Parameter(property = "fabric8.s2i.archiveCache", defaultValue = "false")
+    private boolean s2iArchiveCache;
+
+    /**
+     * Gzip compression level (1 to 9) for uploading the archive of an OpenShift binary build. The archive is
+     * written and compressed while it is uploaded. The default of 0 uploads the archive uncompressed, other
+     * values are rejected.
+     */
+    @Parameter(property = "fabric8.s2i.archiveCompression", defaultValue = "0")
+    private int s2iArchiveCompressionLevel;
+
+    /**
+     * Maximum number of images which are built at the same time by OpenShift. With more than one
+     * thread, all builds are started at once up to this limit, their logs are prefixed with the image
+     * name and the goal fails as soon as the first build fails.
+     */
+    @Parameter(property = "fabric8.build.threads", defaultValue = "1")
+    private int buildThreads = 1;
+
     /**
      * Should we use the project's compile-time classpath to scan for additional enrichers/generators?
      */
@@ -233,11 +268,76 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
                 .mavenProject(project)
                 .build();
 
-        super.executeInternal(hub);
+        if (buildThreads > 1 && fabric8ServiceHub.getResolvedMode() == PlatformMode.openshift) {
+            List<ImageConfiguration> images = getImagesToBuild();
+            if (!images.isEmpty()) {
+                // TODO need to refactor d-m-p to avoid this call
+                EnvUtil.storeTimestamp(this.getBuildTimestampFile(), this.getBuildTimestamp());
+                buildConcurrently(fabric8ServiceHub, images, buildThreads, log);
+            }
+        } else {
+            super.executeInternal(hub);
+        }
 
         fabric8ServiceHub.getBuildService().postProcess(getBuildServiceConfig());
     }
 
+    private List<ImageConfiguration> getImagesToBuild() {
+        List<ImageConfiguration> ret = new ArrayList<>();
+        for (ImageConfiguration imageConfig : getResolvedImages()) {
+            BuildImageConfiguration buildConfig = imageConfig.getBuildConfiguration();
+            if (buildConfig != null) {
+                if (buildConfig.skip()) {
+                    log.info("%s : Skipped building", imageConfig.getDescription());
+                } else {
+                    ret.add(imageConfig);
+                }
+            }
+        }
+        return ret;
+    }
+
+    // Build all images at once with their own build service and log prefix. Shared resources like the pull
+    // secret are set up before. The first failure stops the remaining builds.
+    static void buildConcurrently(Fabric8ServiceHub fabric8ServiceHub, List<ImageConfiguration> images, int buildThreads,
+                                  Logger log) throws MojoExecutionException {
+        try {
+            fabric8ServiceHub.getBuildService().prepareBuilds(images);
+        } catch (Fabric8ServiceException e) {
+            throw new MojoExecutionException("Failed to execute the build", e);
+        }
+        int threads = Math.min(buildThreads, images.size());
+        log.info("Building %d images with up to %d parallel builds", images.size(), threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CompletionService<ImageConfiguration> builds = new ExecutorCompletionService<>(executor);
+            for (final ImageConfiguration imageConfig : images) {
+                String prefix = new ImageName(imageConfig.getName()).getSimpleName();
+                final BuildService buildService = fabric8ServiceHub.createBuildService(new PrefixedLogger(prefix, log));
+                builds.submit(new Callable<ImageConfiguration>() {
+                    @Override
+                    public ImageConfiguration call() throws Exception {
+                        buildService.build(imageConfig);
+                        return imageConfig;
+                    }
+                });
+            }
+            for (int i = 0; i < images.size(); i++) {
+                try {
+                    builds.take().get();
+                } catch (ExecutionException e) {
+                    throw new MojoExecutionException("Failed to execute the build", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for the builds", e);
+        } finally {
+            // Interrupts builds which are still running after a failure
+            executor.shutdownNow();
+        }
+    }
+
     private boolean shouldSkipBecauseOfPomPackaging() {
         if (!Objects.equals("pom", project.getPackaging())) {
             // No pom packaging
@@ -280,6 +380,10 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
     }
 
     protected io.fabric8.maven.core.service.BuildService.BuildServiceConfig getBuildServiceConfig() throws MojoExecutionException {
+        if (s2iArchiveCompressionLevel < 0 || s2iArchiveCompressionLevel > 9) {
+            throw new MojoExecutionException("Invalid fabric8.s2i.archiveCompression " + s2iArchiveCompressionLevel +
+                                             ", must be between 0 (uncompressed) and 9");
+        }
         return new io.fabric8.maven.core.service.BuildService.BuildServiceConfig.Builder()
                 .dockerBuildContext(getBuildContext())
                 .dockerMojoParameters(createMojoParameters())
@@ -288,6 +392,8 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
                 .openshiftPullSecret(openshiftPullSecret)
                 .s2iBuildNameSuffix(s2iBuildNameSuffix)
                 .s2iImageStreamLookupPolicyLocal(s2iImageStreamLookupPolicyLocal)
+                .s2iArchiveCache(s2iArchiveCache)
+                .s2iArchiveCompressionLevel(s2iArchiveCompressionLevel)
                 .buildDirectory(project.getBuild().getDirectory())
                 .attacher(new BuildService.BuildServiceConfig.Attacher() {
                     @Override
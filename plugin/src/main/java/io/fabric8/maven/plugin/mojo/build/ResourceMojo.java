@@ -37,6 +37,8 @@ import io.fabric8.maven.docker.util.EnvUtil;
 import io.fabric8.maven.docker.util.ImageNameFormatter;
 import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.enricher.api.EnricherContext;
+import io.fabric8.maven.enricher.api.util.GitInfo;
+import io.fabric8.maven.enricher.api.util.GitInfoProvider;
 import io.fabric8.maven.enricher.api.util.InitContainerHandler;
 import io.fabric8.maven.enricher.standard.VolumePermissionEnricher;
 import io.fabric8.maven.generator.api.GeneratorContext;
@@ -52,6 +54,8 @@ import io.fabric8.openshift.api.model.Template;
 import io.fabric8.utils.Lists;
 import io.fabric8.utils.Strings;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
@@ -61,11 +65,13 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.shared.filtering.MavenFileFilter;
 import org.apache.maven.shared.filtering.MavenFilteringException;
+import org.codehaus.plexus.util.FileUtils;
 
 import javax.validation.ConstraintViolationException;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -85,7 +91,7 @@ import static io.fabric8.maven.plugin.mojo.build.ApplyMojo.DEFAULT_OPENSHIFT_MAN
  * Generates or copies the Kubernetes JSON file and attaches it to the build so its
  * installed and released to maven repositories like other build artifacts.
  */
-@Mojo(name = "resource", defaultPhase = LifecyclePhase.PROCESS_RESOURCES, requiresDependencyResolution = ResolutionScope.COMPILE)
+@Mojo(name = "resource", defaultPhase = LifecyclePhase.PROCESS_RESOURCES, requiresDependencyResolution = ResolutionScope.COMPILE, threadSafe = true)
 public class ResourceMojo extends AbstractResourceMojo {
     /**
      * Used to annotate a resource as being for a specific platform only such as "kubernetes" or "openshift"
@@ -154,6 +160,25 @@ public class ResourceMojo extends AbstractResourceMojo {
     @Parameter(property = "fabric8.failOnValidationError", defaultValue = "false")
     private Boolean failOnValidationError;
 
+    // Validate the generated resource objects before writing them instead of reading back the written descriptors
+    @Parameter(property = "fabric8.resourceValidationInMemory", defaultValue = "false")
+    private boolean resourceValidationInMemory;
+
+    // Number of resource descriptors to validate in parallel
+    @Parameter(property = "fabric8.resourceValidationThreads", defaultValue = "1")
+    private int resourceValidationThreads = 1;
+
+    // Number of resource fragments to parse in parallel
+    @Parameter(property = "fabric8.resourceReadThreads", defaultValue = "1")
+    private int resourceReadThreads = 1;
+
+    // Skip the generation if none of the inputs changed since the last run
+    @Parameter(property = "fabric8.resourceIncremental", defaultValue = "false")
+    private boolean resourceIncremental;
+
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
+
     // Reusing image configuration from d-m-p
     @Parameter
     private List<ImageConfiguration> images;
@@ -281,30 +306,137 @@ public class ResourceMojo extends AbstractResourceMojo {
             resolvedImages = getResolvedImages(images, log);
 
             if (!skip && (!isPomProject() || hasFabric8Dir())) {
+                String fingerprint = resourceIncremental ? calculateFingerprint() : null;
+                if (fingerprint != null && isUpToDate(fingerprint)) {
+                    log.info("Resource descriptors are up to date");
+                    for (ResourceClassifier classifier : ResourceClassifier.values()) {
+                        attachExistingResources(classifier);
+                    }
+                    return;
+                }
+                // Remove a previous fingerprint so that a failed run is never taken as up to date
+                getFingerprintFile().delete();
+
                 // Extract and generate resources which can be a mix of Kubernetes and OpenShift resources
                 KubernetesList resources = generateResources(resolvedImages);
 
                 // Adapt list to use OpenShift specific resource objects
                 KubernetesList openShiftResources = convertToOpenShiftResources(resources);
-                writeResources(openShiftResources, ResourceClassifier.OPENSHIFT, generateRoute);
-                File openShiftResourceDir = new File(this.targetDir, ResourceClassifier.OPENSHIFT.getValue());
-                validateIfRequired(openShiftResourceDir, ResourceClassifier.OPENSHIFT);
+                writeAndValidateResources(openShiftResources, ResourceClassifier.OPENSHIFT);
 
                 // Remove OpenShift specific stuff provided by fragments
                 KubernetesList kubernetesResources = convertToKubernetesResources(resources, openShiftResources);
-                writeResources(kubernetesResources, ResourceClassifier.KUBERNETES, generateRoute);
-                File kubernetesResourceDir = new File(this.targetDir, ResourceClassifier.KUBERNETES.getValue());
-                validateIfRequired(kubernetesResourceDir, ResourceClassifier.KUBERNETES);
+                writeAndValidateResources(kubernetesResources, ResourceClassifier.KUBERNETES);
+
+                if (fingerprint != null) {
+                    File fingerprintFile = getFingerprintFile();
+                    fingerprintFile.getParentFile().mkdirs();
+                    FileUtils.fileWrite(fingerprintFile, "UTF-8", fingerprint);
+                }
             }
         } catch (IOException e) {
             throw new MojoExecutionException("Failed to generate fabric8 descriptor", e);
         }
     }
 
-    private void validateIfRequired(File resourceDir, ResourceClassifier classifier) throws MojoExecutionException, MojoFailureException {
+    // Fingerprint over all inputs of the generation, or null if it can't be calculated
+    private String calculateFingerprint() throws IOException, MojoExecutionException {
+        File buildTimestampFile = getBuildTimestampFile();
+        if (buildTimestampFile == null) {
+            // Image names derived from a fresh build date change with every run
+            log.verbose("No previous build timestamp, generating resources");
+            return null;
+        }
+        try {
+            Fingerprint fingerprint = new Fingerprint()
+                .add("pluginVersion", pluginVersion)
+                .addFileStamp("plugin", getPluginFile())
+                .add("platformMode", String.valueOf(platformMode))
+                .add("buildStrategy", String.valueOf(buildStrategy))
+                .add("profile", profile)
+                .add("namespace", namespace)
+                .add("targetDir", targetDir.getAbsolutePath())
+                .add("switchToDeployment", String.valueOf(switchToDeployment))
+                .add("openshiftDeployTimeoutSeconds", String.valueOf(openshiftDeployTimeoutSeconds))
+                .add("trimImageInContainerSpec", String.valueOf(trimImageInContainerSpec))
+                .add("generateRoute", String.valueOf(generateRoute))
+                .add("enableAutomaticTrigger", String.valueOf(enableAutomaticTrigger))
+                .add("useProjectClasspath", String.valueOf(useProjectClasspath))
+                .addObject("resources", resources)
+                .addObject("enricher", extractEnricherConfig())
+                .addObject("generator", extractGeneratorConfig())
+                .addObject("images", resolvedImages)
+                .addFile("buildTimestamp", buildTimestampFile)
+                .addProperties("properties", project.getProperties())
+                .addProperties("userProperties", session.getUserProperties())
+                .add("gitCommit", getGitCommitId())
+                .addFile("resourceDir", resourceDir)
+                .addFile("resourceDirOpenShiftOverride", resourceDirOpenShiftOverride)
+                .addFile("composeResourceDir", composeResourceDir)
+                .add("composeFile", composeFile);
+            if (composeConfigPresent()) {
+                fingerprint.addFile("composeFileContent", buildComposeFilePath().toFile());
+            }
+            // Dependencies might provide resource descriptors
+            for (Artifact artifact : project.getArtifacts()) {
+                fingerprint.addFileStamp(artifact.getId(), artifact.getFile());
+            }
+            // Project resources like application.properties are evaluated by some enrichers
+            for (Resource resource : project.getResources()) {
+                fingerprint.addFile("projectResource", new File(resource.getDirectory()));
+            }
+            return fingerprint.build();
+        } catch (IllegalArgumentException e) {
+            log.verbose("Cannot calculate fingerprint, generating resources: %s", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isUpToDate(String fingerprint) throws IOException {
+        File fingerprintFile = getFingerprintFile();
+        if (!fingerprintFile.exists() || !fingerprint.equals(FileUtils.fileRead(fingerprintFile, "UTF-8").trim())) {
+            return false;
+        }
+        return hasResourceFile(ResourceClassifier.OPENSHIFT) && hasResourceFile(ResourceClassifier.KUBERNETES);
+    }
+
+    private File getFingerprintFile() {
+        return new File(workDir, "resource.fingerprint");
+    }
+
+    private File getPluginFile() {
+        try {
+            return new File(ResourceMojo.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private String getGitCommitId() {
+        try {
+            GitInfo gitInfo = GitInfoProvider.getGitInfo(project);
+            return gitInfo != null ? gitInfo.getCommitId() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeAndValidateResources(KubernetesList resources, ResourceClassifier classifier) throws MojoExecutionException, MojoFailureException {
+        if (resourceValidationInMemory) {
+            validateIfRequired(new ResourceValidator(getIndividualResources(resources, classifier, generateRoute), classifier, log));
+            writeResources(resources, classifier, generateRoute);
+        } else {
+            writeResources(resources, classifier, generateRoute);
+            File resourceDir = new File(this.targetDir, classifier.getValue());
+            validateIfRequired(new ResourceValidator(resourceDir, classifier, log));
+        }
+    }
+
+    private void validateIfRequired(ResourceValidator validator) throws MojoExecutionException, MojoFailureException {
         try {
             if (!skipResourceValidation) {
-                new ResourceValidator(resourceDir, classifier, log).validate();
+                validator.withThreads(resourceValidationThreads)
+                         .validate();
             }
         } catch (ConstraintViolationException e) {
             if (failOnValidationError) {
@@ -388,7 +520,7 @@ public class ResourceMojo extends AbstractResourceMojo {
         Template customTemplate = createTemplateWithObjects(kubernetesResources, template);
         if (customTemplate != null) {
             try {
-                return Templates.processTemplatesLocally(customTemplate, false);
+                return new TemplateExpander(new File(workDir, TemplateExpander.CACHE_DIR_NAME)).process(customTemplate, false);
             } catch (IOException e) {
                 throw new MojoExecutionException("Failed to replace template expressions in kubernetes manifest: " + e, e);
             }
@@ -492,7 +624,8 @@ public class ResourceMojo extends AbstractResourceMojo {
                 KubernetesListBuilder builder = KubernetesResourceUtil.readResourceFragmentsFrom(
                         KubernetesResourceUtil.DEFAULT_RESOURCE_VERSIONING,
                         defaultName,
-                        mavenFilterFiles(resourceFiles, this.workDirOpenShiftOverride));
+                        mavenFilterFiles(resourceFiles, this.workDirOpenShiftOverride),
+                        resourceReadThreads);
                 KubernetesList list = builder.build();
                 for (HasMetadata item : list.getItems()) {
                     openShiftOverrideResources.addOpenShiftOverride(item);
@@ -521,6 +654,7 @@ public class ResourceMojo extends AbstractResourceMojo {
                 File[] resourceFiles = KubernetesResourceUtil.listResourceFragments(profileDir);
                 if (resourceFiles.length > 0) {
                     KubernetesListBuilder profileBuilder = readResourceFragments(resourceFiles);
+                    enricherManager.clearCaches();
                     enricherManager.createDefaultResources(enricherConfig, profileBuilder);
                     enricherManager.enrich(enricherConfig, profileBuilder);
                     KubernetesList profileItems = profileBuilder.build();
@@ -618,7 +752,8 @@ public class ResourceMojo extends AbstractResourceMojo {
         builder = KubernetesResourceUtil.readResourceFragmentsFrom(
             KubernetesResourceUtil.DEFAULT_RESOURCE_VERSIONING,
             defaultName,
-                mavenFilterFiles(resourceFiles, this.workDir));
+                mavenFilterFiles(resourceFiles, this.workDir),
+                resourceReadThreads);
         return builder;
     }
 
@@ -827,24 +962,30 @@ public class ResourceMojo extends AbstractResourceMojo {
 
     // get a reference date
     private Date getBuildReferenceDate() throws MojoExecutionException {
+        File tsFile = getBuildTimestampFile();
+        if (tsFile == null) {
+            // we are running together with fabric8:build, but since fabric8:build is running later we
+            // are creating the build date here which is reused by fabric8:build. Also used when no
+            // build has been run yet.
+            return new Date();
+        }
+        try {
+            return EnvUtil.loadTimestamp(tsFile);
+        } catch (MojoExecutionException e) {
+            throw new MojoExecutionException("Cannot read timestamp from " + tsFile,e);
+        }
+    }
+
+    // Timestamp file of a previous fabric8:build or null if a new build date is used
+    private File getBuildTimestampFile() throws MojoExecutionException {
         if (goalFinder.runningWithGoal(project, session, "fabric8:build") ||
                 goalFinder.runningWithGoal(project, session, "fabric8:deploy") ||
                 goalFinder.runningWithGoal(project, session, "fabric8:run")) {
-            // we are running together with fabric8:build, but since fabric8:build is running later we
-            // are creating the build date here which is reused by fabric8:build
-            return new Date();
-        } else {
-            // Pick up an existing build date created by fabric8:build previously
-            File tsFile = new File(project.getBuild().getDirectory(),AbstractDockerMojo.DOCKER_BUILD_TIMESTAMP);
-            if (!tsFile.exists()) {
-                return new Date();
-            }
-            try {
-                return EnvUtil.loadTimestamp(tsFile);
-            } catch (MojoExecutionException e) {
-                throw new MojoExecutionException("Cannot read timestamp from " + tsFile,e);
-            }
+            return null;
         }
+        // Pick up an existing build date created by fabric8:build previously
+        File tsFile = new File(project.getBuild().getDirectory(),AbstractDockerMojo.DOCKER_BUILD_TIMESTAMP);
+        return tsFile.exists() ? tsFile : null;
     }
 
     private void addConfiguredResources(KubernetesListBuilder builder, List<ImageConfiguration> images) {
@@ -18,15 +18,15 @@ package io.fabric8.maven.plugin.mojo.develop;
 import io.fabric8.kubernetes.api.Controller;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.maven.core.service.UndeployService;
 import io.fabric8.maven.plugin.mojo.build.ApplyMojo;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 
 import java.util.Set;
 
-import static io.fabric8.maven.core.util.KubernetesClientUtil.deleteEntities;
-
 /**
  * Undeploys (deletes) the kubernetes resources generated by the current project.
  * <br>
@@ -34,8 +34,21 @@ import static io.fabric8.maven.core.util.KubernetesClientUtil.deleteEntities;
  */
 @Mojo(name = "undeploy", requiresDependencyResolution = ResolutionScope.COMPILE, defaultPhase = LifecyclePhase.INSTALL)
 public class UndeployMojo extends ApplyMojo {
+
+    /**
+     * Number of threads used for deleting independent resources concurrently
+     */
+    @Parameter(property = "fabric8.undeploy.threads", defaultValue = "1")
+    private int undeployThreads;
+
+    /**
+     * How many seconds to wait until the pods of the deleted resources are gone. No waiting if 0.
+     */
+    @Parameter(property = "fabric8.undeploy.waitSeconds", defaultValue = "0")
+    private long undeployWaitSeconds;
+
     @Override
     protected void applyEntities(Controller controller, KubernetesClient kubernetes, String namespace, String fileName, Set<HasMetadata> entities) throws Exception {
-        deleteEntities(kubernetes, namespace, entities, s2iBuildNameSuffix, log);
+        new UndeployService(kubernetes, log).undeploy(namespace, entities, s2iBuildNameSuffix, undeployThreads, undeployWaitSeconds);
     }
 }
@@ -27,6 +27,7 @@ import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.maven.core.access.ClientRegistry;
 import io.fabric8.maven.core.access.ClusterAccess;
 import io.fabric8.maven.core.config.OpenShiftBuildStrategy;
 import io.fabric8.maven.core.config.PlatformMode;
@@ -176,7 +177,7 @@ public class WatchMojo extends io.fabric8.maven.docker.WatchMojo {
         KubernetesResourceUtil.validateKubernetesMasterUrl(masterUrl);
 
         File manifest;
-        boolean isOpenshift = KubernetesHelper.isOpenShift(kubernetes);
+        boolean isOpenshift = ClientRegistry.isOpenShift(kubernetes);
         if (isOpenshift) {
             manifest = openshiftManifest;
         } else {
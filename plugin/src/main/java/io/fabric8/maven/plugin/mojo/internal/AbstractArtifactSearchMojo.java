@@ -16,11 +16,11 @@
 package io.fabric8.maven.plugin.mojo.internal;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.fabric8.kubernetes.api.Annotations;
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.maven.core.util.Mappers;
 import io.fabric8.maven.plugin.mojo.AbstractFabric8Mojo;
 import io.fabric8.openshift.api.model.Template;
 import io.fabric8.utils.Function;
@@ -171,8 +171,7 @@ public abstract class AbstractArtifactSearchMojo extends AbstractFabric8Mojo {
         HelmIndexMojo.Result result = null;
         try {
             URL url = new URL(urlText);
-            ObjectMapper mapper = new ObjectMapper();
-            result = mapper.readerFor(HelmIndexMojo.Result.class).readValue(url);
+            result = Mappers.json().readerFor(HelmIndexMojo.Result.class).readValue(url);
         } catch (IOException e) {
             throw new MojoExecutionException("Could not query " + urlText + " : " + e, e);
         }
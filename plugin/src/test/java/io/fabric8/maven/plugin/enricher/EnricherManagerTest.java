@@ -17,12 +17,17 @@
 package io.fabric8.maven.plugin.enricher;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.api.model.extensions.ReplicaSet;
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.enricher.api.EnricherContext;
+import io.fabric8.maven.enricher.api.Kind;
 import mockit.Expectations;
 import mockit.Mocked;
 import mockit.integration.junit4.JMockit;
@@ -96,4 +101,53 @@ public class EnricherManagerTest {
         assertNotNull(labels);
         assertEquals("fabric8", labels.get("provider"));
     }
+
+    @Test
+    public void enrichConcurrently() throws Exception {
+        new Expectations() {{
+           context.getConfig(); result = new ProcessorConfig(Arrays.asList("fmp-project"),null,new HashMap<String, TreeMap>());
+        }};
+        // Like modules of a parallel reactor build, each with its own manager
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<KubernetesList>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<KubernetesList>() {
+                    @Override
+                    public KubernetesList call() {
+                        EnricherManager manager = new EnricherManager(null, context);
+                        KubernetesListBuilder builder = new KubernetesListBuilder();
+                        builder.addNewServiceItem().withNewSpec().endSpec().endServiceItem();
+                        manager.enrich(builder);
+                        return builder.build();
+                    }
+                }));
+            }
+            for (Future<KubernetesList> result : results) {
+                Service service = (Service) result.get().getItems().get(0);
+                assertEquals("fabric8", service.getMetadata().getLabels().get("provider"));
+                assertEquals("fabric8", service.getSpec().getSelector().get("provider"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void extractionIsCached() {
+        final ProcessorConfig config = new ProcessorConfig(Arrays.asList("fmp-project"),null,new HashMap<String, TreeMap>());
+        new Expectations() {{
+           context.getConfig(); result = config;
+        }};
+        EnricherManager manager = new EnricherManager(null, context);
+
+        Map<String, String> labels = manager.extractLabels(config, Kind.SERVICE);
+        assertSame(labels, manager.extractLabels(config, Kind.SERVICE));
+        assertNotSame(labels, manager.extractLabels(config, Kind.DEPLOYMENT));
+
+        manager.clearCaches();
+        Map<String, String> relabels = manager.extractLabels(config, Kind.SERVICE);
+        assertNotSame(labels, relabels);
+        assertEquals(labels, relabels);
+    }
 }
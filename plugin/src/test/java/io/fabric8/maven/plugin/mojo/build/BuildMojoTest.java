@@ -0,0 +1,207 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package io.fabric8.maven.plugin.mojo.build;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.maven.core.service.BuildService;
+import io.fabric8.maven.core.service.Fabric8ServiceException;
+import io.fabric8.maven.core.service.Fabric8ServiceHub;
+import io.fabric8.maven.docker.config.BuildImageConfiguration;
+import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.docker.util.Logger;
+import mockit.Deencapsulation;
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+import mockit.integration.junit4.JMockit;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 17/10/26
+ */
+@RunWith(JMockit.class)
+public class BuildMojoTest {
+
+    @Mocked
+    Fabric8ServiceHub hub;
+
+    @Mocked
+    Logger log;
+
+    private final Set<String> built = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    @Test
+    public void buildConcurrentlyWithPrefixedLogs() throws Exception {
+        expectBuildServices(new Builder() {
+            @Override
+            public void build(ImageConfiguration imageConfig, Logger log) {
+                log.info("Building %s", imageConfig.getName());
+                built.add(imageConfig.getName());
+            }
+        });
+
+        BuildMojo.buildConcurrently(hub, images("app1", "app2", "app3"), 2, log);
+
+        assertEquals(3, built.size());
+        new Verifications() {{
+            log.info("app1: Building %s", (Object[]) any); times = 1;
+            log.info("app2: Building %s", (Object[]) any); times = 1;
+            log.info("app3: Building %s", (Object[]) any); times = 1;
+        }};
+    }
+
+    @Test
+    public void firstFailureInterruptsOtherBuilds() throws Exception {
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch interrupted = new CountDownLatch(2);
+        expectBuildServices(new Builder() {
+            @Override
+            public void build(ImageConfiguration imageConfig, Logger log) throws Fabric8ServiceException {
+                if (imageConfig.getName().equals("broken")) {
+                    try {
+                        // Fail only when the other builds are running
+                        started.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new Fabric8ServiceException("Build of broken failed");
+                }
+                started.countDown();
+                try {
+                    Thread.sleep(60000);
+                    built.add(imageConfig.getName());
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        });
+
+        try {
+            BuildMojo.buildConcurrently(hub, images("app1", "broken", "app2"), 3, log);
+            fail("Build should have failed");
+        } catch (MojoExecutionException exp) {
+            assertTrue(exp.getCause() instanceof Fabric8ServiceException);
+            assertEquals("Build of broken failed", exp.getCause().getMessage());
+        }
+        assertTrue("Running builds have not been interrupted", interrupted.await(10, TimeUnit.SECONDS));
+        assertTrue(built.isEmpty());
+    }
+
+    @Test
+    public void pullSecretPreparedBeforeConcurrentBuilds() throws Exception {
+        final List<ImageConfiguration> images = Arrays.asList(
+            imageFrom("app1", "registry.example.com/java:8"), imageFrom("app2", "registry.example.com/tomcat:8"));
+        final List<List<ImageConfiguration>> prepared = new CopyOnWriteArrayList<>();
+        new Expectations() {{
+            hub.getBuildService();
+            result = new TestBuildService() {
+                @Override
+                public void prepareBuilds(List<ImageConfiguration> imageConfigs) {
+                    prepared.add(imageConfigs);
+                }
+            };
+        }};
+        expectBuildServices(new Builder() {
+            @Override
+            public void build(ImageConfiguration imageConfig, Logger log) {
+                // The shared pull secret must not be reconciled by the builds themselves
+                assertEquals(1, prepared.size());
+                built.add(imageConfig.getName());
+            }
+        });
+
+        BuildMojo.buildConcurrently(hub, images, 2, log);
+
+        assertEquals(Collections.singletonList(images), prepared);
+        assertEquals(2, built.size());
+    }
+
+    @Test
+    public void invalidArchiveCompression() throws Exception {
+        BuildMojo mojo = new BuildMojo();
+        for (int level : new int[] { -1, 10 }) {
+            Deencapsulation.setField(mojo, "s2iArchiveCompressionLevel", level);
+            try {
+                mojo.getBuildServiceConfig();
+                fail("Compression level " + level + " should be rejected");
+            } catch (MojoExecutionException exp) {
+                assertTrue(exp.getMessage().contains("fabric8.s2i.archiveCompression"));
+            }
+        }
+    }
+
+    private void expectBuildServices(final Builder builder) {
+        new Expectations() {{
+            hub.createBuildService((Logger) any);
+            result = new Delegate<BuildService>() {
+                BuildService createBuildService(final Logger prefixedLog) {
+                    return new TestBuildService() {
+                        @Override
+                        public void build(ImageConfiguration imageConfig) throws Fabric8ServiceException {
+                            builder.build(imageConfig, prefixedLog);
+                        }
+                    };
+                }
+            };
+        }};
+    }
+
+    private ImageConfiguration imageFrom(String name, String from) {
+        return new ImageConfiguration.Builder()
+            .name(name)
+            .buildConfig(new BuildImageConfiguration.Builder().from(from).build())
+            .build();
+    }
+
+    private List<ImageConfiguration> images(String... names) {
+        ImageConfiguration[] ret = new ImageConfiguration[names.length];
+        for (int i = 0; i < names.length; i++) {
+            ret[i] = new ImageConfiguration.Builder().name(names[i]).build();
+        }
+        return Arrays.asList(ret);
+    }
+
+    private interface Builder {
+        void build(ImageConfiguration imageConfig, Logger log) throws Fabric8ServiceException;
+    }
+
+    private static class TestBuildService implements BuildService {
+        @Override
+        public void build(ImageConfiguration imageConfig) throws Fabric8ServiceException {
+        }
+
+        @Override
+        public void prepareBuilds(List<ImageConfiguration> imageConfigs) {
+        }
+
+        @Override
+        public void postProcess(BuildServiceConfig config) {
+        }
+    }
+}
@@ -8,22 +8,21 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import io.fabric8.kubernetes.api.Annotations;
-import io.fabric8.kubernetes.api.KubernetesHelper;
-import io.fabric8.kubernetes.api.model.DoneableService;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.LabelSelector;
 import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.client.KubernetesClient;
-import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.core.service.PodLogService;
 import io.fabric8.maven.core.service.PortForwardService;
+import io.fabric8.maven.core.service.ServiceUrlService;
 import io.fabric8.maven.core.util.ClassUtil;
 import io.fabric8.maven.core.util.Configs;
 import io.fabric8.maven.core.util.IoUtil;
@@ -120,34 +119,18 @@ public class SpringBootWatcher extends BaseWatcher {
 
     private String getServiceExposeUrl(KubernetesClient kubernetes, Set<HasMetadata> resources) throws InterruptedException {
         long serviceUrlWaitTimeSeconds = Configs.asInt(getConfig(Config.serviceUrlWaitTimeSeconds));
+        List<Service> services = new ArrayList<>();
         for (HasMetadata entity : resources) {
             if (entity instanceof Service) {
-                Service service = (Service) entity;
-                String name = KubernetesHelper.getName(service);
-                Resource<Service, DoneableService> serviceResource = kubernetes.services().inNamespace(getContext().getNamespace()).withName(name);
-                String url = null;
-                // lets wait a little while until there is a service URL in case the exposecontroller is running slow
-                for (int i = 0; i < serviceUrlWaitTimeSeconds; i++) {
-                    if (i > 0) {
-                        Thread.sleep(1000);
-                    }
-                    Service s = serviceResource.get();
-                    if (s != null) {
-                        url = KubernetesHelper.getOrCreateAnnotations(s).get(Annotations.Service.EXPOSE_URL);
-                        if (Strings.isNotBlank(url)) {
-                            break;
-                        }
-                    }
-                    if (!isExposeService(service)) {
-                        break;
-                    }
-                }
-
-                // lets not wait for other services
-                serviceUrlWaitTimeSeconds = 1;
-                if (Strings.isNotBlank(url) && url.startsWith("http")) {
-                    return url;
-                }
+                services.add((Service) entity);
+            }
+        }
+        // lets wait a little while until there is a service URL in case the exposecontroller is running slow
+        Map<String, String> urls = new ServiceUrlService(kubernetes, log)
+            .getServiceUrls(getContext().getNamespace(), services, serviceUrlWaitTimeSeconds);
+        for (String url : urls.values()) {
+            if (url.startsWith("http")) {
+                return url;
             }
         }
 
@@ -155,11 +138,6 @@ public class SpringBootWatcher extends BaseWatcher {
         return null;
     }
 
-    private boolean isExposeService(Service service) {
-        String expose = KubernetesHelper.getLabels(service).get("expose");
-        return expose != null && expose.toLowerCase().equals("true");
-    }
-
     private void runRemoteSpringApplication(String url) {
         log.info("Running RemoteSpringApplication against endpoint: " + url);
 